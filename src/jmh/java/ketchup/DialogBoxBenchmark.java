@@ -0,0 +1,186 @@
+package ketchup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.image.Image;
+import javafx.scene.layout.VBox;
+
+/**
+ * Measures how long the GUI takes to start and to show a message, headless under Monocle.
+ * <p>
+ * {@code fxmlDialogBox} loads the layout {@link DialogBox} used to be loaded from, as a
+ * baseline for {@code newDialogBox}, which builds one in code, and {@code reuseDialogBox},
+ * which shows a message in a box the conversation view already has. Each of them also
+ * lays the box out, as showing it would. {@code startup} loads the main window.
+ * <p>
+ * Run with {@code ./gradlew jmh}. The settings in {@code build.gradle} override the ones
+ * given here, so {@code startup} is then timed warm. To time cold starts, one per JVM,
+ * run it from the jar that {@code ./gradlew jmhJar} builds, without options.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DialogBoxBenchmark {
+
+    /** The FXML file that every dialog box was loaded from before it was built in code. */
+    private static final String DIALOG_BOX_FXML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<?import javafx.geometry.Insets?>\n"
+            + "<?import javafx.scene.control.Label?>\n"
+            + "<?import javafx.scene.image.ImageView?>\n"
+            + "<?import javafx.scene.layout.HBox?>\n"
+            + "<HBox alignment=\"TOP_RIGHT\" spacing=\"10\" xmlns=\"http://javafx.com/javafx/17\""
+            + " xmlns:fx=\"http://javafx.com/fxml/1\">\n"
+            + "  <children>\n"
+            + "    <Label fx:id=\"dialog\" wrapText=\"true\" maxWidth=\"250\" style=\""
+            + "-fx-background-color: rgba(255,255,255,0.8); -fx-background-radius: 18;"
+            + " -fx-padding: 10 15 10 15; -fx-text-fill: black; -fx-font-size: 14px;"
+            + " -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.15), 5, 0.3, 0, 2);\"/>\n"
+            + "    <ImageView fx:id=\"displayPicture\" fitHeight=\"60\" fitWidth=\"60\"/>\n"
+            + "  </children>\n"
+            + "  <padding><Insets bottom=\"10\" left=\"5\" right=\"5\" top=\"10\"/></padding>\n"
+            + "</HBox>\n";
+
+    private static final String MESSAGE = "Sure! I have added todo: read chapter 4\n"
+            + "You now have 12 tasks in your list!";
+
+    private VBox container;
+
+    private Image image;
+
+    private DialogBox reused;
+
+    private int count;
+
+    /**
+     * Starts the JavaFX toolkit without a screen and makes a scene to lay boxes out in.
+     *
+     * @throws Exception if the toolkit could not be started
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        System.setProperty("glass.platform", "Monocle");
+        System.setProperty("monocle.platform", "Headless");
+        System.setProperty("prism.order", "sw");
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        started.await();
+
+        onFxThread(() -> {
+            image = new Image(DialogBoxBenchmark.class.getResourceAsStream("/images/monkey2.jpeg"));
+            container = new VBox();
+            new Scene(container, 400, 600);
+            reused = new DialogBox();
+            return null;
+        });
+    }
+
+    /**
+     * Loads a dialog box from FXML, the way every message used to.
+     *
+     * @return the laid out box
+     * @throws Exception if the layout could not be loaded
+     */
+    @Benchmark
+    public Parent fxmlDialogBox() throws Exception {
+        return onFxThread(() -> {
+            FXMLLoader loader = new FXMLLoader();
+            Parent box = loader.load(new ByteArrayInputStream(DIALOG_BOX_FXML.getBytes(StandardCharsets.UTF_8)));
+            return layOut(box);
+        });
+    }
+
+    /**
+     * Builds a dialog box in code and shows a message in it.
+     *
+     * @return the laid out box
+     * @throws Exception if the FX thread failed
+     */
+    @Benchmark
+    public Parent newDialogBox() throws Exception {
+        return onFxThread(() -> {
+            DialogBox box = new DialogBox();
+            box.show(MESSAGE, image, false, true);
+            return layOut(box);
+        });
+    }
+
+    /**
+     * Shows a message in an existing dialog box, as the conversation view does.
+     *
+     * @return the laid out box
+     * @throws Exception if the FX thread failed
+     */
+    @Benchmark
+    public Parent reuseDialogBox() throws Exception {
+        return onFxThread(() -> {
+            boolean isUser = count++ % 2 == 0;
+            reused.show(MESSAGE + " " + count, image, isUser, true);
+            return layOut(reused);
+        });
+    }
+
+    /**
+     * Loads the main window from {@code MainWindow.fxml} and lays it out once, in a new
+     * JVM each time, so that class loading and first-use costs are counted. Tasks are
+     * not loaded.
+     *
+     * @return the laid out window
+     * @throws Exception if the window could not be loaded
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public Parent startup() throws Exception {
+        return onFxThread(() -> {
+            Parent window = new FXMLLoader(Main.class.getResource("/view/MainWindow.fxml")).load();
+            new Scene(window);
+            window.applyCss();
+            window.layout();
+            return window;
+        });
+    }
+
+    /**
+     * Lays a box out in the scene, as the next pulse would, and takes it out again.
+     */
+    private Parent layOut(Parent box) {
+        container.getChildren().setAll(box);
+        container.applyCss();
+        container.layout();
+        container.getChildren().clear();
+        return box;
+    }
+
+    /**
+     * Runs a task on the FX thread and waits for it.
+     */
+    private static <T> T onFxThread(Callable<T> task) throws Exception {
+        FutureTask<T> future = new FutureTask<>(task);
+        Platform.runLater(future);
+        return future.get();
+    }
+}
@@ -0,0 +1,95 @@
+package ketchup.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import ketchup.tasks.Deadline;
+import ketchup.tasks.Event;
+import ketchup.tasks.TaskList;
+import ketchup.tasks.ToDo;
+
+/**
+ * Measures how loading a large text data file with {@link MappedTaskLoader} scales with
+ * the number of parsing threads. One thread is the sequential load.
+ * <p>
+ * Run with {@code ./gradlew jmh}. Scaling stops at the machine's core count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LoadBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    @Param({"1000000"})
+    private int size;
+
+    private Path dir;
+    private Path file;
+
+    /**
+     * Writes a data file with a mix of task types.
+     *
+     * @throws IOException if the file could not be written
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        TaskList tasks = new TaskList();
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 9, 0);
+        for (int i = 0; i < size; i++) {
+            switch (i % 3) {
+            case 0:
+                tasks.addTask(new ToDo("read chapter " + i));
+                break;
+            case 1:
+                tasks.addTask(new Deadline("submit report " + i, start.plusHours(i)));
+                break;
+            default:
+                tasks.addTask(new Event("meeting " + i, start.plusHours(i), start.plusHours(i + 1)));
+                break;
+            }
+        }
+        dir = Files.createTempDirectory("ketchup-load");
+        file = dir.resolve("ketchup.txt");
+        Storage.writeTextSnapshot(file, tasks);
+    }
+
+    /**
+     * Removes the data file and its directory.
+     *
+     * @throws IOException if a file could not be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.delete(file);
+        Files.delete(dir);
+    }
+
+    /**
+     * Loads the whole data file into a new list.
+     *
+     * @return the loaded list, so that the load is not optimised away
+     * @throws IOException if the file could not be read
+     */
+    @Benchmark
+    public TaskList load() throws IOException {
+        TaskList tasks = new TaskList();
+        new MappedTaskLoader(threads).load(file, tasks);
+        return tasks;
+    }
+}
@@ -0,0 +1,114 @@
+package ketchup.storage;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import ketchup.tasks.Deadline;
+import ketchup.tasks.Event;
+import ketchup.tasks.TaskList;
+import ketchup.tasks.ToDo;
+
+/**
+ * Compares saving a full task list the old way, through an unsynced {@link FileWriter}
+ * that overwrites the data file in place, with the crash-safe {@link AtomicFile} path.
+ * <p>
+ * The atomic path pays a fixed cost per save for syncing the file and its directory and
+ * for the rename, so it is slower on small lists, where that cost is most of the save.
+ * Its buffered writer makes up for it on large ones.
+ * <p>
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SaveBenchmark {
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private TaskList tasks;
+    private Path dir;
+    private Path file;
+
+    /**
+     * Builds a mix of task types and a scratch directory to save into.
+     *
+     * @throws IOException if the directory could not be created
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        tasks = new TaskList();
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 9, 0);
+        for (int i = 0; i < size; i++) {
+            switch (i % 3) {
+            case 0:
+                tasks.addTask(new ToDo("read chapter " + i));
+                break;
+            case 1:
+                tasks.addTask(new Deadline("submit report " + i, start.plusHours(i)));
+                break;
+            default:
+                tasks.addTask(new Event("meeting " + i, start.plusHours(i), start.plusHours(i + 1)));
+                break;
+            }
+        }
+        dir = Files.createTempDirectory("ketchup-save");
+        file = dir.resolve("ketchup.txt");
+    }
+
+    /**
+     * Removes the scratch directory.
+     *
+     * @throws IOException if a file could not be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (var files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                Files.delete(p);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    /**
+     * Saves the way {@code Storage} did before atomic saves: one {@code FileWriter} call per task,
+     * no fsync, written straight over the data file.
+     *
+     * @throws IOException if the file could not be written
+     */
+    @Benchmark
+    public void fileWriterInPlace() throws IOException {
+        try (FileWriter fw = new FileWriter(file.toFile(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < tasks.getSize(); i++) {
+                fw.write(tasks.getTask(i).toFileString() + "\n");
+            }
+        }
+    }
+
+    /**
+     * Saves through a buffered channel into a temp file, forces it to disk and renames it into place.
+     *
+     * @throws IOException if the file could not be written
+     */
+    @Benchmark
+    public void atomicWithFsync() throws IOException {
+        Storage.writeTextSnapshot(file, tasks);
+    }
+}
@@ -0,0 +1,85 @@
+package ketchup.tasks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares {@link TaskList#findTask(String)} on its indexes with the linear
+ * lowercase-and-contains scan it used before.
+ * <p>
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FindBenchmark {
+
+    private static final String[] WORDS = {
+        "read", "write", "submit", "report", "book", "meeting", "call", "groceries",
+        "project", "review", "lecture", "tutorial", "assignment", "email", "plan", "gym",
+    };
+
+    @Param({"10000", "100000", "1000000"})
+    private int size;
+
+    /** A whole word, a phrase spanning two words, and a query shorter than a trigram. */
+    @Param({"groceries", "ort 12", "gy"})
+    private String query;
+
+    private TaskList tasks;
+
+    /**
+     * Builds descriptions of three random words and a number, and warms up the indexes.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        tasks = new TaskList();
+        for (int i = 0; i < size; i++) {
+            tasks.addTask(new ToDo(WORDS[random.nextInt(WORDS.length)] + " "
+                    + WORDS[random.nextInt(WORDS.length)] + " "
+                    + WORDS[random.nextInt(WORDS.length)] + " " + i));
+        }
+        tasks.findTask(query);
+    }
+
+    /**
+     * Searches the way {@code findTask} did before it had an index.
+     *
+     * @return the matching tasks
+     */
+    @Benchmark
+    public TaskList linearScan() {
+        TaskList results = new TaskList();
+        String keywordLower = query.toLowerCase();
+        for (int i = 0; i < tasks.getSize(); i++) {
+            Task task = tasks.getTask(i);
+            if (task.getDesc().toLowerCase().contains(keywordLower)) {
+                results.addTask(task);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Searches through the trigram index.
+     *
+     * @return the matching tasks
+     */
+    @Benchmark
+    public TaskList indexed() {
+        return tasks.findTask(query);
+    }
+}
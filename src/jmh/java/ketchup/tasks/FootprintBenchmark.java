@@ -0,0 +1,111 @@
+package ketchup.tasks;
+
+import java.lang.ref.Reference;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the heap retained by a regular {@link TaskList} with that of a
+ * {@link TaskList#columnar()} one holding the same tasks.
+ * <p>
+ * Each operation builds a list and reports the growth of the used heap after full
+ * collections as the {@code bytesPerTask} counter; the time is only the build time.
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FootprintBenchmark {
+
+    private static final String[] WORDS = {
+        "read", "write", "submit", "report", "book", "meeting", "call", "groceries",
+        "project", "review", "lecture", "tutorial", "assignment", "email", "plan", "gym",
+    };
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    @Param({"objects", "columns"})
+    private String layout;
+
+    /**
+     * Heap retained by the list built in the last operation.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        /** Used heap growth divided by the number of tasks. */
+        public long bytesPerTask;
+
+        /**
+         * Clears the counter before each iteration.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesPerTask = 0;
+        }
+    }
+
+    /**
+     * Builds a list of a third each todos, deadlines and events, with descriptions of
+     * two random words and a number, and measures how much heap it keeps.
+     *
+     * @param footprint receives the retained bytes per task
+     * @return the built list
+     */
+    @Benchmark
+    public TaskList build(Footprint footprint) {
+        long before = usedHeap();
+
+        Random random = new Random(42);
+        TaskList tasks = "columns".equals(layout) ? TaskList.columnar() : new TaskList();
+        for (int i = 0; i < size; i++) {
+            String desc = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            LocalDateTime time = BASE.plusMinutes(random.nextInt(500_000));
+            switch (i % 3) {
+            case 0:
+                tasks.addTask(new ToDo(desc));
+                break;
+            case 1:
+                tasks.addTask(new Deadline(desc, time));
+                break;
+            default:
+                tasks.addTask(new Event(desc, time, time.plusHours(2)));
+                break;
+            }
+        }
+
+        footprint.bytesPerTask = (usedHeap() - before) / size;
+        Reference.reachabilityFence(tasks);
+        return tasks;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
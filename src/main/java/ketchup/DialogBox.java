@@ -1,14 +1,7 @@
 package ketchup;
 
-import java.io.IOException;
-import java.util.Collections;
-
-import javafx.animation.FadeTransition;
-import javafx.animation.TranslateTransition;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.animation.Transition;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.Label;
@@ -21,66 +14,102 @@ import javafx.util.Duration;
 /**
  * Represents a dialog box consisting of an ImageView to represent the speaker's face
  * and a label containing text from the speaker.
+ * <p>
+ * A box can be shown again with another message, so that a scrolling conversation
+ * reuses a screenful of boxes instead of creating one per message.
+ * <p>
+ * The box is built in code rather than loaded from FXML, which would parse the layout
+ * and set it up by reflection for every box.
  */
 public class DialogBox extends HBox {
-    @FXML
-    private Label dialog;
-    @FXML
-    private ImageView displayPicture;
-
-    private DialogBox(String text, Image img, boolean isUser) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
 
-        dialog.setText(text);
-        displayPicture.setImage(img);
-        displayPicture.setFitWidth(60);
-        displayPicture.setFitHeight(60);
-        Circle clip = new Circle(30, 30, 30);
-        displayPicture.setClip(clip);
+    /** Look of the speech bubble. */
+    private static final String BUBBLE_STYLE = "-fx-background-color: rgba(255,255,255,0.8);"
+            + " -fx-background-radius: 18;"
+            + " -fx-padding: 10 15 10 15;"
+            + " -fx-text-fill: black;"
+            + " -fx-font-size: 14px;"
+            + " -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.15), 5, 0.3, 0, 2);";
 
-        playAnimation(isUser);
-    }
+    private static final double BUBBLE_WIDTH = 250;
 
-    /**
-     * Flips the dialog box such that the ImageView is on the left and text on the right.
-     */
-    private void flip() {
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        Collections.reverse(tmp);
-        getChildren().setAll(tmp);
-        setAlignment(Pos.TOP_LEFT);
-    }
+    private static final double PICTURE_SIZE = 60;
 
-    private void playAnimation(boolean isUser) {
+    /** How far a new message slides in from, towards its speaker's side. */
+    private static final double SLIDE_DISTANCE = 30;
 
-        setOpacity(0);
-        setTranslateX(isUser ? 30 : -30);
+    private final Label dialog = new Label();
 
-        FadeTransition fade = new FadeTransition(Duration.millis(220), this);
-        fade.setToValue(1);
+    private final ImageView displayPicture = new ImageView();
 
-        TranslateTransition slide = new TranslateTransition(Duration.millis(220), this);
-        slide.setToX(0);
+    private final SlideIn slideIn = new SlideIn();
 
-        fade.play();
-        slide.play();
+    /**
+     * Creates an empty dialog box.
+     */
+    public DialogBox() {
+        super(10);
+        dialog.setWrapText(true);
+        dialog.setMaxWidth(BUBBLE_WIDTH);
+        dialog.setStyle(BUBBLE_STYLE);
+
+        displayPicture.setFitWidth(PICTURE_SIZE);
+        displayPicture.setFitHeight(PICTURE_SIZE);
+        displayPicture.setClip(new Circle(PICTURE_SIZE / 2, PICTURE_SIZE / 2, PICTURE_SIZE / 2));
+
+        getChildren().setAll(dialog, displayPicture);
+        setAlignment(Pos.TOP_RIGHT);
+        setPadding(new Insets(10, 5, 10, 5));
     }
 
+    /**
+     * Shows a message in this box, replacing the one it showed before.
+     *
+     * @param text       the message
+     * @param img        the speaker's face
+     * @param isUser     true to show the face on the right, as for the user
+     * @param isAnimated true to slide the box in, as for a new message
+     */
+    public void show(String text, Image img, boolean isUser, boolean isAnimated) {
+        dialog.setText(text);
+        displayPicture.setImage(img);
+        Node first = isUser ? dialog : displayPicture;
+        if (getChildren().get(0) != first) {
+            getChildren().setAll(first, isUser ? displayPicture : dialog);
+            setAlignment(isUser ? Pos.TOP_RIGHT : Pos.TOP_LEFT);
+        }
 
-    public static DialogBox getUserDialog(String text, Image img) {
-        return new DialogBox(text, img, true);
+        slideIn.stop();
+        if (isAnimated) {
+            slideIn.play(isUser ? SLIDE_DISTANCE : -SLIDE_DISTANCE);
+        } else {
+            setOpacity(1);
+            setTranslateX(0);
+        }
     }
 
-    public static DialogBox getDukeDialog(String text, Image img) {
-        var db = new DialogBox(text, img, false);
-        db.flip();
-        return db;
+    /**
+     * Fades the box in while sliding it into place, as one animation that the box
+     * keeps and replays for every message it shows.
+     */
+    private final class SlideIn extends Transition {
+
+        private double fromX;
+
+        private SlideIn() {
+            setCycleDuration(Duration.millis(220));
+        }
+
+        private void play(double fromX) {
+            this.fromX = fromX;
+            interpolate(0);
+            playFromStart();
+        }
+
+        @Override
+        protected void interpolate(double frac) {
+            setOpacity(frac);
+            setTranslateX(fromX * (1 - frac));
+        }
     }
 }
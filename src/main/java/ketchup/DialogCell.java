@@ -0,0 +1,62 @@
+package ketchup;
+
+import javafx.scene.control.ListCell;
+import javafx.scene.image.Image;
+import javafx.scene.layout.VBox;
+import ketchup.tasks.TaskList;
+import ketchup.ui.Transcript;
+
+/**
+ * Row of the conversation view that shows one {@link Transcript.Entry}.
+ * <p>
+ * The view keeps only enough cells to fill the screen and hands each of them new
+ * entries as the conversation scrolls, so every cell builds its {@link DialogBox},
+ * and its {@link TaskListView} if it ever shows tasks, once and then reuses them.
+ */
+class DialogCell extends ListCell<Transcript.Entry> {
+
+    private final Image userImage;
+
+    private final Image ketchupImage;
+
+    private final DialogBox dialogBox = new DialogBox();
+
+    /** View and container for entries that show tasks, made the first time one is shown. */
+    private TaskListView taskListView;
+
+    private VBox listingBox;
+
+    DialogCell(Image userImage, Image ketchupImage) {
+        this.userImage = userImage;
+        this.ketchupImage = ketchupImage;
+        setStyle("-fx-background-color: transparent; -fx-padding: 0;");
+    }
+
+    @Override
+    protected void updateItem(Transcript.Entry entry, boolean isEmpty) {
+        super.updateItem(entry, isEmpty);
+        if (isEmpty || entry == null) {
+            setGraphic(null);
+            return;
+        }
+
+        Image image = entry.isUser() ? userImage : ketchupImage;
+        dialogBox.show(entry.getText(), image, entry.isUser(), entry.appear());
+
+        TaskList listing = entry.getListing();
+        if (listing == null) {
+            if (listingBox != null) {
+                listingBox.getChildren().clear();
+            }
+            setGraphic(dialogBox);
+            return;
+        }
+        if (listingBox == null) {
+            taskListView = new TaskListView();
+            listingBox = new VBox();
+        }
+        taskListView.setTasks(listing);
+        listingBox.getChildren().setAll(dialogBox, taskListView);
+        setGraphic(listingBox);
+    }
+}
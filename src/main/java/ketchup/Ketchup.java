@@ -1,5 +1,8 @@
 package ketchup;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 import ketchup.parser.InputParser;
 import ketchup.storage.Storage;
 import ketchup.tasks.TaskList;
@@ -23,9 +26,32 @@ public class Ketchup {
      * input parser, and loading stored tasks.
      */
     public Ketchup() {
+        this(tasks -> { });
+    }
+
+    /**
+     * Constructs a Ketchup instance, handing out the task list while it is being loaded
+     * so that another thread can report how far loading has got.
+     *
+     * @param whileLoading called with the task list before any task is loaded into it
+     * @see Storage#load(Consumer)
+     */
+    public Ketchup(Consumer<TaskList> whileLoading) {
+        this(whileLoading, false);
+    }
+
+    /**
+     * Constructs a Ketchup instance like {@link #Ketchup(Consumer)}, for a client that
+     * may be able to scroll through a whole task list.
+     *
+     * @param whileLoading     called with the task list before any task is loaded into it
+     * @param handsOutListings true if {@code list} should hand out the whole list
+     * @see InputParser#InputParser(Ui, boolean)
+     */
+    public Ketchup(Consumer<TaskList> whileLoading, boolean handsOutListings) {
         Ui ui = new Ui();
-        this.parser = new InputParser(ui);
-        this.tasks = Storage.load();
+        this.parser = new InputParser(ui, handsOutListings);
+        this.tasks = Storage.load(whileLoading);
 
         // Internal invariants
         assert ui != null : "UI must be initialized";
@@ -33,6 +59,15 @@ public class Ketchup {
         assert this.tasks != null : "TaskList must be loaded";
     }
 
+    /**
+     * Returns the number of tasks.
+     *
+     * @return the size of the task list
+     */
+    public int getTaskCount() {
+        return tasks.getSize();
+    }
+
     /**
      * Processes a single user input string and returns
      * the result produced by the input parser.
@@ -50,9 +85,33 @@ public class Ketchup {
         // parser must always return a result
         assert result != null : "Parser must return a non-null KetchupResult";
 
+        if (result.isShouldExit()) {
+            Storage.close();
+        }
+
         return result;
     }
 
+    /**
+     * Processes several user inputs as one batch, saving once at the end instead of
+     * after every command.
+     *
+     * @param inputs           the raw user inputs, in order
+     * @param rollsBackOnError true to undo every command of the batch if any of them fails
+     * @return one result per processed input; processing stops early after an exit,
+     *         or after a failure when rolling back
+     * @see InputParser#handleBatch(List, TaskList, boolean)
+     */
+    public List<KetchupResult> getResults(List<String> inputs, boolean rollsBackOnError) {
+        List<KetchupResult> results = parser.handleBatch(inputs, tasks, rollsBackOnError);
+
+        if (!results.isEmpty() && results.get(results.size() - 1).isShouldExit()) {
+            Storage.close();
+        }
+
+        return results;
+    }
+
     /**
      * The main method that starts the Ketchup application.
      *
@@ -1,9 +1,14 @@
 package ketchup;
 
+import ketchup.tasks.TaskList;
+
 /**
  * Represents the result of processing a user command in the Ketchup application.
  * Encapsulates the response message to be displayed and whether the application
  * should terminate.
+ * <p>
+ * A result may also carry a frozen task list that its response pages through, so that
+ * the GUI can show the whole list in a virtualized view instead of as text.
  */
 public class KetchupResult {
 
@@ -13,6 +18,12 @@ public class KetchupResult {
     /** Indicates whether the application should exit after this result. */
     private boolean shouldExit;
 
+    /** Indicates whether the command failed and changed nothing. */
+    private boolean isError;
+
+    /** Frozen list the response shows part of, or null. */
+    private TaskList listing;
+
     /**
      * Constructs a KetchupResult with the given response message and exit flag.
      *
@@ -20,8 +31,31 @@ public class KetchupResult {
      * @param shouldExit true if the application should terminate, false otherwise
      */
     public KetchupResult(String response, boolean shouldExit) {
+        this(response, shouldExit, false);
+    }
+
+    /**
+     * Constructs a KetchupResult with the given response message, exit flag and error flag.
+     *
+     * @param response   the message to be shown to the user
+     * @param shouldExit true if the application should terminate, false otherwise
+     * @param isError    true if the command failed
+     */
+    public KetchupResult(String response, boolean shouldExit, boolean isError) {
         this.response = response;
         this.shouldExit = shouldExit;
+        this.isError = isError;
+    }
+
+    /**
+     * Constructs a KetchupResult that lists tasks.
+     *
+     * @param response the tasks as text, for clients that cannot show the listing itself
+     * @param listing  the frozen list of every task the response pages through
+     */
+    public KetchupResult(String response, TaskList listing) {
+        this(response, false, false);
+        this.listing = listing;
     }
 
     /**
@@ -41,4 +75,22 @@ public class KetchupResult {
     public boolean isShouldExit() {
         return this.shouldExit;
     }
+
+    /**
+     * Returns whether the command failed.
+     *
+     * @return true if the command was rejected, false otherwise
+     */
+    public boolean isError() {
+        return this.isError;
+    }
+
+    /**
+     * Returns the task list this result shows, for clients that render it row by row.
+     *
+     * @return the frozen task list, or null if this result does not list tasks
+     */
+    public TaskList getListing() {
+        return this.listing;
+    }
 }
@@ -10,11 +10,11 @@ import javafx.stage.Stage;
 
 /**
  * A GUI for Ketchup using FXML.
+ * <p>
+ * The window is shown before the tasks are loaded, and they load in the background.
  */
 public class Main extends Application {
 
-    private Ketchup ketchup = new Ketchup();
-
     @Override
     public void start(Stage stage) {
         try {
@@ -23,8 +23,8 @@ public class Main extends Application {
             Scene scene = new Scene(ap);
             stage.setScene(scene);
             stage.setTitle("ketchup with me!");
-            fxmlLoader.<MainWindow>getController().setKetchup(ketchup); // inject the Duke instance
             stage.show();
+            fxmlLoader.<MainWindow>getController().loadKetchup(); // tasks load in the background
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -1,31 +1,55 @@
 package ketchup;
 
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
 import javafx.animation.PauseTransition;
+import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
 import javafx.util.Duration;
+import ketchup.tasks.TaskList;
+import ketchup.ui.Transcript;
 import ketchup.ui.Ui;
 
 /**
  * Controller for the main JavaFX GUI.
- * Handles user interactions, updates the dialog container,
+ * Handles user interactions, updates the conversation view,
  * and delegates command processing to the {@link Ketchup} instance.
  */
 public class MainWindow extends AnchorPane {
 
-    /** ScrollPane that contains the dialog container. */
-    @FXML
-    private ScrollPane scrollPane;
+    /** Most messages kept on screen; older ones are dropped a quarter at a time. */
+    private static final int TRANSCRIPT_LIMIT = Integer.getInteger("ketchup.transcript.limit", 500);
+
+    /** File that dropped messages are appended to, or null to forget them. */
+    private static final String TRANSCRIPT_FILE = System.getProperty("ketchup.transcript");
 
-    /** Container that holds all dialog boxes. */
+    /** Reply given when the tasks could not be loaded, and to every command after that. */
+    private static final String LOAD_FAILED_MESSAGE =
+            "Oh nooo... your tasks failed to load, so I can't run commands. Please restart me to try again.";
+
+    /** How often the loading message is updated. */
+    private static final Duration LOAD_PROGRESS_INTERVAL = Duration.millis(250);
+
+    /** Virtualized view of the conversation, which only builds the rows on screen. */
     @FXML
-    private VBox dialogContainer;
+    private ListView<Transcript.Entry> conversation;
+
+    /** Messages shown in the conversation view. */
+    private Transcript transcript;
+
+    /** Message reporting how far loading the tasks has got. */
+    private Transcript.Entry loadProgress;
 
     /** Text field where the user enters input. */
     @FXML
@@ -38,71 +62,149 @@ public class MainWindow extends AnchorPane {
     /** UI helper used to generate welcome message. */
     private Ui ui = new Ui();
 
-    /** Core application logic instance. */
+    /**
+     * Core application logic instance, created and used by the command runner only.
+     * Null if the tasks failed to load, in which case commands are refused.
+     */
     private Ketchup ketchup;
 
-    /** Image representing the user. */
+    /** Runs commands one at a time, in order, away from the JavaFX application thread. */
+    private final ExecutorService commandRunner = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "ketchup-commands");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Whether a command has asked to exit, so that later commands are not run. Used by the runner only. */
+    private boolean hasExited;
+
+    /** Image representing the user, decoded in the background. */
     private Image userImage =
-            new Image(this.getClass().getResourceAsStream("/images/monkey1.jpeg"));
+            new Image(this.getClass().getResource("/images/monkey1.jpeg").toExternalForm(), true);
 
-    /** Image representing Ketchup. */
+    /** Image representing Ketchup, decoded in the background. */
     private Image ketchupImage =
-            new Image(this.getClass().getResourceAsStream("/images/monkey2.jpeg"));
+            new Image(this.getClass().getResource("/images/monkey2.jpeg").toExternalForm(), true);
 
     /**
      * Initializes the GUI after FXML loading.
-     * Displays the welcome message and binds the scroll pane
-     * to automatically scroll to the bottom when new messages are added.
+     * Displays the welcome message and sets up the conversation view to reuse
+     * its rows as it scrolls.
      */
     @FXML
     public void initialize() {
+        transcript = new Transcript(conversation.getItems(), TRANSCRIPT_LIMIT,
+                TRANSCRIPT_FILE == null ? null : Paths.get(TRANSCRIPT_FILE));
+        conversation.setCellFactory(view -> new DialogCell(userImage, ketchupImage));
+
         String welcomeMsg = ui.showHello();
-        dialogContainer.getChildren().addAll(
-                DialogBox.getDukeDialog(welcomeMsg, ketchupImage)
-        );
+        show(transcript.add(welcomeMsg, false));
         PauseTransition delay = new PauseTransition(Duration.seconds(0.4));
 
         String helpMessage = ui.showHelpMessage();
-        delay.setOnFinished(event -> dialogContainer.getChildren().add(
-                DialogBox.getDukeDialog(helpMessage, ketchupImage)
-        ));
+        delay.setOnFinished(event -> show(transcript.add(helpMessage, false)));
         delay.play();
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
     }
 
     /**
-     * Injects the {@link Ketchup} instance into this controller.
-     *
-     * @param k the core application logic instance
+     * Scrolls the conversation to a new message.
      */
-    public void setKetchup(Ketchup k) {
-        this.ketchup = k;
+    private void show(Transcript.Entry entry) {
+        conversation.scrollTo(entry);
+    }
+
+    /**
+     * Loads the tasks and creates the {@link Ketchup} instance in the background, so that
+     * the window can be shown first. The conversation reports how many tasks have loaded
+     * until loading finishes. Commands sent in the meantime wait for it. If loading fails,
+     * the user is told so and later commands are refused rather than run against an empty
+     * list, whose first save would overwrite the data file.
+     */
+    public void loadKetchup() {
+        AtomicReference<TaskList> loading = new AtomicReference<>();
+        loadProgress = transcript.add(ui.showLoading(0), false);
+        show(loadProgress);
+        Timeline ticker = new Timeline(new KeyFrame(LOAD_PROGRESS_INTERVAL, event -> {
+            TaskList tasks = loading.get();
+            if (tasks != null) {
+                loadProgress = transcript.update(loadProgress, ui.showLoading(tasks.getSize()));
+            }
+        }));
+        ticker.setCycleCount(Animation.INDEFINITE);
+        ticker.play();
+
+        commandRunner.execute(() -> {
+            long start = System.nanoTime();
+            String loaded;
+            try {
+                ketchup = new Ketchup(loading::set, true);
+                loaded = ui.showLoaded(ketchup.getTaskCount(), (System.nanoTime() - start) / 1_000_000);
+            } catch (RuntimeException e) {
+                System.out.println(e.getMessage());
+                System.out.println("Could not load tasks.");
+                loaded = ui.showError(LOAD_FAILED_MESSAGE);
+            }
+            String message = loaded;
+            Platform.runLater(() -> {
+                ticker.stop();
+                loadProgress = transcript.update(loadProgress, message);
+            });
+        });
     }
 
     /**
      * Handles user input from the GUI.
      * <p>
-     * Retrieves the user's input, delegates processing to the
-     * {@link Ketchup} instance, displays both the user's message
-     * and the application's response, and clears the input field.
-     * If the command indicates exit, the JavaFX platform is terminated.
+     * Shows the user's message at once with a placeholder for the reply, clears the
+     * input field and hands the command to a background thread, so that saves and
+     * searches on a large list do not freeze the window. The user can keep typing:
+     * commands run one at a time in the order they were sent, and each reply replaces
+     * its placeholder when it is ready.
      */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
-        KetchupResult result = ketchup.getResult(input);
-        String response = result.getResponse();
-        boolean shouldExit = result.isShouldExit();
+        transcript.add(input, true);
+        Transcript.Entry pending = transcript.add(ui.showPending(), false);
+        show(pending);
+        userInput.clear();
+
+        commandRunner.execute(() -> {
+            if (hasExited) {
+                return;
+            }
+            KetchupResult result;
+            try {
+                result = ketchup != null
+                        ? ketchup.getResult(input)
+                        : new KetchupResult(ui.showError(LOAD_FAILED_MESSAGE), false, true);
+            } catch (RuntimeException e) {
+                System.out.println(e.getMessage());
+                System.out.println("Could not run command: " + input);
+                result = new KetchupResult(ui.showError("Oh nooo... something went wrong!"), false, true);
+            }
+            hasExited = result.isShouldExit();
+
+            KetchupResult reply = result;
+            Platform.runLater(() -> showResult(pending, reply));
+        });
+    }
 
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getDukeDialog(response, ketchupImage)
-        );
+    /**
+     * Shows the reply to a command in place of its placeholder, and closes the window
+     * if the command was {@code bye}.
+     */
+    private void showResult(Transcript.Entry pending, KetchupResult result) {
+        TaskList listing = result.getListing();
+        if (listing != null) {
+            // Show every task in a view that only formats the rows on screen.
+            show(transcript.replace(pending, ui.showListTitle(listing.getSize()), listing));
+        } else {
+            show(transcript.replace(pending, result.getResponse(), null));
+        }
 
-        if (shouldExit) {
+        if (result.isShouldExit()) {
             Platform.exit();
         }
-
-        userInput.clear();
     }
 }
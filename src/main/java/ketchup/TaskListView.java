@@ -0,0 +1,66 @@
+package ketchup;
+
+import java.util.AbstractList;
+
+import javafx.collections.FXCollections;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import ketchup.tasks.Task;
+import ketchup.tasks.TaskList;
+
+/**
+ * Scrollable view of a frozen task list that formats only the rows on screen.
+ * <p>
+ * The view reads tasks from the list as they scroll into view instead of copying them,
+ * so showing a list of any length costs about as much as showing a screenful of it.
+ */
+public class TaskListView extends ListView<Task> {
+
+    /** Height of every row, fixed so that the view never measures rows off screen. */
+    private static final double ROW_HEIGHT = 24;
+
+    /** Most rows shown before the view scrolls. */
+    private static final int VISIBLE_ROWS = 12;
+
+    /**
+     * Creates an empty view.
+     */
+    public TaskListView() {
+        setFixedCellSize(ROW_HEIGHT);
+        setCellFactory(view -> new TaskCell());
+        setStyle("-fx-background-color: rgba(255,255,255,0.8); -fx-background-radius: 12;");
+    }
+
+    /**
+     * Shows the given tasks instead of the ones shown before.
+     *
+     * @param tasks a frozen task list, which must not change while it is shown
+     */
+    public void setTasks(TaskList tasks) {
+        setItems(FXCollections.observableList(new AbstractList<>() {
+            @Override
+            public Task get(int index) {
+                return tasks.getTask(index);
+            }
+
+            @Override
+            public int size() {
+                return tasks.getSize();
+            }
+        }));
+        setPrefHeight(ROW_HEIGHT * Math.min(VISIBLE_ROWS, tasks.getSize()) + 2);
+        scrollTo(0);
+    }
+
+    /**
+     * Row that shows a task as a line of {@code list}.
+     */
+    private static final class TaskCell extends ListCell<Task> {
+
+        @Override
+        protected void updateItem(Task task, boolean isEmpty) {
+            super.updateItem(task, isEmpty);
+            setText(isEmpty || task == null ? null : TaskList.formatLine(getIndex() + 1, task));
+        }
+    }
+}
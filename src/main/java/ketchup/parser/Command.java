@@ -0,0 +1,20 @@
+package ketchup.parser;
+
+import ketchup.KetchupResult;
+import ketchup.tasks.TaskList;
+
+/**
+ * Handler for one command word, registered with {@link InputParser}.
+ */
+@FunctionalInterface
+interface Command {
+
+    /**
+     * Runs the command.
+     *
+     * @param line  the tokenized input, whose command word selected this handler
+     * @param tasks the task list to operate on
+     * @return the response to show the user
+     */
+    KetchupResult run(CommandLine line, TaskList tasks);
+}
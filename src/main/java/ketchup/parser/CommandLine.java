@@ -0,0 +1,186 @@
+package ketchup.parser;
+
+import java.util.Locale;
+
+/**
+ * A line of user input, split once into its command word and the arguments after it.
+ * <p>
+ * The command word is lower-cased so that lookups ignore case. Arguments keep their
+ * case and are trimmed. {@link #split(String...)} cuts the arguments at flags such as
+ * {@code /by} in a single scan, without regular expressions.
+ */
+final class CommandLine {
+
+    private final String verb;
+
+    private final String args;
+
+    private CommandLine(String verb, String args) {
+        this.verb = verb;
+        this.args = args;
+    }
+
+    /**
+     * Splits a line of input into its command word and arguments.
+     *
+     * @param input the raw input, which must not be null
+     * @return the tokenized line; its command word is empty if the input is blank
+     */
+    static CommandLine of(String input) {
+        int length = input.length();
+        int start = skipSpace(input, 0);
+        int end = start;
+        while (end < length && !Character.isWhitespace(input.charAt(end))) {
+            end++;
+        }
+
+        int argsStart = skipSpace(input, end);
+        int argsEnd = length;
+        while (argsEnd > argsStart && Character.isWhitespace(input.charAt(argsEnd - 1))) {
+            argsEnd--;
+        }
+        String verb = input.substring(start, end).toLowerCase(Locale.ROOT);
+        return new CommandLine(verb, input.substring(argsStart, argsEnd));
+    }
+
+    /**
+     * Returns the command word.
+     *
+     * @return the lower-cased first word of the input
+     */
+    String verb() {
+        return this.verb;
+    }
+
+    /**
+     * Returns everything after the command word.
+     *
+     * @return the trimmed arguments, or an empty string if there are none
+     */
+    String args() {
+        return this.args;
+    }
+
+    /**
+     * Returns the first whitespace-separated word of the arguments.
+     *
+     * @return the first argument, or an empty string if there are none
+     */
+    String firstArg() {
+        int end = 0;
+        while (end < args.length() && !Character.isWhitespace(args.charAt(end))) {
+            end++;
+        }
+        return args.substring(0, end);
+    }
+
+    /**
+     * Returns whether the arguments contain a switch, a {@code /} followed by its name
+     * that stands as a word of its own and takes no value.
+     *
+     * @param name the switch name, without the {@code /}
+     * @return true if the switch is given
+     */
+    boolean hasSwitch(String name) {
+        return switchAt("/" + name, 0) >= 0;
+    }
+
+    /**
+     * Returns this line without a switch, so that the rest can be {@link #split(String...)}.
+     *
+     * @param name the switch name, without the {@code /}
+     * @return the line with every occurrence of the switch and the space after it removed
+     */
+    CommandLine withoutSwitch(String name) {
+        String word = "/" + name;
+        StringBuilder rest = new StringBuilder();
+        int from = 0;
+        for (int at = switchAt(word, 0); at >= 0; at = switchAt(word, from)) {
+            rest.append(args, from, at);
+            from = skipSpace(args, at + word.length());
+        }
+        rest.append(args, from, args.length());
+        return new CommandLine(verb, rest.toString().trim());
+    }
+
+    /**
+     * Returns the index of the first word from {@code from} on that equals {@code word}, or -1.
+     */
+    private int switchAt(String word, int from) {
+        int start = skipSpace(args, from);
+        while (start < args.length()) {
+            int end = start;
+            while (end < args.length() && !Character.isWhitespace(args.charAt(end))) {
+                end++;
+            }
+            if (end - start == word.length() && args.startsWith(word, start)) {
+                return start;
+            }
+            start = skipSpace(args, end);
+        }
+        return -1;
+    }
+
+    /**
+     * Cuts the arguments at the given flags.
+     * <p>
+     * A flag is a {@code /} followed by its name, standing as a word of its own at the
+     * start of the arguments or after whitespace, and followed by whitespace. Its value
+     * runs to the next flag or to the end. Only the named flags are recognised; any other
+     * {@code /word} is part of the text around it. If a flag is given more than once, the
+     * first one counts and later ones end the value before them.
+     *
+     * @param flags the flag names, without the {@code /}
+     * @return the trimmed text before the first flag, followed by each flag's trimmed value
+     *         in the order named, or null for a flag that is missing
+     */
+    String[] split(String... flags) {
+        String[] parts = new String[flags.length + 1];
+        int partStart = 0;
+        int part = 0;
+        int i = 0;
+        while (i < args.length()) {
+            int flag = args.charAt(i) == '/' && (i == 0 || Character.isWhitespace(args.charAt(i - 1)))
+                    ? flagAt(i + 1, flags)
+                    : -1;
+            if (flag < 0) {
+                i++;
+                continue;
+            }
+
+            if (part >= 0) {
+                parts[part] = args.substring(partStart, i).trim();
+            }
+            i += flags[flag].length() + 1;
+            partStart = i;
+            part = parts[flag + 1] == null ? flag + 1 : -1;
+        }
+        if (part >= 0) {
+            parts[part] = args.substring(partStart).trim();
+        }
+        return parts;
+    }
+
+    /**
+     * Returns which flag name starts at the given index and is followed by whitespace.
+     *
+     * @return the index of the flag in {@code flags}, or -1 if none matches
+     */
+    private int flagAt(int from, String[] flags) {
+        for (int f = 0; f < flags.length; f++) {
+            int end = from + flags[f].length();
+            if (end < args.length() && args.startsWith(flags[f], from) && Character.isWhitespace(args.charAt(end))) {
+                return f;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipSpace(String text, int from) {
+        int i = from;
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
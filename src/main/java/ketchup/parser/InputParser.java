@@ -1,11 +1,20 @@
 package ketchup.parser;
 
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import ketchup.KetchupResult;
 import ketchup.storage.Storage;
+import ketchup.storage.TaskExporter;
+import ketchup.storage.TaskImporter;
+import ketchup.tasks.DateTimeCodec;
 import ketchup.tasks.Deadline;
 import ketchup.tasks.Event;
 import ketchup.tasks.Task;
@@ -18,24 +27,82 @@ import ketchup.ui.Ui;
  * <p>
  * This class interprets raw user input strings, delegates command-specific
  * logic to helper methods, and returns the corresponding {@link KetchupResult}.
+ * <p>
+ * Each input is tokenized once into a {@link CommandLine}. Its command word selects
+ * a handler from a table filled in the constructor, which is the one place where
+ * commands are registered.
  */
 public class InputParser {
 
-    /** Date-time formatter used for parsing user-entered date-time strings. */
-    private static final DateTimeFormatter DATE_TIME_FORMATTER =
-            DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+    /** Number of tasks on a page of {@code list}. */
+    private static final int LIST_PAGE_SIZE = 50;
 
     /** UI component used to generate user-facing messages. */
     private final Ui ui;
 
+    /** Command handlers by lower-case command word. */
+    private final Map<String, Command> commands = new HashMap<>();
+
+    /** Whether a plain {@code list} hands out the whole list for a scrollable view. */
+    private final boolean handsOutListings;
+
     /**
-     * Constructs an InputParser with the specified UI component.
+     * Constructs an InputParser with the specified UI component, for clients that show
+     * replies as text only.
      *
      * @param ui the UI instance used to generate feedback messages
      */
     public InputParser(Ui ui) {
+        this(ui, false);
+    }
+
+    /**
+     * Constructs an InputParser with the specified UI component.
+     *
+     * @param ui               the UI instance used to generate feedback messages
+     * @param handsOutListings true if the client can scroll through a whole list, so that
+     *                         a plain {@code list} should hand it a frozen version of it
+     */
+    public InputParser(Ui ui, boolean handsOutListings) {
         assert ui != null : "Ui must not be null";
         this.ui = ui;
+        this.handsOutListings = handsOutListings;
+
+        register("bye", withoutArgs((line, tasks) -> new KetchupResult(ui.showGoodbye(), true)));
+        register("help", withoutArgs((line, tasks) -> new KetchupResult(ui.showAppGuidance(), false)));
+        register("list", this::handleList);
+        register("mark", this::handleMark);
+        register("unmark", this::handleUnmark);
+        register("delete", this::handleDelete);
+        register("todo", this::handleTodo);
+        register("deadline", this::handleDeadline);
+        register("event", this::handleEvent);
+        register("find", this::handleFind);
+        register("due", this::handleDue);
+        register("between", this::handleBetween);
+        register("import", this::handleImport);
+        register("export", this::handleExport);
+    }
+
+    /**
+     * Adds a handler for a command word.
+     *
+     * @param verb    the lower-case command word
+     * @param command the handler
+     */
+    private void register(String verb, Command command) {
+        Command previous = commands.put(verb, command);
+        assert previous == null : "Command registered twice: " + verb;
+    }
+
+    /**
+     * Wraps a handler for a command that takes no arguments, so that input such as
+     * {@code bye now} is not taken for {@code bye}.
+     */
+    private Command withoutArgs(Command command) {
+        return (line, tasks) -> line.args().isEmpty()
+                ? command.run(line, tasks)
+                : error("Oh nooo... idk what you are saying...");
     }
 
     /**
@@ -50,74 +117,128 @@ public class InputParser {
 
         assert tasks != null : "TaskList must not be null";
 
-        if (input == null || input.trim().isEmpty()) {
+        if (input == null) {
             return error("Oh nooo... idk what you are saying...");
         }
 
-        String trimmed = input.trim();
-
-        if (trimmed.equalsIgnoreCase("bye")) {
-            return new KetchupResult(ui.showGoodbye(), true);
-        }
-
-        if (trimmed.equalsIgnoreCase("help")) {
-            return new KetchupResult(ui.showAppGuidance(), false);
-        }
-
-        if (trimmed.equalsIgnoreCase("list")) {
-            return new KetchupResult(ui.showList(tasks), false);
+        CommandLine line = CommandLine.of(input);
+        Command command = commands.get(line.verb());
+        if (command == null) {
+            return error("Oh nooo... idk what you are saying...");
         }
+        return command.run(line, tasks);
+    }
 
-        if (trimmed.startsWith("mark")) {
-            return handleMark(trimmed, tasks);
-        }
+    /**
+     * Processes several commands in order against the same task list, saving once at
+     * the end instead of after every command.
+     * <p>
+     * Processing stops after a command that exits. If {@code rollsBackOnError} is set,
+     * it also stops at the first command that fails, and the task list is restored to
+     * its state before the batch with nothing saved. Rolling back needs a snapshot of
+     * the list, which costs one pass over it up front.
+     *
+     * @param inputs           the raw user input strings
+     * @param tasks            the task list to operate on
+     * @param rollsBackOnError true to undo the whole batch if any command fails
+     * @return one result per processed command, in order
+     */
+    public List<KetchupResult> handleBatch(List<String> inputs, TaskList tasks, boolean rollsBackOnError) {
+        assert tasks != null : "TaskList must not be null";
 
-        if (trimmed.startsWith("unmark")) {
-            return handleUnmark(trimmed, tasks);
+        TaskList snapshot = rollsBackOnError ? tasks.snapshot() : null;
+        List<KetchupResult> results = new ArrayList<>(inputs.size());
+        Storage.beginBatch();
+        try {
+            for (String input : inputs) {
+                KetchupResult result = handle(input, tasks);
+                results.add(result);
+
+                if (result.isError() && rollsBackOnError) {
+                    tasks.restore(snapshot);
+                    Storage.discardBatch();
+                    break;
+                }
+                if (result.isShouldExit()) {
+                    break;
+                }
+            }
+        } finally {
+            Storage.endBatch(tasks);
         }
+        return results;
+    }
 
-        if (trimmed.startsWith("delete")) {
-            return handleDelete(trimmed, tasks);
+    /**
+     * Handles the {@code list} command.
+     * <p>
+     * {@code list <page>} shows a page of {@value #LIST_PAGE_SIZE} tasks, and
+     * {@code list /from <n> /limit <m>} shows up to {@code m} tasks from the {@code n}th,
+     * either flag being optional. Adding {@code /ids} shows each task's id. Only the
+     * tasks on the page are formatted. A plain {@code list} shows the first page, and
+     * if the parser {@link #InputParser(Ui, boolean) hands out listings}, it also hands a
+     * frozen version of the whole list to the client to scroll through.
+     *
+     * @param line  the tokenized user input
+     * @param tasks the task list
+     * @return the result of listing tasks
+     */
+    private KetchupResult handleList(CommandLine line, TaskList tasks) {
+        boolean showsIds = line.hasSwitch("ids");
+        String[] parts = line.withoutSwitch("ids").split("from", "limit");
+        String pageRaw = parts[0];
+        String fromRaw = parts[1];
+        String limitRaw = parts[2];
+
+        if (!pageRaw.isEmpty() && fromRaw != null) {
+            return error("Give a page or /from, not both!");
         }
 
-        if (trimmed.startsWith("todo")) {
-            return handleTodo(trimmed, tasks);
+        long from;
+        int limit;
+        try {
+            limit = limitRaw == null ? LIST_PAGE_SIZE : Integer.parseInt(limitRaw);
+            if (fromRaw != null) {
+                from = Integer.parseInt(fromRaw) - 1L;
+            } else {
+                from = pageRaw.isEmpty() ? 0 : (Integer.parseInt(pageRaw) - 1L) * limit;
+            }
+        } catch (NumberFormatException e) {
+            return error("Which tasks? Try 'list 2' or 'list /from 51 /limit 50'.");
         }
 
-        if (trimmed.startsWith("deadline")) {
-            return handleDeadline(trimmed, tasks);
+        if (from < 0 || limit <= 0) {
+            return error("Which tasks? Try 'list 2' or 'list /from 51 /limit 50'.");
         }
 
-        if (trimmed.startsWith("event")) {
-            return handleEvent(trimmed, tasks);
+        int size = tasks.getSize();
+        if (from >= size && size > 0) {
+            return error("There are only " + size + " tasks in your list!");
         }
 
-        if (trimmed.startsWith("find")) {
-            return handleFind(trimmed, tasks);
+        if (!handsOutListings || !line.args().isEmpty() || size == 0) {
+            return new KetchupResult(ui.showList(tasks, (int) from, limit, showsIds), false);
         }
-
-        return error("Oh nooo... idk what you are saying...");
+        TaskList listing = tasks.freeze();
+        return new KetchupResult(ui.showList(listing, (int) from, limit, showsIds), listing);
     }
 
     /**
      * Handles the {@code mark} command.
      *
-     * @param input the full user input string
+     * @param line  the tokenized user input
      * @param tasks the task list
      * @return the result of marking a task as done
      */
-    private KetchupResult handleMark(String input, TaskList tasks) {
-        int idx = parseIndex(input);
+    private KetchupResult handleMark(CommandLine line, TaskList tasks) {
+        Task task = findTask(line, tasks);
 
-        if (isInvalidIndex(idx, tasks.getSize())) {
+        if (task == null) {
             return error("Task not found!!!");
         }
 
-        Task task = tasks.getTask(idx - 1);
-        assert task != null : "Retrieved task must not be null";
-
         task.markDone();
-        Storage.save(tasks);
+        Storage.saveMark(tasks, task);
 
         return new KetchupResult(ui.showMarked(task.getDesc()), false);
     }
@@ -125,22 +246,19 @@ public class InputParser {
     /**
      * Handles the {@code unmark} command.
      *
-     * @param input the full user input string
+     * @param line  the tokenized user input
      * @param tasks the task list
      * @return the result of marking a task as not done
      */
-    private KetchupResult handleUnmark(String input, TaskList tasks) {
-        int idx = parseIndex(input);
+    private KetchupResult handleUnmark(CommandLine line, TaskList tasks) {
+        Task task = findTask(line, tasks);
 
-        if (isInvalidIndex(idx, tasks.getSize())) {
+        if (task == null) {
             return error("Task not found!!!");
         }
 
-        Task task = tasks.getTask(idx - 1);
-        assert task != null : "Retrieved task must not be null";
-
         task.markUndone();
-        Storage.save(tasks);
+        Storage.saveUnmark(tasks, task);
 
         return new KetchupResult(ui.showUnmarked(task.getDesc()), false);
     }
@@ -148,22 +266,26 @@ public class InputParser {
     /**
      * Handles the {@code delete} command.
      *
-     * @param input the full user input string
+     * @param line  the tokenized user input
      * @param tasks the task list
      * @return the result of deleting a task
      */
-    private KetchupResult handleDelete(String input, TaskList tasks) {
-        int idx = parseIndex(input);
+    private KetchupResult handleDelete(CommandLine line, TaskList tasks) {
+        Task task = findTask(line, tasks);
 
-        if (isInvalidIndex(idx, tasks.getSize())) {
+        if (task == null) {
             return error("Task not found!!!");
         }
 
-        Task task = tasks.getTask(idx - 1);
-        assert task != null : "Retrieved task must not be null";
-
-        tasks.deleteTask(idx - 1);
-        Storage.save(tasks);
+        int id = tasks.parseId(line.firstArg());
+        int idx;
+        if (id > 0) {
+            idx = tasks.deleteTaskById(id);
+        } else {
+            idx = parseIndex(line) - 1;
+            tasks.deleteTask(idx);
+        }
+        Storage.saveDelete(tasks, idx);
 
         return new KetchupResult(
                 ui.showDeleted(task.getDesc(), tasks.getSize()), false);
@@ -172,12 +294,12 @@ public class InputParser {
     /**
      * Handles the {@code todo} command.
      *
-     * @param input the full user input string
+     * @param line  the tokenized user input
      * @param tasks the task list
      * @return the result of adding a new ToDo task
      */
-    private KetchupResult handleTodo(String input, TaskList tasks) {
-        String desc = input.substring(4).trim();
+    private KetchupResult handleTodo(CommandLine line, TaskList tasks) {
+        String desc = line.args();
 
         if (desc.isEmpty()) {
             return error("Toodledoo! What is your todo?");
@@ -187,7 +309,7 @@ public class InputParser {
         assert newTask != null : "New ToDo task must not be null";
 
         tasks.addTask(newTask);
-        Storage.save(tasks);
+        Storage.saveAdd(tasks, newTask);
 
         return new KetchupResult(
                 ui.showAdded("todo", desc, tasks.getSize()), false);
@@ -196,27 +318,26 @@ public class InputParser {
     /**
      * Handles the {@code deadline} command.
      *
-     * @param input the full user input string
+     * @param line  the tokenized user input
      * @param tasks the task list
      * @return the result of adding a new Deadline task
      */
-    private KetchupResult handleDeadline(String input, TaskList tasks) {
+    private KetchupResult handleDeadline(CommandLine line, TaskList tasks) {
+        String[] parts = line.split("by");
+        String desc = parts[0];
+        String byRaw = parts[1];
 
-        int byIndex = input.indexOf(" /by ");
-        if (byIndex == -1) {
+        if (byRaw == null) {
             return error("No deadline given :0");
         }
 
-        String desc = input.substring(8, byIndex).trim();
         if (desc.isEmpty()) {
             return error("Tick tock on the clock! What is it you must do?");
         }
 
-        String byRaw = input.substring(byIndex + 5).trim();
-
         try {
             LocalDateTime by =
-                    LocalDateTime.parse(byRaw, DATE_TIME_FORMATTER);
+                    DateTimeCodec.parse(byRaw);
 
             assert by != null : "Parsed deadline time must not be null";
 
@@ -224,7 +345,7 @@ public class InputParser {
             assert newTask != null : "New Deadline must not be null";
 
             tasks.addTask(newTask);
-            Storage.save(tasks);
+            Storage.saveAdd(tasks, newTask);
 
             return new KetchupResult(
                     ui.showAdded("deadline", desc, tasks.getSize()), false);
@@ -237,36 +358,33 @@ public class InputParser {
     /**
      * Handles the {@code event} command.
      *
-     * @param input the full user input string
+     * @param line  the tokenized user input
      * @param tasks the task list
      * @return the result of adding a new Event task
      */
-    private KetchupResult handleEvent(String input, TaskList tasks) {
+    private KetchupResult handleEvent(CommandLine line, TaskList tasks) {
+        String[] parts = line.split("from", "to");
+        String desc = parts[0];
+        String fromRaw = parts[1];
+        String toRaw = parts[2];
 
-        int fromIndex = input.indexOf(" /from ");
-        int toIndex = input.indexOf(" /to ");
-
-        if (fromIndex == -1) {
+        if (fromRaw == null) {
             return error("What is the start time!!!");
         }
 
-        if (toIndex == -1) {
+        if (toRaw == null) {
             return error("What is the end time!!!");
         }
 
-        String desc = input.substring(5, fromIndex).trim();
         if (desc.isEmpty()) {
             return error("Hey!! What is it you must do?");
         }
 
-        String fromRaw = input.substring(fromIndex + 7, toIndex).trim();
-        String toRaw = input.substring(toIndex + 5).trim();
-
         try {
             LocalDateTime from =
-                    LocalDateTime.parse(fromRaw, DATE_TIME_FORMATTER);
+                    DateTimeCodec.parse(fromRaw);
             LocalDateTime to =
-                    LocalDateTime.parse(toRaw, DATE_TIME_FORMATTER);
+                    DateTimeCodec.parse(toRaw);
 
             if (to.isBefore(from)) {
                return error("Your event ends before it starts...");
@@ -281,7 +399,7 @@ public class InputParser {
             assert newTask != null : "New Event must not be null";
 
             tasks.addTask(newTask);
-            Storage.save(tasks);
+            Storage.saveAdd(tasks, newTask);
 
             return new KetchupResult(
                     ui.showAdded("event", desc, tasks.getSize()), false);
@@ -294,12 +412,16 @@ public class InputParser {
     /**
      * Handles the {@code find} command.
      *
-     * @param input the full user input string
+     * @param line  the tokenized user input
      * @param tasks the task list
      * @return the result of searching for tasks containing a keyword
      */
-    private KetchupResult handleFind(String input, TaskList tasks) {
-        String keyword = input.substring(5).trim();
+    private KetchupResult handleFind(CommandLine line, TaskList tasks) {
+        String keyword = line.args();
+        if (keyword.isEmpty()) {
+            return error("Find what? Try 'find book'.");
+        }
+
         TaskList result = tasks.findTask(keyword);
 
         assert result != null : "findTask must not return null";
@@ -311,6 +433,127 @@ public class InputParser {
         return new KetchupResult(result.toString(), false);
     }
 
+    /**
+     * Handles the {@code import <path>} command.
+     * <p>
+     * The imported tasks are saved once, after the whole file has been read.
+     *
+     * @param line  the tokenized user input
+     * @param tasks the task list
+     * @return the result of importing tasks from a file
+     */
+    private KetchupResult handleImport(CommandLine line, TaskList tasks) {
+        String path = line.args();
+
+        if (path.isEmpty()) {
+            return error("Import from which file? Try 'import tasks.csv'.");
+        }
+
+        TaskImporter.Report report;
+        try {
+            report = TaskImporter.importFile(Paths.get(path), tasks);
+        } catch (IOException | InvalidPathException e) {
+            return error("Could not read " + path + "...");
+        }
+
+        Storage.save(tasks);
+        return new KetchupResult(ui.showImported(report, tasks.getSize()), false);
+    }
+
+    /**
+     * Handles the {@code export <path>} command.
+     *
+     * @param line  the tokenized user input
+     * @param tasks the task list
+     * @return the result of exporting every task to a file
+     */
+    private KetchupResult handleExport(CommandLine line, TaskList tasks) {
+        String path = line.args();
+
+        if (path.isEmpty()) {
+            return error("Export to which file? Try 'export tasks.csv'.");
+        }
+
+        try {
+            int count = TaskExporter.exportFile(Paths.get(path), tasks);
+            return new KetchupResult(ui.showExported(count, path), false);
+        } catch (IOException | InvalidPathException e) {
+            return error("Could not write " + path + "...");
+        }
+    }
+
+    /**
+     * Handles the {@code due <n>h} command.
+     *
+     * @param line  the tokenized user input
+     * @param tasks the task list
+     * @return the result of searching for deadlines due within the next {@code n} hours
+     */
+    private KetchupResult handleDue(CommandLine line, TaskList tasks) {
+        String hoursRaw = line.args();
+
+        if (!hoursRaw.endsWith("h")) {
+            return error("Due within how many hours? Try 'due 48h'.");
+        }
+
+        int hours;
+        try {
+            hours = Integer.parseInt(hoursRaw.substring(0, hoursRaw.length() - 1).trim());
+        } catch (NumberFormatException e) {
+            return error("Due within how many hours? Try 'due 48h'.");
+        }
+
+        if (hours <= 0) {
+            return error("Due within how many hours? Try 'due 48h'.");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        TaskList result = tasks.findDue(now, now.plusHours(hours));
+
+        if (result.getSize() == 0) {
+            return error("Nothing due in the next " + hours + "h. Phew!");
+        }
+
+        return new KetchupResult(result.toString(), false);
+    }
+
+    /**
+     * Handles the {@code between} command.
+     *
+     * @param line  the tokenized user input
+     * @param tasks the task list
+     * @return the result of searching for tasks due or happening within a window
+     */
+    private KetchupResult handleBetween(CommandLine line, TaskList tasks) {
+        String[] parts = line.split("to");
+        String fromRaw = parts[0];
+        String toRaw = parts[1];
+
+        if (toRaw == null) {
+            return error("What is the end time!!!");
+        }
+
+        try {
+            LocalDateTime from = DateTimeCodec.parse(fromRaw);
+            LocalDateTime to = DateTimeCodec.parse(toRaw);
+
+            if (to.isBefore(from)) {
+                return error("Your window ends before it starts...");
+            }
+
+            TaskList result = tasks.findBetween(from, to);
+
+            if (result.getSize() == 0) {
+                return error("Oops! No matching task found...");
+            }
+
+            return new KetchupResult(result.toString(), false);
+
+        } catch (DateTimeParseException e) {
+            return error("Please enter date in 'yyyy-MM-dd HHmm' format.");
+        }
+    }
+
     /**
      * Creates a standardized error result.
      *
@@ -318,7 +561,7 @@ public class InputParser {
      * @return a {@link KetchupResult} containing the formatted error message
      */
     private KetchupResult error(String message) {
-        return new KetchupResult(ui.showError(message), false);
+        return new KetchupResult(ui.showError(message), false, true);
     }
 
     /**
@@ -333,23 +576,40 @@ public class InputParser {
     }
 
     /**
-     * Parses task index from a input string.
+     * Returns the task given as the first argument, either by its 1-based position in
+     * the list or by its stable id as shown by {@code list /ids}. A task given by id is
+     * found in O(1). An id shown before the tasks were last loaded is refused, since the
+     * tasks have been numbered again.
      *
-     * @param input the full input string
-     * @return the parsed integer index, or -1 if invalid
+     * @param line  the tokenized user input
+     * @param tasks the task list to look in
+     * @return the task, or null if there is no such task
      */
-    private int parseIndex(String input) {
-        String[] parts = input.split("\\s+");
+    private Task findTask(CommandLine line, TaskList tasks) {
+        int id = tasks.parseId(line.firstArg());
+        if (id != 0) {
+            return id < 0 ? null : tasks.getTaskById(id);
+        }
 
-        if (parts.length < 2) {
-            return -1;
+        int idx = parseIndex(line);
+        if (isInvalidIndex(idx, tasks.getSize())) {
+            return null;
         }
+        return tasks.getTask(idx - 1);
+    }
 
+    /**
+     * Parses the 1-based task index given as the first argument.
+     *
+     * @param line the tokenized user input
+     * @return the parsed 1-based index, or -1 if invalid
+     */
+    private int parseIndex(CommandLine line) {
         try {
-            return Integer.parseInt(parts[1]);
+            return Integer.parseInt(line.firstArg());
         } catch (NumberFormatException e) {
             return -1;
         }
     }
 
-}
+}
\ No newline at end of file
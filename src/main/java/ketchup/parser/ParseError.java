@@ -0,0 +1,31 @@
+package ketchup.parser;
+
+/**
+ * Reasons why a stored line could not be turned into a task.
+ */
+public enum ParseError {
+    NULL_LINE("Null line"),
+    EMPTY_LINE("Empty line"),
+    NOT_ENOUGH_PARTS("Corrupted line: not enough parts"),
+    INVALID_DONE_FLAG("Corrupted done flag"),
+    UNKNOWN_TASK_TYPE("Unknown task type"),
+    MISSING_BY("Corrupted deadline: missing /by"),
+    MISSING_FROM_TO("Corrupted event: missing /from or /to"),
+    INVALID_DATE_TIME("Corrupted line: invalid DateTime format.");
+
+    /** User-facing description of the error. */
+    private final String message;
+
+    ParseError(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Returns the user-facing description of this error.
+     *
+     * @return the error message
+     */
+    public String getMessage() {
+        return this.message;
+    }
+}
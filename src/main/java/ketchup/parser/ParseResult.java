@@ -0,0 +1,81 @@
+package ketchup.parser;
+
+import ketchup.tasks.Task;
+
+/**
+ * Outcome of parsing one stored line: either a {@link Task} or a {@link ParseError},
+ * together with the line number it came from.
+ * <p>
+ * Returning a result instead of throwing keeps corrupted lines cheap to skip.
+ */
+public class ParseResult {
+
+    /** The parsed task, or null if parsing failed. */
+    private final Task task;
+
+    /** The reason parsing failed, or null if it succeeded. */
+    private final ParseError error;
+
+    /** 1-based line number of the parsed line, or 0 if unknown. */
+    private final int lineNumber;
+
+    private ParseResult(Task task, ParseError error, int lineNumber) {
+        this.task = task;
+        this.error = error;
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * Creates a successful result.
+     *
+     * @param task       the parsed task
+     * @param lineNumber the line number the task was read from
+     * @return a result holding the task
+     */
+    public static ParseResult success(Task task, int lineNumber) {
+        assert task != null : "Parsed task must not be null";
+        return new ParseResult(task, null, lineNumber);
+    }
+
+    /**
+     * Creates a failed result.
+     *
+     * @param error      the reason the line could not be parsed
+     * @param lineNumber the line number of the corrupted line
+     * @return a result holding the error
+     */
+    public static ParseResult failure(ParseError error, int lineNumber) {
+        assert error != null : "Parse error must not be null";
+        return new ParseResult(null, error, lineNumber);
+    }
+
+    /**
+     * Returns whether the line was parsed successfully.
+     *
+     * @return true if a task is available, false otherwise
+     */
+    public boolean isSuccess() {
+        return this.task != null;
+    }
+
+    public Task getTask() {
+        return this.task;
+    }
+
+    public ParseError getError() {
+        return this.error;
+    }
+
+    public int getLineNumber() {
+        return this.lineNumber;
+    }
+
+    /**
+     * Returns a user-facing description of the failure.
+     *
+     * @return the error message, or null if parsing succeeded
+     */
+    public String getMessage() {
+        return this.error == null ? null : this.error.getMessage();
+    }
+}
@@ -1,8 +1,8 @@
 package ketchup.parser;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeParseException;
 
+import ketchup.tasks.DateTimeCodec;
 import ketchup.tasks.Deadline;
 import ketchup.tasks.Event;
 import ketchup.tasks.Task;
@@ -15,9 +15,22 @@ import ketchup.tasks.ToDo;
  * {@code Task#toFileString()}, using the delimiter {@code |}.
  * The parser validates the structure of the line and recreates
  * the appropriate concrete {@link Task} subtype.
+ * <p>
+ * Lines are tokenized in a single pass over their characters, without regular
+ * expressions. A parser keeps reusable field offsets, so one instance must not be
+ * shared between threads.
  */
 public class TaskParser {
 
+    /** Fields beyond this count are never read. */
+    private static final int MAX_FIELDS = 5;
+
+    /** Start offsets of the fields of the line being parsed. */
+    private final int[] fieldStarts = new int[MAX_FIELDS];
+
+    /** End offsets (exclusive) of the fields of the line being parsed. */
+    private final int[] fieldEnds = new int[MAX_FIELDS];
+
     /**
      * Parses a single line from the save file into a {@link Task}.
      * <p>
@@ -39,116 +52,153 @@ public class TaskParser {
      *                   improperly formatted, or contains invalid date-time data
      */
     public Task parse(String line) throws Exception {
+        ParseResult result = parse(line, 0);
 
-        validateLine(line);
-
-        String[] parts = splitLine(line);
-        assert parts != null : "Split parts must not be null";
-
-        validateBasicFormat(parts);
-
-        String type = parts[0].trim();
-        assert type != null : "Task type must not be null";
-
-        boolean isDone = parseDoneFlag(parts[1]);
-
-        String desc = parts[2].trim();
-        assert desc != null : "Task description must not be null";
-
-        Task task = createTask(type, desc, parts);
-        assert task != null : "Created task must not be null";
-
-        if (isDone) {
-            task.markDone();
+        if (!result.isSuccess()) {
+            throw new Exception(result.getMessage());
         }
 
-        return task;
+        return result.getTask();
     }
 
     /**
-     * Validates that the input line is non-null and non-empty.
+     * Parses a single line from the save file without throwing on corrupted input.
+     * <p>
+     * The format is the same as for {@link #parse(String)}. Fields are separated by
+     * {@code |} with surrounding whitespace ignored, and trailing empty fields are dropped.
      *
-     * @param line the raw input line
-     * @throws Exception if the line is null or empty
+     * @param line       a line of text read from persistent storage
+     * @param lineNumber the line number reported in the result
+     * @return the parsed task, or the reason the line is corrupted
      */
-    private void validateLine(String line) throws Exception {
+    public ParseResult parse(CharSequence line, int lineNumber) {
         if (line == null) {
-            throw new Exception("Null line");
+            return ParseResult.failure(ParseError.NULL_LINE, lineNumber);
         }
 
-        if (line.trim().isEmpty()) {
-            throw new Exception("Empty line");
+        int fieldCount = tokenize(line);
+
+        if (fieldCount < 0) {
+            return ParseResult.failure(ParseError.EMPTY_LINE, lineNumber);
         }
-    }
 
-    /**
-     * Splits a storage line into components using {@code |} as delimiter.
-     *
-     * @param line the raw input line
-     * @return an array of parsed components
-     */
-    private String[] splitLine(String line) {
-        return line.trim().split("\\s*\\|\\s*");
-    }
+        if (fieldCount < 3) {
+            return ParseResult.failure(ParseError.NOT_ENOUGH_PARTS, lineNumber);
+        }
 
-    /**
-     * Ensures that the line contains the minimum required fields.
-     *
-     * @param parts the split components of the input line
-     * @throws Exception if the minimum format is not satisfied
-     */
-    private void validateBasicFormat(String[] parts) throws Exception {
-        if (parts.length < 3) {
-            throw new Exception("Corrupted line: not enough parts");
+        char done = singleChar(line, 1);
+        if (done != '0' && done != '1') {
+            return ParseResult.failure(ParseError.INVALID_DONE_FLAG, lineNumber);
         }
-    }
 
-    /**
-     * Parses and validates the done flag field.
-     *
-     * @param donePart the raw done flag component
-     * @return {@code true} if the task is marked as done, {@code false} otherwise
-     * @throws Exception if the done flag is invalid
-     */
-    private boolean parseDoneFlag(String donePart) throws Exception {
-        String trimmed = donePart.trim();
+        String desc = field(line, 2).toString();
+        Task task;
 
-        if (!(trimmed.equals("0") || trimmed.equals("1"))) {
-            throw new Exception("Corrupted done flag");
+        switch (singleChar(line, 0)) {
+        case 'T':
+            task = createTodo(desc);
+            break;
+
+        case 'D':
+            if (fieldCount < 4) {
+                return ParseResult.failure(ParseError.MISSING_BY, lineNumber);
+            }
+            task = createDeadline(desc, field(line, 3));
+            break;
+
+        case 'E':
+            if (fieldCount < 5) {
+                return ParseResult.failure(ParseError.MISSING_FROM_TO, lineNumber);
+            }
+            task = createEvent(desc, field(line, 3), field(line, 4));
+            break;
+
+        default:
+            return ParseResult.failure(ParseError.UNKNOWN_TASK_TYPE, lineNumber);
         }
 
-        return trimmed.equals("1");
+        if (task == null) {
+            return ParseResult.failure(ParseError.INVALID_DATE_TIME, lineNumber);
+        }
+
+        if (done == '1') {
+            task.markDone();
+        }
+
+        return ParseResult.success(task, lineNumber);
     }
 
-    /* ================= TASK CREATION ================= */
+    /* ================= TOKENIZING ================= */
 
     /**
-     * Creates a concrete {@link Task} based on its type identifier.
+     * Records the trimmed bounds of the {@code |}-separated fields of a line.
      *
-     * @param type the task type identifier
-     * @param desc the task description
-     * @param parts the split storage fields
-     * @return the constructed {@link Task}
-     * @throws Exception if the task type is unknown or corrupted
+     * @param line the raw input line
+     * @return the number of fields up to the last non-empty one, capped at
+     *         {@link #MAX_FIELDS}, or -1 if the line is blank
      */
-    private Task createTask(String type, String desc, String[] parts)
-            throws Exception {
+    private int tokenize(CharSequence line) {
+        int start = 0;
+        int end = line.length();
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
 
-        switch (type) {
-        case "T":
-            return createTodo(desc);
+        if (start == end) {
+            return -1;
+        }
 
-        case "D":
-            return createDeadline(desc, parts);
+        int count = 0;
+        int lastNonEmpty = -1;
+        int fieldStart = start;
+
+        for (int i = start; i <= end; i++) {
+            if (i < end && line.charAt(i) != '|') {
+                continue;
+            }
+
+            int s = fieldStart;
+            int e = i;
+            while (s < e && line.charAt(s) <= ' ') {
+                s++;
+            }
+            while (e > s && line.charAt(e - 1) <= ' ') {
+                e--;
+            }
+
+            if (count < MAX_FIELDS) {
+                fieldStarts[count] = s;
+                fieldEnds[count] = e;
+            }
+            if (e > s) {
+                lastNonEmpty = count;
+            }
+            count++;
+            fieldStart = i + 1;
+        }
 
-        case "E":
-            return createEvent(desc, parts);
+        return Math.min(lastNonEmpty + 1, MAX_FIELDS);
+    }
 
-        default:
-            throw new Exception("Unknown task type: " + type);
+    /**
+     * Returns the only character of a one-character field, or {@code 0} otherwise.
+     */
+    private char singleChar(CharSequence line, int idx) {
+        if (fieldEnds[idx] - fieldStarts[idx] != 1) {
+            return 0;
         }
+        return line.charAt(fieldStarts[idx]);
     }
 
+    private CharSequence field(CharSequence line, int idx) {
+        return line.subSequence(fieldStarts[idx], fieldEnds[idx]);
+    }
+
+    /* ================= TASK CREATION ================= */
+
     /**
      * Creates a {@link ToDo} task.
      *
@@ -165,68 +215,39 @@ public class TaskParser {
      * Creates a {@link Deadline} task from stored fields.
      *
      * @param desc the task description
-     * @param parts the split storage fields
-     * @return a new {@link Deadline} instance
-     * @throws Exception if deadline data is missing or invalid
+     * @param by the stored deadline date-time
+     * @return a new {@link Deadline} instance, or null if the date-time is invalid
      */
-    private Task createDeadline(String desc, String[] parts)
-            throws Exception {
-
-        if (parts.length < 4) {
-            throw new Exception("Corrupted deadline: missing /by");
+    private Task createDeadline(String desc, CharSequence by) {
+        LocalDateTime byTime = DateTimeCodec.parseOrNull(by);
+        if (byTime == null) {
+            return null;
         }
 
-        String by = parts[3].trim();
+        Task task = new Deadline(desc, byTime);
+        assert task != null : "Deadline task creation failed";
 
-        try {
-            LocalDateTime byTime =
-                    LocalDateTime.parse(by, Task.getDateFormat());
-            assert byTime != null : "Parsed deadline time must not be null";
-
-            Task task = new Deadline(desc, byTime);
-            assert task != null : "Deadline task creation failed";
-
-            return task;
-
-        } catch (DateTimeParseException e) {
-            throw new Exception("Corrupted line: invalid DateTime format.");
-        }
+        return task;
     }
 
     /**
      * Creates an {@link Event} task from stored fields.
      *
      * @param desc the task description
-     * @param parts the split storage fields
-     * @return a new {@link Event} instance
-     * @throws Exception if event data is missing or invalid
+     * @param from the stored start date-time
+     * @param to the stored end date-time
+     * @return a new {@link Event} instance, or null if a date-time is invalid
      */
-    private Task createEvent(String desc, String[] parts)
-            throws Exception {
-
-        if (parts.length < 5) {
-            throw new Exception("Corrupted event: missing /from or /to");
+    private Task createEvent(String desc, CharSequence from, CharSequence to) {
+        LocalDateTime fromTime = DateTimeCodec.parseOrNull(from);
+        LocalDateTime toTime = DateTimeCodec.parseOrNull(to);
+        if (fromTime == null || toTime == null) {
+            return null;
         }
 
-        String from = parts[3].trim();
-        String to = parts[4].trim();
-
-        try {
-            LocalDateTime fromTime =
-                    LocalDateTime.parse(from, Task.getDateFormat());
-            LocalDateTime toTime =
-                    LocalDateTime.parse(to, Task.getDateFormat());
-
-            assert fromTime != null : "Parsed event start must not be null";
-            assert toTime != null : "Parsed event end must not be null";
+        Task task = new Event(desc, fromTime, toTime);
+        assert task != null : "Event task creation failed";
 
-            Task task = new Event(desc, fromTime, toTime);
-            assert task != null : "Event task creation failed";
-
-            return task;
-
-        } catch (DateTimeParseException e) {
-            throw new Exception("Corrupted line: invalid DateTime format.");
-        }
+        return task;
     }
 }
@@ -0,0 +1,361 @@
+package ketchup.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+
+import ketchup.Ketchup;
+import ketchup.KetchupResult;
+import ketchup.storage.Storage;
+import ketchup.ui.Ui;
+
+/**
+ * Serves Ketchup commands to local clients over a TCP or Unix-domain socket, without the GUI.
+ * <p>
+ * The protocol is line-oriented. A client sends one command per line, in the same form
+ * as typed into the GUI, and may send many commands without waiting for replies. Each
+ * command gets one reply, in order: a header line {@code OK n} or {@code ERR n} followed
+ * by the {@code n} lines of the response. {@code bye} ends the client's connection rather
+ * than the server.
+ * <p>
+ * One thread runs a {@link Selector} loop that does all socket I/O and runs all commands,
+ * so the task list is only ever touched by that thread. Commands that arrive from every
+ * client in one pass of the loop are run as one batch (see {@link Ketchup#getResults}),
+ * so a busy server saves once per pass instead of once per command.
+ */
+public final class CommandServer implements Closeable {
+
+    /** Longest command line accepted, in bytes. Longer lines end the connection. */
+    private static final int MAX_LINE = 64 * 1024;
+
+    /** Size of each connection's read buffer. */
+    private static final int READ_BUFFER = 8 * 1024;
+
+    /** Unsent reply bytes after which a connection is not read from until its client catches up. */
+    private static final int MAX_PENDING_OUTPUT = 1024 * 1024;
+
+    private final Ketchup ketchup;
+
+    private final Ui ui = new Ui();
+
+    private final ServerSocketChannel server;
+
+    private final Selector selector;
+
+    private volatile boolean isRunning = true;
+
+    private CommandServer(Ketchup ketchup, ServerSocketChannel server) throws IOException {
+        this.ketchup = ketchup;
+        this.server = server;
+        this.selector = Selector.open();
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Opens a server on the given address. Clients are not served until {@link #run()} is called.
+     *
+     * @param ketchup the application whose commands are served
+     * @param address a TCP address, or a {@link UnixDomainSocketAddress}
+     * @return the bound server
+     * @throws IOException if the address could not be bound
+     */
+    public static CommandServer open(Ketchup ketchup, SocketAddress address) throws IOException {
+        ServerSocketChannel server = address instanceof UnixDomainSocketAddress
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open();
+        try {
+            server.bind(address);
+            return new CommandServer(ketchup, server);
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the address the server is bound to, with the actual port if port 0 was asked for.
+     *
+     * @return the bound address
+     * @throws IOException if the server has been closed
+     */
+    public SocketAddress getAddress() throws IOException {
+        return server.getLocalAddress();
+    }
+
+    /**
+     * Serves clients on the calling thread until {@link #close()} is called.
+     *
+     * @throws IOException if the server socket fails
+     */
+    public void run() throws IOException {
+        List<String> commands = new ArrayList<>();
+        List<Connection> senders = new ArrayList<>();
+        try {
+            while (isRunning) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isWritable()) {
+                            connection.flush();
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            connection.read(commands, senders);
+                        }
+                    } catch (IOException e) {
+                        connection.close();
+                    }
+                }
+
+                if (!commands.isEmpty()) {
+                    runCommands(commands, senders);
+                    commands.clear();
+                    senders.clear();
+                }
+            }
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+        }
+    }
+
+    /**
+     * Stops the server. Connected clients are disconnected; commands already run stay saved.
+     */
+    @Override
+    public void close() {
+        isRunning = false;
+        selector.wakeup();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        }
+    }
+
+    /**
+     * Runs the commands of one pass in arrival order and queues each reply on the
+     * connection that sent it. A null command is a {@code bye}.
+     */
+    private void runCommands(List<String> commands, List<Connection> senders) {
+        List<String> batch = new ArrayList<>(commands.size());
+        for (String command : commands) {
+            if (command != null) {
+                batch.add(command);
+            }
+        }
+        List<KetchupResult> results = batch.isEmpty() ? List.of() : ketchup.getResults(batch, false);
+        assert results.size() == batch.size() : "A batch without bye runs every command";
+
+        int next = 0;
+        for (int i = 0; i < commands.size(); i++) {
+            Connection sender = senders.get(i);
+            if (commands.get(i) == null) {
+                sender.send(false, ui.showGoodbye());
+                sender.isClosing = true;
+            } else {
+                KetchupResult result = results.get(next++);
+                sender.send(result.isError(), result.getResponse());
+            }
+        }
+        for (Connection sender : senders) {
+            try {
+                sender.flush();
+            } catch (IOException e) {
+                sender.close();
+            }
+        }
+    }
+
+    /**
+     * A connected client and its unread input and unsent replies.
+     */
+    private static final class Connection {
+
+        private final SocketChannel channel;
+
+        private SelectionKey key;
+
+        private ByteBuffer in = ByteBuffer.allocate(READ_BUFFER);
+
+        private final Queue<ByteBuffer> out = new ArrayDeque<>();
+
+        private int pendingOutput;
+
+        /** Whether the client said bye, so that the connection closes once replies are sent. */
+        private boolean isClosing;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Reads what the client has sent and collects its complete lines as commands.
+         */
+        private void read(List<String> commands, List<Connection> senders) throws IOException {
+            if (!in.hasRemaining()) {
+                if (in.capacity() >= MAX_LINE) {
+                    throw new IOException("Command line too long");
+                }
+                ByteBuffer bigger = ByteBuffer.allocate(Math.min(MAX_LINE, in.capacity() * 2));
+                in.flip();
+                in = bigger.put(in);
+            }
+            if (channel.read(in) < 0) {
+                close();
+                return;
+            }
+
+            in.flip();
+            int lineStart = 0;
+            for (int i = 0; i < in.limit() && !isClosing; i++) {
+                if (in.get(i) != '\n') {
+                    continue;
+                }
+                int end = i > lineStart && in.get(i - 1) == '\r' ? i - 1 : i;
+                String line = new String(in.array(), lineStart, end - lineStart, StandardCharsets.UTF_8);
+                lineStart = i + 1;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                boolean isBye = line.strip().equalsIgnoreCase("bye");
+                commands.add(isBye ? null : line);
+                senders.add(this);
+                isClosing = isBye;
+            }
+            in.position(lineStart);
+            in.compact();
+            updateInterest();
+        }
+
+        /**
+         * Queues a reply: a header line with its status and line count, then the response.
+         */
+        private void send(boolean isError, String response) {
+            String[] lines = response.split("\n", -1);
+            StringBuilder reply = new StringBuilder(response.length() + 16)
+                    .append(isError ? "ERR " : "OK ").append(lines.length).append('\n');
+            for (String line : lines) {
+                reply.append(line).append('\n');
+            }
+            ByteBuffer bytes = StandardCharsets.UTF_8.encode(reply.toString());
+            pendingOutput += bytes.remaining();
+            out.add(bytes);
+        }
+
+        /**
+         * Writes as many queued replies as the socket takes without blocking.
+         */
+        private void flush() throws IOException {
+            if (!channel.isOpen()) {
+                return;
+            }
+            while (!out.isEmpty()) {
+                ByteBuffer head = out.peek();
+                pendingOutput -= channel.write(head);
+                if (head.hasRemaining()) {
+                    break;
+                }
+                out.remove();
+            }
+            if (out.isEmpty() && isClosing) {
+                close();
+                return;
+            }
+            updateInterest();
+        }
+
+        /**
+         * Reads only while replies are not piling up, and waits for writability only while
+         * replies are queued.
+         */
+        private void updateInterest() {
+            if (!key.isValid()) {
+                return;
+            }
+            int ops = 0;
+            if (!isClosing && pendingOutput < MAX_PENDING_OUTPUT) {
+                ops |= SelectionKey.OP_READ;
+            }
+            if (!out.isEmpty()) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            key.interestOps(ops);
+        }
+
+        private void close() {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing more can be sent to this client.
+            }
+        }
+    }
+
+    /**
+     * Starts a headless server.
+     * <p>
+     * With a port number, the server listens on that port of the loopback interface.
+     * With any other argument, it listens on a Unix-domain socket at that path. Without
+     * arguments, it listens on port 7531.
+     *
+     * @param args the port or socket path
+     * @throws IOException if the server could not be started
+     */
+    public static void main(String[] args) throws IOException {
+        String where = args.length > 0 ? args[0] : "7531";
+        SocketAddress address;
+        if (where.chars().allMatch(Character::isDigit)) {
+            address = new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(where));
+        } else {
+            Path path = Path.of(where);
+            Files.deleteIfExists(path);
+            address = UnixDomainSocketAddress.of(path);
+        }
+
+        try (CommandServer server = open(new Ketchup(), address)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+            System.out.println("Ketchup is serving commands on " + server.getAddress());
+            server.run();
+        } finally {
+            Storage.close();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package ketchup.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A {@link CharSequence} view over a range of ASCII bytes in a {@link ByteBuffer}.
+ * <p>
+ * Lets text parsers read mapped file contents without first copying them into a {@code String}.
+ * Only {@link #toString()} copies bytes.
+ */
+class AsciiSequence implements CharSequence {
+
+    private final ByteBuffer buffer;
+    private int offset;
+    private int length;
+
+    AsciiSequence(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    private AsciiSequence(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Points this view at a new range of the buffer.
+     *
+     * @param offset absolute index of the first byte
+     * @param length number of bytes in the range
+     * @return this view
+     */
+    AsciiSequence reset(int offset, int length) {
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) buffer.get(offset + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new AsciiSequence(buffer, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,142 @@
+package ketchup.storage;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replaces files so that a crash never leaves a half-written version behind.
+ * <p>
+ * New content is written to a sibling {@code .tmp} file, forced to disk, and then
+ * renamed over the target in one step. The version being replaced is kept as a
+ * sibling {@code .bak} file, which {@link #recover(Path)} falls back to if the
+ * target has gone missing.
+ */
+final class AtomicFile {
+
+    /**
+     * Writes content into a file through a channel.
+     */
+    interface Content {
+        /**
+         * Writes the full content into the given channel.
+         *
+         * @param channel an empty channel opened for writing
+         * @throws IOException if the content could not be written
+         */
+        void writeTo(FileChannel channel) throws IOException;
+    }
+
+    private AtomicFile() {
+    }
+
+    /**
+     * Atomically replaces the target file with new content.
+     *
+     * @param target  the file to replace
+     * @param content writes the new content
+     * @throws IOException if the content could not be written or moved into place
+     */
+    static void write(Path target, Content content) throws IOException {
+        Path temp = sibling(target, ".tmp");
+        Files.createDirectories(target.toAbsolutePath().getParent());
+
+        // Readable too, so that content can map the channel.
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            content.writeTo(channel);
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        replace(temp, target);
+    }
+
+    /**
+     * Atomically moves a complete file over the target, keeping the target's
+     * current version as a backup.
+     *
+     * @param source a complete file that has already been forced to disk
+     * @param target the file to replace
+     * @throws IOException if the file could not be moved
+     */
+    static void replace(Path source, Path target) throws IOException {
+        if (Files.exists(target)) {
+            keepBackup(target);
+        }
+
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        syncDirectory(target);
+    }
+
+    /**
+     * Cleans up after a crash: removes a leftover temp file and restores the
+     * backup if the target itself is missing.
+     *
+     * @param target the file to recover
+     * @return true if the target was restored from its backup
+     * @throws IOException if the backup could not be restored
+     */
+    static boolean recover(Path target) throws IOException {
+        Files.deleteIfExists(sibling(target, ".tmp"));
+
+        Path backup = backupOf(target);
+        if (Files.exists(target) || !Files.exists(backup)) {
+            return false;
+        }
+
+        Files.copy(backup, target);
+        return true;
+    }
+
+    /**
+     * Returns the path of the previous generation of the target file.
+     *
+     * @param target the file
+     * @return the path of its backup
+     */
+    static Path backupOf(Path target) {
+        return sibling(target, ".bak");
+    }
+
+    /**
+     * Keeps the current target as the backup. A hard link is used where the file
+     * system supports it, so that the backup costs no copying.
+     */
+    private static void keepBackup(Path target) throws IOException {
+        Path backup = backupOf(target);
+        Files.deleteIfExists(backup);
+
+        try {
+            Files.createLink(backup, target);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(target, backup, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Forces the directory entry of a renamed file to disk where the platform allows it.
+     */
+    private static void syncDirectory(Path file) {
+        try (FileChannel dir = FileChannel.open(file.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // not every platform can open or sync a directory; the rename itself is still atomic
+        }
+    }
+
+    private static Path sibling(Path file, String suffix) {
+        return file.resolveSibling(file.getFileName() + suffix);
+    }
+}
@@ -0,0 +1,279 @@
+package ketchup.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ketchup.tasks.DateTimeCodec;
+import ketchup.tasks.Deadline;
+import ketchup.tasks.Event;
+import ketchup.tasks.Task;
+import ketchup.tasks.TaskList;
+import ketchup.tasks.ToDo;
+
+/**
+ * Reads and writes task snapshots in a versioned binary format.
+ * <p>
+ * Unlike the text format, loading does not need to tokenize lines or parse dates.
+ * Layout (big-endian):
+ * <pre>
+ * header   magic "KTCH" | version u16 | reserved u16 | task count i32 | string count i32
+ * strings  string count x (length i32 | UTF-8 bytes)
+ * records  task count x (type u8 | flags u8 | reserved u16 | description index i32
+ *                        | first epoch-minute i64 | second epoch-minute i64)
+ * </pre>
+ * Descriptions are stored once in the string table and referenced by index.
+ * The first epoch-minute is a deadline's due time or an event's start, the second
+ * is an event's end. Unused epoch-minutes are 0.
+ */
+public class BinarySnapshot {
+
+    /** Magic bytes at the start of every binary snapshot. */
+    static final byte[] MAGIC = {'K', 'T', 'C', 'H'};
+
+    /** Format version written by this class. */
+    static final short VERSION = 1;
+
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 24;
+    private static final int FLAG_DONE = 1;
+
+    private BinarySnapshot() {
+    }
+
+    /**
+     * Returns whether the given file starts with the binary snapshot magic.
+     *
+     * @param path the file to check
+     * @return true if the file is a binary snapshot
+     * @throws IOException if the file could not be read
+     */
+    public static boolean isBinary(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(MAGIC.length);
+            while (head.hasRemaining()) {
+                if (channel.read(head) < 0) {
+                    return false;
+                }
+            }
+            head.flip();
+            return head.equals(ByteBuffer.wrap(MAGIC));
+        }
+    }
+
+    /**
+     * Writes every task in the list to a binary snapshot.
+     * <p>
+     * The file is replaced atomically, see {@link AtomicFile}.
+     *
+     * @param path  the file to write
+     * @param tasks the tasks to write
+     * @throws IOException if the file could not be written
+     */
+    public static void write(Path path, TaskList tasks) throws IOException {
+        int size = tasks.getSize();
+        List<byte[]> strings = new ArrayList<>();
+        Map<String, Integer> stringIds = new HashMap<>();
+        int[] descIds = new int[size];
+
+        int count = 0;
+        for (Task task : tasks) {
+            String desc = task.getDesc();
+            Integer id = stringIds.get(desc);
+            if (id == null) {
+                id = strings.size();
+                stringIds.put(desc, id);
+                strings.add(desc.getBytes(StandardCharsets.UTF_8));
+            }
+            descIds[count++] = id;
+        }
+
+        AtomicFile.write(path, channel -> {
+            ChannelOutput out = new ChannelOutput(channel);
+
+            out.reserve(HEADER_SIZE).put(MAGIC).putShort(VERSION).putShort((short) 0)
+                    .putInt(size).putInt(strings.size());
+
+            for (byte[] bytes : strings) {
+                out.reserve(Integer.BYTES).putInt(bytes.length);
+                out.write(bytes);
+            }
+
+            int i = 0;
+            for (Task task : tasks) {
+                putRecord(out.reserve(RECORD_SIZE), task, descIds[i++]);
+            }
+            out.flush();
+        });
+    }
+
+    /**
+     * Reads every task in a binary snapshot and appends it to the list.
+     * <p>
+     * Records with an unknown type, description index or date are reported and skipped.
+     *
+     * @param path  the file to read
+     * @param tasks the list to add the tasks to
+     * @return the number of records that were skipped
+     * @throws IOException if the file could not be read, has an unsupported header, or has
+     *                     a count or length that does not fit in the file
+     */
+    public static int read(Path path, TaskList tasks) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to load: " + channel.size() + " bytes");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.remaining() < HEADER_SIZE) {
+                throw new IOException("Corrupted snapshot: header too short");
+            }
+
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            short version = buffer.getShort();
+            buffer.getShort();
+
+            if (!ByteBuffer.wrap(magic).equals(ByteBuffer.wrap(MAGIC))) {
+                throw new IOException("Not a binary snapshot");
+            }
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version: " + version);
+            }
+
+            int taskCount = readCount(buffer, RECORD_SIZE, "task count");
+            String[] strings = new String[readCount(buffer, Integer.BYTES, "string count")];
+
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[readCount(buffer, 1, "string length")];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            if (buffer.remaining() < (long) taskCount * RECORD_SIZE) {
+                throw corrupted("records truncated", buffer.position());
+            }
+
+            int skipped = 0;
+            for (int i = 0; i < taskCount; i++) {
+                Task task = readRecord(buffer, strings);
+                if (task == null) {
+                    System.out.println("Skipping corrupted record " + (i + 1));
+                    skipped++;
+                } else {
+                    tasks.addTask(task);
+                }
+            }
+            return skipped;
+        }
+    }
+
+    /**
+     * Reads a count and checks that the file has room for that many items of the given
+     * size after it, so that a corrupted count fails here rather than as a huge or
+     * negative allocation.
+     *
+     * @return the count
+     * @throws IOException if the count is negative or runs past the end of the file
+     */
+    private static int readCount(ByteBuffer buffer, int itemSize, String what) throws IOException {
+        int offset = buffer.position();
+        if (buffer.remaining() < Integer.BYTES) {
+            throw corrupted(what + " truncated", offset);
+        }
+        int count = buffer.getInt();
+        if (count < 0) {
+            throw corrupted("negative " + what + " " + count, offset);
+        }
+        if ((long) count * itemSize > buffer.remaining()) {
+            throw corrupted(what + " " + count + " runs past the end of the file", offset);
+        }
+        return count;
+    }
+
+    private static IOException corrupted(String problem, int offset) {
+        return new IOException("Corrupted snapshot: " + problem + " at byte " + offset);
+    }
+
+    private static void putRecord(ByteBuffer buffer, Task task, int descId) {
+        long first = 0;
+        long second = 0;
+        byte type;
+
+        if (task instanceof Deadline) {
+            type = 'D';
+            first = DateTimeCodec.toEpochMinute(((Deadline) task).getDeadline());
+        } else if (task instanceof Event) {
+            type = 'E';
+            first = DateTimeCodec.toEpochMinute(((Event) task).getStart());
+            second = DateTimeCodec.toEpochMinute(((Event) task).getEnd());
+        } else {
+            type = 'T';
+        }
+
+        buffer.put(type)
+                .put((byte) (task.isDone() ? FLAG_DONE : 0))
+                .putShort((short) 0)
+                .putInt(descId)
+                .putLong(first)
+                .putLong(second);
+    }
+
+    /**
+     * Reads one fixed-width record.
+     *
+     * @return the task, or null if the record is corrupted
+     */
+    private static Task readRecord(ByteBuffer buffer, String[] strings) {
+        byte type = buffer.get();
+        byte flags = buffer.get();
+        buffer.getShort();
+        int descId = buffer.getInt();
+        long first = buffer.getLong();
+        long second = buffer.getLong();
+
+        if (descId < 0 || descId >= strings.length) {
+            return null;
+        }
+
+        String desc = strings[descId];
+        Task task;
+
+        try {
+            switch (type) {
+            case 'T':
+                task = new ToDo(desc);
+                break;
+            case 'D':
+                task = new Deadline(desc, DateTimeCodec.fromEpochMinute(first));
+                break;
+            case 'E':
+                task = new Event(desc, DateTimeCodec.fromEpochMinute(first), DateTimeCodec.fromEpochMinute(second));
+                break;
+            default:
+                return null;
+            }
+        } catch (DateTimeException e) {
+            return null;
+        }
+
+        if ((flags & FLAG_DONE) != 0) {
+            task.markDone();
+        }
+        return task;
+    }
+}
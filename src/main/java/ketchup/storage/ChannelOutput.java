@@ -0,0 +1,68 @@
+package ketchup.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Buffers writes to a {@link FileChannel} so that each channel write covers many small puts.
+ */
+class ChannelOutput {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    ChannelOutput(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Returns the underlying buffer after making room for the given number of bytes.
+     * Callers must put at most that many bytes before calling any other method.
+     *
+     * @param bytes number of bytes about to be put, at most 64 KiB
+     * @return the buffer to put the bytes into
+     * @throws IOException if buffered bytes could not be written out
+     */
+    ByteBuffer reserve(int bytes) throws IOException {
+        assert bytes <= BUFFER_SIZE : "Reservation larger than the buffer";
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+        return buffer;
+    }
+
+    /**
+     * Writes an array of bytes, bypassing the buffer if the array is large.
+     *
+     * @param bytes the bytes to write
+     * @throws IOException if the bytes could not be written
+     */
+    void write(byte[] bytes) throws IOException {
+        if (bytes.length > BUFFER_SIZE) {
+            flush();
+            writeFully(ByteBuffer.wrap(bytes));
+        } else {
+            reserve(bytes.length).put(bytes);
+        }
+    }
+
+    /**
+     * Writes out everything buffered so far.
+     *
+     * @throws IOException if the bytes could not be written
+     */
+    void flush() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package ketchup.storage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import ketchup.parser.TaskParser;
+import ketchup.tasks.Task;
+import ketchup.tasks.TaskList;
+
+/**
+ * Append-only log of task mutations that sits next to the snapshot file.
+ * <p>
+ * Every mutation is written as one short line instead of rewriting the whole
+ * snapshot. Loading replays the snapshot first and then the journal on top of it.
+ * Once the journal grows past its size limit it is rotated, and a background
+ * thread folds the rotated journal into a new snapshot.
+ * <p>
+ * Record format, one per line:
+ * <pre>
+ * + T | 0 | read book     (task added, in {@link Task#toFileString()} form)
+ * M 3                     (task at index 3 marked done)
+ * U 3                     (task at index 3 marked not done)
+ * X 3                     (task at index 3 deleted)
+ * </pre>
+ */
+public class Journal {
+
+    private static final char ADD = '+';
+    private static final char MARK = 'M';
+    private static final char UNMARK = 'U';
+    private static final char DELETE = 'X';
+
+    /** Snapshot file that the journal is replayed on top of. */
+    private final Path snapshotFile;
+
+    /** Journal that new records are appended to. */
+    private final Path journalFile;
+
+    /** Journal that has been rotated out and is waiting to be compacted. */
+    private final Path rotatedFile;
+
+    /** Snapshot being written by an unfinished compaction. */
+    private final Path compactFile;
+
+    /** Journal size in bytes that triggers a compaction. */
+    private final long sizeLimit;
+
+    /** Guards the journal files against concurrent appends, checkpoints and compactions. */
+    private final Object lock = new Object();
+
+    /** Single background thread that runs compactions. */
+    private final ExecutorService compactor;
+
+    /** Current size of the journal file in bytes, or -1 if not yet known. */
+    private long size = -1;
+
+    /**
+     * Number of times the snapshot or the rotated journal has been replaced by a
+     * checkpoint or a rotation. Guarded by {@link #lock}.
+     */
+    private long generation;
+
+    /**
+     * Creates a journal for the given snapshot file.
+     *
+     * @param snapshotFile the snapshot file the journal belongs to
+     * @param journalFile  the file records are appended to
+     * @param sizeLimit    journal size in bytes after which it is compacted
+     */
+    public Journal(Path snapshotFile, Path journalFile, long sizeLimit) {
+        this(snapshotFile, journalFile, sizeLimit, Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "ketchup-journal-compactor");
+            t.setDaemon(true);
+            return t;
+        }));
+    }
+
+    /**
+     * Creates a journal that runs its compactions on the given executor, which must
+     * run them one at a time in the order they are submitted.
+     */
+    Journal(Path snapshotFile, Path journalFile, long sizeLimit, ExecutorService compactor) {
+        assert sizeLimit > 0 : "Journal size limit must be positive";
+        this.compactor = compactor;
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+        this.rotatedFile = sibling(journalFile, ".old");
+        this.compactFile = sibling(snapshotFile, ".compact");
+        this.sizeLimit = sizeLimit;
+    }
+
+    /**
+     * Returns the record for a task appended to the end of the list.
+     *
+     * @param task the added task
+     * @return the journal record
+     */
+    public static String addRecord(Task task) {
+        return ADD + " " + task.toFileString();
+    }
+
+    /**
+     * Returns the record for a task marked as done.
+     *
+     * @param idx 0-based index of the task
+     * @return the journal record
+     */
+    public static String markRecord(int idx) {
+        return MARK + " " + idx;
+    }
+
+    /**
+     * Returns the record for a task marked as not done.
+     *
+     * @param idx 0-based index of the task
+     * @return the journal record
+     */
+    public static String unmarkRecord(int idx) {
+        return UNMARK + " " + idx;
+    }
+
+    /**
+     * Returns the record for a deleted task.
+     *
+     * @param idx 0-based index the task had
+     * @return the journal record
+     */
+    public static String deleteRecord(int idx) {
+        return DELETE + " " + idx;
+    }
+
+    /**
+     * Writes the full task list as a new snapshot and discards all journal records.
+     *
+     * @param tasks the task list to write
+     * @throws IOException if the snapshot could not be written
+     */
+    public void checkpoint(TaskList tasks) throws IOException {
+        synchronized (lock) {
+            Storage.writeSnapshot(snapshotFile, tasks);
+            Files.deleteIfExists(journalFile);
+            Files.deleteIfExists(rotatedFile);
+            Files.deleteIfExists(compactFile);
+            size = 0;
+            generation++;
+        }
+    }
+
+    /**
+     * Finishes or rolls back a compaction that was interrupted by a crash.
+     * <p>
+     * Deleting the rotated journal is the commit point of a compaction. If it is
+     * already gone, the compacted snapshot is complete and is moved into place.
+     * Otherwise the compacted snapshot may be partial and is discarded.
+     *
+     * @throws IOException if the files could not be moved or deleted
+     */
+    public void recover() throws IOException {
+        synchronized (lock) {
+            if (!Files.exists(compactFile)) {
+                return;
+            }
+            if (Files.exists(rotatedFile)) {
+                Files.delete(compactFile);
+            } else {
+                AtomicFile.replace(compactFile, snapshotFile);
+            }
+        }
+    }
+
+    /**
+     * Replays the rotated journal and then the current journal onto the given list.
+     *
+     * @param tasks the task list loaded from the snapshot
+     * @throws IOException if a journal file could not be read
+     */
+    public void replay(TaskList tasks) throws IOException {
+        synchronized (lock) {
+            replayFile(rotatedFile, tasks);
+            replayFile(journalFile, tasks);
+            size = Files.exists(journalFile) ? Files.size(journalFile) : 0;
+        }
+    }
+
+    /**
+     * Blocks until any compaction that has already been started is finished.
+     */
+    public void awaitCompaction() {
+        try {
+            compactor.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("Could not compact journal.");
+        }
+    }
+
+    /**
+     * Appends records in order with a single write, and starts a compaction if
+     * the journal has grown too large.
+     *
+     * @param records the records to append, without line terminators
+     * @throws IOException if the records could not be written
+     */
+    public void append(List<String> records) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (String record : records) {
+            sb.append(record).append('\n');
+        }
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+        synchronized (lock) {
+            if (size < 0) {
+                size = Files.exists(journalFile) ? Files.size(journalFile) : 0;
+            }
+
+            Files.createDirectories(journalFile.toAbsolutePath().getParent());
+            Files.write(journalFile, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            size += bytes.length;
+
+            if (size > sizeLimit && !Files.exists(rotatedFile)) {
+                Files.move(journalFile, rotatedFile);
+                size = 0;
+                long rotation = ++generation;
+                compactor.submit(() -> compact(rotation));
+            }
+        }
+    }
+
+    /**
+     * Folds the rotated journal into a new snapshot.
+     * <p>
+     * The expensive reading and writing happens outside the lock so that new
+     * records can still be appended. If a checkpoint replaced the snapshot in the
+     * meantime, the compacted result is dropped, even if later appends have rotated
+     * a newer journal into place: the result only counts if the generation is still
+     * the one of the rotation that started this compaction.
+     *
+     * @param rotation the generation right after the rotation
+     */
+    private void compact(long rotation) {
+        try {
+            fold();
+            commit(rotation);
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            System.out.println("Could not compact journal.");
+        }
+    }
+
+    /**
+     * Writes the snapshot with the rotated journal replayed onto it to the compacted
+     * snapshot file, without taking the lock. This is the first step of a compaction.
+     */
+    void fold() throws IOException {
+        TaskList folded = new TaskList();
+        Storage.readSnapshot(snapshotFile, folded);
+        replayFile(rotatedFile, folded);
+        Storage.writeSnapshot(compactFile, folded);
+    }
+
+    /**
+     * Moves the compacted snapshot into place and deletes the rotated journal, or drops
+     * the compacted snapshot if there has been a checkpoint or rotation since the given
+     * one. This is the second step of a compaction.
+     *
+     * @param rotation the generation right after the rotation that was folded
+     */
+    void commit(long rotation) throws IOException {
+        synchronized (lock) {
+            if (generation != rotation) {
+                Files.deleteIfExists(compactFile);
+                return;
+            }
+            Files.delete(rotatedFile);
+            AtomicFile.replace(compactFile, snapshotFile);
+        }
+    }
+
+    /**
+     * Returns the current generation, which a checkpoint or a rotation moves on.
+     */
+    long generation() {
+        synchronized (lock) {
+            return generation;
+        }
+    }
+
+    /**
+     * Applies every record in a journal file to the given list.
+     * <p>
+     * Records that are corrupted or refer to a missing index are skipped.
+     *
+     * @param file  the journal file to replay
+     * @param tasks the task list to apply the records to
+     * @throws IOException if the file could not be read
+     */
+    private static void replayFile(Path file, TaskList tasks) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        TaskParser parser = new TaskParser();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String record;
+            int lineNumber = 0;
+            while ((record = reader.readLine()) != null) {
+                lineNumber++;
+                try {
+                    apply(record, tasks, parser);
+                } catch (Exception e) {
+                    System.out.println("Skipping journal record " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies a single journal record to the given list.
+     *
+     * @param record the journal record
+     * @param tasks  the task list to modify
+     * @param parser the parser used to rebuild added tasks
+     * @throws Exception if the record is corrupted
+     */
+    private static void apply(String record, TaskList tasks, TaskParser parser) throws Exception {
+        if (record.length() < 3 || record.charAt(1) != ' ') {
+            throw new Exception("Corrupted record");
+        }
+
+        char op = record.charAt(0);
+        String arg = record.substring(2);
+
+        if (op == ADD) {
+            tasks.addTask(parser.parse(arg));
+            return;
+        }
+
+        int idx = Integer.parseInt(arg.trim());
+        if (idx < 0 || idx >= tasks.getSize()) {
+            throw new Exception("Task index out of range");
+        }
+
+        switch (op) {
+        case MARK:
+            tasks.getTask(idx).markDone();
+            break;
+        case UNMARK:
+            tasks.getTask(idx).markUndone();
+            break;
+        case DELETE:
+            tasks.deleteTask(idx);
+            break;
+        default:
+            throw new Exception("Unknown journal record: " + op);
+        }
+    }
+
+    private static Path sibling(Path file, String suffix) {
+        return file.resolveSibling(file.getFileName() + suffix);
+    }
+}
@@ -0,0 +1,318 @@
+package ketchup.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import ketchup.parser.ParseResult;
+import ketchup.parser.TaskParser;
+import ketchup.tasks.Task;
+import ketchup.tasks.TaskList;
+
+/**
+ * Loads tasks from a text data file by memory-mapping it.
+ * <p>
+ * Line boundaries are found by scanning the mapped bytes directly, and each ASCII
+ * line is handed to {@link TaskParser#parse(CharSequence, int)} as a view over the
+ * buffer, so no intermediate {@code String} is created for a whole line.
+ * Corrupted lines are reported and skipped; loading continues with the next line.
+ * <p>
+ * A loader with a parallelism above one splits each large mapped window at line
+ * boundaries into chunks and parses them on a {@link ForkJoinPool}. Chunks are then
+ * taken in file order on the calling thread, so tasks are added and corrupted lines
+ * reported in the same order, with the same line numbers, as a sequential load.
+ * <p>
+ * A mapping is only released once the buffer is garbage collected, and Windows refuses
+ * to replace a file that is still mapped, so the next save of the data file would fail
+ * there. On Windows the loader therefore reads each window into the heap instead.
+ */
+public class MappedTaskLoader {
+
+    /** Largest region mapped at once. Bigger files are mapped in several windows. */
+    private static final long MAX_WINDOW = 1L << 30;
+
+    /** Largest region read into the heap at once when not mapping. */
+    private static final long MAX_READ_WINDOW = 64L << 20;
+
+    /** Whether the platform keeps a mapped file from being replaced, as Windows does. */
+    private static final boolean IS_MAPPING_LOCKING = System.getProperty("os.name", "").startsWith("Windows");
+
+    /** Smallest chunk worth parsing on another thread, in bytes. */
+    private static final int MIN_CHUNK = 256 * 1024;
+
+    /** Number of chunks per thread, so that a slow chunk does not leave the other threads idle. */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /** Number of threads that parse a window. */
+    private final int parallelism;
+
+    /** Whether windows are mapped rather than read into the heap. */
+    private final boolean isMapped;
+
+    private final TaskParser parser = new TaskParser();
+
+    /** Reusable view over the current line of the mapped buffer. */
+    private AsciiSequence view;
+
+    /** Reusable buffer that non-ASCII lines are copied into before decoding. */
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Creates a loader that parses on the calling thread.
+     */
+    public MappedTaskLoader() {
+        this(1);
+    }
+
+    /**
+     * Creates a loader that parses large files on up to the given number of threads.
+     *
+     * @param parallelism number of parsing threads, at least 1
+     */
+    public MappedTaskLoader(int parallelism) {
+        this(parallelism, !IS_MAPPING_LOCKING);
+    }
+
+    /**
+     * Creates a loader that maps the file if {@code isMapped} is set, and reads it into
+     * the heap otherwise.
+     */
+    MappedTaskLoader(int parallelism, boolean isMapped) {
+        assert parallelism >= 1 : "Parallelism must be at least 1";
+        this.parallelism = parallelism;
+        this.isMapped = isMapped;
+    }
+
+    /**
+     * Reads every task in the given file and appends it to the list.
+     *
+     * @param file  the data file to read
+     * @param tasks the list to add the loaded tasks to
+     * @return the number of lines that were skipped because they were corrupted
+     * @throws IOException if the file could not be mapped or read
+     */
+    public int load(Path file, TaskList tasks) throws IOException {
+        int skipped = 0;
+        ForkJoinPool pool = null;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            int lineNumber = 0;
+
+            while (position < size) {
+                long length = Math.min(isMapped ? MAX_WINDOW : MAX_READ_WINDOW, size - position);
+                ByteBuffer buffer = window(channel, position, (int) length);
+                view = new AsciiSequence(buffer);
+                int limit = (int) length;
+
+                if (position + length < size) {
+                    limit = lastNewline(buffer, limit) + 1;
+                    if (limit == 0) {
+                        throw new IOException("Line too long at line " + (lineNumber + 1));
+                    }
+                }
+
+                if (parallelism > 1 && limit >= 2 * MIN_CHUNK) {
+                    if (pool == null) {
+                        pool = new ForkJoinPool(parallelism);
+                    }
+                    for (Chunk chunk : parseChunks(pool, buffer, limit)) {
+                        chunk.join();
+                        for (int i = 0; i < chunk.skippedLines.size(); i++) {
+                            reportSkipped(lineNumber + chunk.skippedLines.get(i), chunk.messages.get(i));
+                        }
+                        for (Task task : chunk.tasks) {
+                            tasks.addTask(task);
+                        }
+                        skipped += chunk.skippedLines.size();
+                        lineNumber += chunk.lineCount;
+                    }
+                } else {
+                    int start = 0;
+                    while (start < limit) {
+                        int end = nextNewline(buffer, start, limit);
+                        lineNumber++;
+                        if (!loadLine(buffer, start, end, lineNumber, tasks)) {
+                            skipped++;
+                        }
+                        start = end + 1;
+                    }
+                }
+                position += limit;
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+        return skipped;
+    }
+
+    /**
+     * Maps {@code length} bytes of the file from {@code position}, or reads them into
+     * a heap buffer if this loader does not map.
+     */
+    private ByteBuffer window(FileChannel channel, long position, int length) throws IOException {
+        if (isMapped) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("File shrank while loading");
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Splits {@code [0, limit)} of the buffer into chunks that end at line boundaries
+     * and starts parsing each of them on the pool.
+     *
+     * @return the chunks, in file order
+     */
+    private List<Chunk> parseChunks(ForkJoinPool pool, ByteBuffer buffer, int limit) {
+        int count = Math.min(parallelism * CHUNKS_PER_THREAD, limit / MIN_CHUNK);
+        List<Chunk> chunks = new ArrayList<>(count);
+        int start = 0;
+        for (int i = 1; i <= count && start < limit; i++) {
+            int target = Math.max(start, (int) ((long) limit * i / count));
+            int end = i == count ? limit : Math.min(nextNewline(buffer, target, limit) + 1, limit);
+            Chunk chunk = new Chunk(buffer, start, end);
+            pool.execute(chunk);
+            chunks.add(chunk);
+            start = end;
+        }
+        assert start == limit : "Chunks must cover the whole window";
+        return chunks;
+    }
+
+    /**
+     * A run of whole lines parsed on a pool thread.
+     * <p>
+     * Line numbers are counted from the start of the chunk, since the lines in earlier
+     * chunks are only known once those are parsed.
+     */
+    private static final class Chunk extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ByteBuffer buffer;
+
+        private final int start;
+
+        private final int end;
+
+        private final List<Task> tasks = new ArrayList<>();
+
+        /** Line numbers of corrupted lines, counted from 1 at the start of the chunk. */
+        private final List<Integer> skippedLines = new ArrayList<>();
+
+        private final List<String> messages = new ArrayList<>();
+
+        private int lineCount;
+
+        private Chunk(ByteBuffer buffer, int start, int end) {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            MappedTaskLoader worker = new MappedTaskLoader();
+            worker.view = new AsciiSequence(buffer);
+            int lineStart = start;
+            while (lineStart < end) {
+                int lineEnd = nextNewline(buffer, lineStart, end);
+                lineCount++;
+                ParseResult result = worker.parseLine(buffer, lineStart, lineEnd, lineCount);
+                if (result.isSuccess()) {
+                    tasks.add(result.getTask());
+                } else {
+                    skippedLines.add(lineCount);
+                    messages.add(result.getMessage());
+                }
+                lineStart = lineEnd + 1;
+            }
+        }
+    }
+
+    /**
+     * Parses the line in {@code [start, end)} and adds the resulting task.
+     *
+     * @return true if a task was added, false if the line was skipped
+     */
+    private boolean loadLine(ByteBuffer buffer, int start, int end, int lineNumber, TaskList tasks) {
+        ParseResult result = parseLine(buffer, start, end, lineNumber);
+        if (!result.isSuccess()) {
+            reportSkipped(lineNumber, result.getMessage());
+            return false;
+        }
+
+        tasks.addTask(result.getTask());
+        return true;
+    }
+
+    /**
+     * Parses the line in {@code [start, end)}.
+     * <p>
+     * Pure ASCII lines are parsed straight from the buffer. Lines with other
+     * bytes are decoded as UTF-8 first.
+     */
+    private ParseResult parseLine(ByteBuffer buffer, int start, int end, int lineNumber) {
+        CharSequence line = isAscii(buffer, start, end)
+                ? view.reset(start, end - start)
+                : decode(buffer, start, end);
+        return parser.parse(line, lineNumber);
+    }
+
+    private static void reportSkipped(int lineNumber, String message) {
+        System.out.println("Skipping corrupted line " + lineNumber + ": " + message);
+    }
+
+    private String decode(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isAscii(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int nextNewline(ByteBuffer buffer, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return limit;
+    }
+
+    private static int lastNewline(ByteBuffer buffer, int limit) {
+        for (int i = limit - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
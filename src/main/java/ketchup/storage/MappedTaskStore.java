@@ -0,0 +1,408 @@
+package ketchup.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import ketchup.tasks.DateTimeCodec;
+import ketchup.tasks.Deadline;
+import ketchup.tasks.Event;
+import ketchup.tasks.Task;
+import ketchup.tasks.TaskList;
+import ketchup.tasks.TaskStore;
+import ketchup.tasks.ToDo;
+
+/**
+ * {@link TaskStore} kept in a memory-mapped file instead of on the heap.
+ * <p>
+ * The file holds a header, a region of fixed-width task records and a heap of UTF-8
+ * descriptions:
+ * <pre>
+ * header  magic "KTMAPPED", capacity, slot count, freed slots, next id, heap size
+ * records capacity x [type byte, done byte, 2 unused, id int, first minute long,
+ *                     end minute long, heap offset int, description length int]
+ * heap    descriptions back to back, growing at the end of the file
+ * </pre>
+ * Task lists over the store read and write the mapping directly, so opening an
+ * existing file parses nothing and {@link #force()} is all a save has to do. Changes
+ * that have not been forced reach the disk whenever the OS writes the pages back.
+ * <p>
+ * When the record region is full, or when {@link TaskList} compacts away freed slots,
+ * the whole file is rebuilt into a new one that replaces it through {@link AtomicFile}.
+ * The description heap only grows between rebuilds. The file is mapped as a single
+ * buffer, so it is limited to 2 GB.
+ */
+public final class MappedTaskStore implements TaskStore, Closeable {
+
+    private static final long MAGIC = 0x4B544D4150504544L;
+
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE = 32;
+    private static final int MIN_CAPACITY = 1024;
+    private static final int MIN_HEAP = 64 * 1024;
+
+    private static final int CAPACITY_AT = 8;
+    private static final int SLOT_COUNT_AT = 12;
+    private static final int FREE_COUNT_AT = 16;
+    private static final int NEXT_ID_AT = 20;
+    private static final int HEAP_SIZE_AT = 24;
+
+    private static final byte FREE = 0;
+    private static final byte PLAIN = 1;
+    private static final byte TODO = 2;
+    private static final byte DEADLINE = 3;
+    private static final byte EVENT = 4;
+
+    /** The store's file. */
+    private final Path path;
+
+    /** Open channel to the file. */
+    private FileChannel channel;
+
+    /** Mapping of the whole file, header included. */
+    private MappedByteBuffer buffer;
+
+    /** Number of records that fit before the heap; cached from the header. */
+    private int capacity;
+
+    /** Byte range of the record region changed since the last force, empty if from is not below to. */
+    private int dirtyRecordsFrom = Integer.MAX_VALUE;
+    private int dirtyRecordsTo;
+
+    /** Byte range of the description heap changed since the last force. */
+    private int dirtyHeapFrom = Integer.MAX_VALUE;
+    private int dirtyHeapTo;
+
+    private MappedTaskStore(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Opens the store in the given file, creating an empty one if the file does not exist.
+     * Freed slots left over from the last session are compacted away.
+     *
+     * @param path the store file
+     * @return the opened store
+     * @throws IOException if the file could not be opened or is not a task store
+     */
+    public static MappedTaskStore open(Path path) throws IOException {
+        MappedTaskStore store = new MappedTaskStore(path);
+        if (AtomicFile.recover(path)) {
+            System.out.println("Task store was missing, restored the previous version.");
+        }
+        if (!Files.exists(path)) {
+            store.rebuild(0, MIN_CAPACITY, true);
+            return store;
+        }
+
+        long size = Files.size(path);
+        if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+            throw new IOException("Not a task store: " + path);
+        }
+        store.map(size);
+        if (store.buffer.getLong(0) != MAGIC) {
+            store.channel.close();
+            throw new IOException("Not a task store: " + path);
+        }
+        if (store.freeCount() > 0) {
+            store.rebuild(store.slotCount(), Math.max(MIN_CAPACITY, store.size() * 2), true);
+        }
+        return store;
+    }
+
+    /**
+     * Returns a task list over this store.
+     *
+     * @return a list of the stored tasks
+     */
+    public TaskList toTaskList() {
+        return TaskList.backedBy(this, size(), this.buffer.getInt(NEXT_ID_AT));
+    }
+
+    /**
+     * Returns the number of stored tasks.
+     *
+     * @return number of used slots
+     */
+    public int size() {
+        return slotCount() - freeCount();
+    }
+
+    /**
+     * Writes every change made so far to the disk.
+     * <p>
+     * Only the header and the ranges changed since the last force are synced, so
+     * marking one task in a large store costs a few pages, not the whole mapping. The
+     * header is synced last, so it never counts a record that was not synced. Pages
+     * written back by the OS between forces are not ordered, so a crash before a force
+     * can leave the header counting a record whose bytes never reached the disk.
+     */
+    public void force() {
+        if (this.dirtyHeapFrom < this.dirtyHeapTo) {
+            this.buffer.force(this.dirtyHeapFrom, this.dirtyHeapTo - this.dirtyHeapFrom);
+        }
+        if (this.dirtyRecordsFrom < this.dirtyRecordsTo) {
+            this.buffer.force(this.dirtyRecordsFrom, this.dirtyRecordsTo - this.dirtyRecordsFrom);
+        }
+        this.buffer.force(0, HEADER_SIZE);
+        clearDirty();
+    }
+
+    /**
+     * Writes every change to the disk and closes the file. The store cannot be used afterwards.
+     *
+     * @throws IOException if the file could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        force();
+        this.channel.close();
+    }
+
+    @Override
+    public void add(int slot, Task task) {
+        if (slot >= this.capacity) {
+            rebuildUnchecked(slot, this.capacity * 2, false);
+        }
+
+        byte[] desc = task.getDesc().getBytes(StandardCharsets.UTF_8);
+        long heapSize = this.buffer.getLong(HEAP_SIZE_AT);
+        int heapAt = heapStart() + (int) heapSize;
+        ensureMapped((long) heapAt + desc.length);
+        this.buffer.put(heapAt, desc);
+        this.dirtyHeapFrom = Math.min(this.dirtyHeapFrom, heapAt);
+        this.dirtyHeapTo = Math.max(this.dirtyHeapTo, heapAt + desc.length);
+
+        int at = recordAt(slot);
+        long first = 0;
+        long end = 0;
+        byte type;
+        if (task instanceof Deadline) {
+            type = DEADLINE;
+            first = DateTimeCodec.toEpochMinute(((Deadline) task).getDeadline());
+        } else if (task instanceof Event) {
+            type = EVENT;
+            first = DateTimeCodec.toEpochMinute(((Event) task).getStart());
+            end = DateTimeCodec.toEpochMinute(((Event) task).getEnd());
+        } else {
+            type = task instanceof ToDo ? TODO : PLAIN;
+        }
+        this.buffer.put(at, type);
+        this.buffer.put(at + 1, (byte) (task.isDone() ? 1 : 0));
+        this.buffer.putInt(at + 4, task.getId());
+        this.buffer.putLong(at + 8, first);
+        this.buffer.putLong(at + 16, end);
+        this.buffer.putInt(at + 24, (int) heapSize);
+        this.buffer.putInt(at + 28, desc.length);
+        markRecordDirty(at);
+
+        this.buffer.putLong(HEAP_SIZE_AT, heapSize + desc.length);
+        this.buffer.putInt(NEXT_ID_AT, Math.max(this.buffer.getInt(NEXT_ID_AT), task.getId() + 1));
+        this.buffer.putInt(SLOT_COUNT_AT, slot + 1);
+    }
+
+    @Override
+    public Task get(int slot) {
+        int at = recordAt(slot);
+        Task task;
+        switch (this.buffer.get(at)) {
+        case FREE:
+            return null;
+        case DEADLINE:
+            task = new Deadline(descAt(slot), DateTimeCodec.fromEpochMinute(this.buffer.getLong(at + 8)));
+            break;
+        case EVENT:
+            task = new Event(descAt(slot), DateTimeCodec.fromEpochMinute(this.buffer.getLong(at + 8)),
+                    DateTimeCodec.fromEpochMinute(this.buffer.getLong(at + 16)));
+            break;
+        case TODO:
+            task = new ToDo(descAt(slot));
+            break;
+        default:
+            task = new Task(descAt(slot));
+            break;
+        }
+
+        if (this.buffer.get(at + 1) != 0) {
+            task.markDone();
+        }
+        return task;
+    }
+
+    @Override
+    public void free(int slot) {
+        this.buffer.put(recordAt(slot), FREE);
+        markRecordDirty(recordAt(slot));
+        this.buffer.putInt(FREE_COUNT_AT, freeCount() + 1);
+    }
+
+    @Override
+    public boolean isUsed(int slot) {
+        return this.buffer.get(recordAt(slot)) != FREE;
+    }
+
+    @Override
+    public int idAt(int slot) {
+        return this.buffer.getInt(recordAt(slot) + 4);
+    }
+
+    @Override
+    public String descAt(int slot) {
+        int at = recordAt(slot);
+        byte[] desc = new byte[this.buffer.getInt(at + 28)];
+        this.buffer.get(heapStart() + this.buffer.getInt(at + 24), desc);
+        return new String(desc, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean hasViews() {
+        return true;
+    }
+
+    @Override
+    public void setDone(int slot, boolean isDone) {
+        this.buffer.put(recordAt(slot) + 1, (byte) (isDone ? 1 : 0));
+        markRecordDirty(recordAt(slot));
+    }
+
+    @Override
+    public TaskStore compact(int slotCount, int size) {
+        rebuildUnchecked(slotCount, Math.max(MIN_CAPACITY, size * 2), true);
+        return this;
+    }
+
+    @Override
+    public boolean compactsInPlace() {
+        return true;
+    }
+
+    private int slotCount() {
+        return this.buffer.getInt(SLOT_COUNT_AT);
+    }
+
+    private int freeCount() {
+        return this.buffer.getInt(FREE_COUNT_AT);
+    }
+
+    private int heapStart() {
+        return HEADER_SIZE + this.capacity * RECORD_SIZE;
+    }
+
+    private void markRecordDirty(int at) {
+        this.dirtyRecordsFrom = Math.min(this.dirtyRecordsFrom, at);
+        this.dirtyRecordsTo = Math.max(this.dirtyRecordsTo, at + RECORD_SIZE);
+    }
+
+    private static int recordAt(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    private void rebuildUnchecked(int slotCount, int newCapacity, boolean dropsFreed) {
+        try {
+            rebuild(slotCount, newCapacity, dropsFreed);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not grow task store " + this.path, e);
+        }
+    }
+
+    /**
+     * Writes the first {@code slotCount} slots into a new file with room for
+     * {@code newCapacity} records, replaces the store file with it and maps it.
+     * Freed slots are either dropped, renumbering the rest, or kept as they are.
+     */
+    private void rebuild(int slotCount, int newCapacity, boolean dropsFreed) throws IOException {
+        MappedByteBuffer old = this.buffer;
+        int oldHeapStart = old == null ? 0 : heapStart();
+        int newHeapStart = HEADER_SIZE + newCapacity * RECORD_SIZE;
+        long heapSize = old == null ? 0 : old.getLong(HEAP_SIZE_AT);
+        long fileSize = newHeapStart + Math.max(MIN_HEAP, heapSize * 2);
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("Task store would exceed 2 GB: " + this.path);
+        }
+
+        AtomicFile.write(this.path, out -> {
+            MappedByteBuffer target = out.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            int count = 0;
+            int heapAt = 0;
+            byte[] desc = new byte[256];
+            for (int slot = 0; slot < slotCount; slot++) {
+                int from = recordAt(slot);
+                if (old.get(from) == FREE) {
+                    if (!dropsFreed) {
+                        count++;
+                    }
+                    continue;
+                }
+                int length = old.getInt(from + 28);
+                if (length > desc.length) {
+                    desc = new byte[Math.max(length, desc.length * 2)];
+                }
+                old.get(oldHeapStart + old.getInt(from + 24), desc, 0, length);
+                target.put(newHeapStart + heapAt, desc, 0, length);
+
+                int to = recordAt(count++);
+                for (int i = 0; i < 24; i += 8) {
+                    target.putLong(to + i, old.getLong(from + i));
+                }
+                target.putInt(to + 24, heapAt);
+                target.putInt(to + 28, length);
+                heapAt += length;
+            }
+
+            target.putLong(0, MAGIC);
+            target.putInt(CAPACITY_AT, newCapacity);
+            target.putInt(SLOT_COUNT_AT, count);
+            target.putInt(FREE_COUNT_AT, dropsFreed ? 0 : old.getInt(FREE_COUNT_AT));
+            target.putInt(NEXT_ID_AT, old == null ? 1 : old.getInt(NEXT_ID_AT));
+            target.putLong(HEAP_SIZE_AT, heapAt);
+            target.force();
+        });
+
+        if (this.channel != null) {
+            this.channel.close();
+        }
+        map(fileSize);
+    }
+
+    /**
+     * Maps the first {@code size} bytes of the store file, extending it if needed.
+     */
+    private void map(long size) throws IOException {
+        this.channel = FileChannel.open(this.path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        this.capacity = this.buffer.getInt(CAPACITY_AT);
+        clearDirty();
+    }
+
+    private void clearDirty() {
+        this.dirtyRecordsFrom = Integer.MAX_VALUE;
+        this.dirtyRecordsTo = 0;
+        this.dirtyHeapFrom = Integer.MAX_VALUE;
+        this.dirtyHeapTo = 0;
+    }
+
+    /**
+     * Grows the mapping so that it covers at least {@code end} bytes.
+     */
+    private void ensureMapped(long end) {
+        if (end <= this.buffer.capacity()) {
+            return;
+        }
+        long size = Math.max(end, this.buffer.capacity() * 2L);
+        if (end > Integer.MAX_VALUE) {
+            throw new UncheckedIOException(new IOException("Task store would exceed 2 GB: " + this.path));
+        }
+        try {
+            this.buffer.force();
+            this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(size, Integer.MAX_VALUE));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not grow task store " + this.path, e);
+        }
+    }
+}
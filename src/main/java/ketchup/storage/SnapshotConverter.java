@@ -0,0 +1,88 @@
+package ketchup.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import ketchup.tasks.TaskList;
+
+/**
+ * Converts task data files between the text and the binary snapshot format.
+ * <p>
+ * Usage: {@code SnapshotConverter --to-binary|--to-text <source> [<target>]}.
+ * Without a target, the source file is converted in place.
+ */
+public class SnapshotConverter {
+
+    private SnapshotConverter() {
+    }
+
+    /**
+     * Converts a data file of either format into a binary snapshot.
+     *
+     * @param source the file to read
+     * @param target the file to write, which may be the same as {@code source}
+     * @return the number of tasks converted
+     * @throws IOException if a file could not be read or written
+     */
+    public static int toBinary(Path source, Path target) throws IOException {
+        return convert(source, target, true);
+    }
+
+    /**
+     * Converts a data file of either format into a text snapshot.
+     *
+     * @param source the file to read
+     * @param target the file to write, which may be the same as {@code source}
+     * @return the number of tasks converted
+     * @throws IOException if a file could not be read or written
+     */
+    public static int toText(Path source, Path target) throws IOException {
+        return convert(source, target, false);
+    }
+
+    /**
+     * Runs the converter from the command line.
+     *
+     * @param args {@code --to-binary} or {@code --to-text}, the source file and an optional target file
+     */
+    public static void main(String[] args) {
+        if (args.length < 2 || !(args[0].equals("--to-binary") || args[0].equals("--to-text"))) {
+            System.out.println("Usage: SnapshotConverter --to-binary|--to-text <source> [<target>]");
+            return;
+        }
+
+        Path source = Paths.get(args[1]);
+        Path target = args.length > 2 ? Paths.get(args[2]) : source;
+
+        try {
+            int count = args[0].equals("--to-binary") ? toBinary(source, target) : toText(source, target);
+            System.out.println("Converted " + count + " tasks to " + target);
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            System.out.println("Could not convert tasks.");
+        }
+    }
+
+    /**
+     * Reads the source in whichever format it has and writes it in the requested one.
+     * The target is replaced atomically, so the source is never left half-overwritten.
+     */
+    private static int convert(Path source, Path target, boolean isBinary) throws IOException {
+        if (!Files.exists(source)) {
+            throw new IOException("No such file: " + source);
+        }
+
+        TaskList tasks = new TaskList();
+        Storage.readSnapshot(source, tasks);
+
+        if (isBinary) {
+            BinarySnapshot.write(target, tasks);
+        } else {
+            Storage.writeTextSnapshot(target, tasks);
+        }
+
+        return tasks.getSize();
+    }
+}
@@ -1,16 +1,51 @@
 package ketchup.storage;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Scanner;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
-import ketchup.parser.TaskParser;
 import ketchup.tasks.Task;
 import ketchup.tasks.TaskList;
 
 /**
  * Handles the storage of tasks by saving to and loading from a local data file.
+ * <p>
+ * In journal mode (enabled with {@code -Dketchup.journal=true}), each mutation
+ * appends one record to a {@link Journal} instead of rewriting the data file.
+ * <p>
+ * The data file is either text or a {@link BinarySnapshot}, told apart by its magic
+ * bytes. Saves keep the format the file was loaded in. New data files are text unless
+ * {@code -Dketchup.format=binary} is set.
+ * <p>
+ * Data files are never overwritten in place. Each save goes through {@link AtomicFile},
+ * so a crash leaves either the old or the new version, never a mix of both.
+ * <p>
+ * With {@code -Dketchup.writeBehind=true}, saves are handed to a {@link WriteBehindSaver}
+ * so that callers do not wait for disk I/O. Pending saves are flushed by {@link #close()},
+ * which also runs on JVM shutdown.
+ * <p>
+ * Large text data files are parsed on {@code -Dketchup.loadThreads} threads, one per core
+ * by default (see {@link MappedTaskLoader}).
+ * <p>
+ * With {@code -Dketchup.columnar=true}, the loaded list stores its tasks as primitive
+ * columns (see {@link TaskList#columnar()}), for data files with millions of tasks.
+ * <p>
+ * With {@code -Dketchup.store=mapped}, tasks live in a {@link MappedTaskStore} instead
+ * of the data file. Loading maps the store without parsing anything, and every save is a
+ * {@link MappedTaskStore#force()}. The first load in this mode imports the data file,
+ * and {@link #close()} writes the tasks back to it, so that the data file stays current
+ * for runs without the store.
+ * <p>
+ * Between {@link #beginBatch()} and {@link #endBatch(TaskList)}, saves are held back and
+ * written once at the end, so a script of many commands costs one save instead of one
+ * per command. Batches are meant for the thread that runs commands and do not nest.
  */
 public class Storage {
 
@@ -19,80 +54,433 @@ public class Storage {
      */
     private static final String FILE_PATH = "data/ketchup.txt";
 
+    /**
+     * Relative file path of the mutation journal.
+     */
+    private static final String JOURNAL_PATH = "data/ketchup.journal";
+
+    /** Path of the memory-mapped task store. */
+    private static final String MAPPED_PATH = "data/ketchup.tasks";
+
+    /**
+     * Journal size in bytes after which it is folded into the data file.
+     */
+    private static final long JOURNAL_LIMIT = Long.getLong("ketchup.journal.limit", 1024 * 1024);
+
+    /** Journal of mutations made since the data file was last written. */
+    private static final Journal JOURNAL =
+            new Journal(Paths.get(FILE_PATH), Paths.get(JOURNAL_PATH), JOURNAL_LIMIT);
+
+    /**
+     * How long the write-behind saver waits for more changes before flushing, in milliseconds.
+     */
+    private static final long WRITE_BEHIND_DELAY = Long.getLong("ketchup.writeBehind.delay", 50);
+
+    /** Number of threads that parse a large text data file on load. */
+    private static final int LOAD_THREADS =
+            Integer.getInteger("ketchup.loadThreads", Runtime.getRuntime().availableProcessors());
+
+    /** Whether snapshots are written in the binary format instead of text. */
+    private static boolean isBinaryFormat = "binary".equals(System.getProperty("ketchup.format"));
+
+    /** Whether loaded lists store their tasks as primitive columns (see {@link TaskList#columnar()}). */
+    private static final boolean IS_COLUMNAR = Boolean.getBoolean("ketchup.columnar");
+
+    /** Whether tasks are kept in a memory-mapped store instead of the data file. */
+    private static final boolean IS_MAPPED = "mapped".equals(System.getProperty("ketchup.store"));
+
+    /** The open memory-mapped store, or null if tasks are kept in the data file. */
+    private static volatile MappedTaskStore mappedStore;
+
+    /** The list over {@link #mappedStore}, or null if tasks are kept in the data file. */
+    private static volatile TaskList mappedTasks;
+
+    /** Whether saves are being held back until {@link #endBatch(TaskList)}. Guarded by the class lock. */
+    private static boolean isBatching;
+
+    /** Whether a held-back save needs the whole list to be written. Guarded by the class lock. */
+    private static boolean isBatchFullSave;
+
+    /** Journal records held back by the current batch. Guarded by the class lock. */
+    private static final List<String> BATCH_RECORDS = new ArrayList<>();
+
+    /** Whether mutations are appended to the journal instead of rewriting the data file. */
+    private static final boolean IS_JOURNAL_ENABLED = Boolean.getBoolean("ketchup.journal");
+
+    /** Background saver used in write-behind mode, or null if saves are synchronous. */
+    private static volatile WriteBehindSaver saver =
+            Boolean.getBoolean("ketchup.writeBehind") ? new WriteBehindSaver(JOURNAL, WRITE_BEHIND_DELAY) : null;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(Storage::close, "ketchup-storage-shutdown"));
+    }
+
+    /**
+     * Enables or disables write-behind mode.
+     * <p>
+     * Disabling it flushes any pending changes first.
+     *
+     * @param isEnabled true to save on a background writer thread
+     */
+    public static synchronized void setWriteBehindEnabled(boolean isEnabled) {
+        if (isEnabled && saver == null) {
+            saver = new WriteBehindSaver(JOURNAL, WRITE_BEHIND_DELAY);
+        } else if (!isEnabled && saver != null) {
+            saver.close();
+            saver = null;
+        }
+    }
+
+    /**
+     * Blocks until every change saved so far has been written to disk.
+     */
+    public static void flush() {
+        MappedTaskStore store = mappedStore;
+        if (store != null) {
+            store.force();
+        }
+        WriteBehindSaver current = saver;
+        if (current != null) {
+            current.flush();
+        }
+    }
+
+    /**
+     * Writes every pending change and waits for background work to finish. With the
+     * memory-mapped store, also writes the tasks to the data file.
+     * <p>
+     * Later saves are written synchronously.
+     */
+    public static void close() {
+        setWriteBehindEnabled(false);
+        JOURNAL.awaitCompaction();
+
+        TaskList tasks = mappedTasks;
+        if (tasks != null) {
+            flush();
+            try {
+                JOURNAL.checkpoint(tasks);
+            } catch (IOException e) {
+                System.out.println("Could not write tasks to the data file.");
+            }
+        }
+    }
+
     /**
      * Clears all stored task data by overwriting the data file with an empty file.
      * <p>
-     * If the file does not exist, it will be created.
+     * If the file does not exist, it will be created. Any journal is discarded.
      */
     public static void clear() {
+        flush();
         try {
-            FileWriter fw = new FileWriter(FILE_PATH);
-            fw.write("");
-            fw.close();
+            JOURNAL.checkpoint(new TaskList());
         } catch (IOException e) {
             System.out.println("Could not clear data file.");
         }
     }
 
+    /**
+     * Starts holding back saves until {@link #endBatch(TaskList)} or {@link #discardBatch()}.
+     * <p>
+     * There is one batch at a time, since every save goes to the same files. The batch
+     * state is kept under the class lock that saves also take, so a save from another
+     * thread either joins the open batch or runs wholly before or after it.
+     */
+    public static synchronized void beginBatch() {
+        assert !isBatching : "Batches do not nest";
+        isBatching = true;
+        isBatchFullSave = false;
+        BATCH_RECORDS.clear();
+    }
+
+    /**
+     * Writes everything held back since {@link #beginBatch()} in one go: a single journal
+     * append in journal mode, or a single save otherwise.
+     *
+     * @param tasks the task list after the batch
+     */
+    public static synchronized void endBatch(TaskList tasks) {
+        if (!isBatching) {
+            return;
+        }
+        isBatching = false;
+
+        if (isBatchFullSave || mappedStore != null) {
+            save(tasks);
+        } else if (!BATCH_RECORDS.isEmpty()) {
+            appendRecords(tasks, new ArrayList<>(BATCH_RECORDS));
+        }
+        BATCH_RECORDS.clear();
+    }
+
+    /**
+     * Drops everything held back since {@link #beginBatch()}. Used when the batch was
+     * rolled back, so that the stored data still matches the task list.
+     */
+    public static synchronized void discardBatch() {
+        isBatching = false;
+        BATCH_RECORDS.clear();
+    }
+
     /**
      * Saves the current task list to the data file.
      * <p>
      * The data directory is created if it does not already exist.
      * Each task is written on a new line using its
      * {@link Task#toFileString()} representation.
+     * Any journal is discarded since the data file is now up to date.
      *
      * @param tasks the task list to be saved
      */
-    public static void save(TaskList tasks) {
+    public static synchronized void save(TaskList tasks) {
+        if (isBatching) {
+            isBatchFullSave = true;
+            return;
+        }
+
+        MappedTaskStore store = mappedStore;
+        if (store != null) {
+            store.force();
+            return;
+        }
+
+        WriteBehindSaver current = saver;
+        if (current != null) {
+            current.requestSave(tasks.freeze());
+            return;
+        }
+
         try {
-            File dir = new File("data");
-            if (!dir.exists()) {
-                dir.mkdir();
-            }
+            JOURNAL.checkpoint(tasks);
+        } catch (IOException e) {
+            System.out.println("Could not save tasks.");
+        }
+    }
 
-            FileWriter fw = new FileWriter(FILE_PATH);
-            for (int i = 0; i < tasks.getSize(); i++) {
-                Task t = tasks.getTask(i);
-                fw.write(t.toFileString() + "\n");
+    /**
+     * Persists a task that was just appended to the task list.
+     *
+     * @param tasks the task list after the addition
+     * @param task  the added task
+     */
+    public static void saveAdd(TaskList tasks, Task task) {
+        persist(tasks, () -> Journal.addRecord(task));
+    }
+
+    /**
+     * Persists a task that was just marked as done.
+     * <p>
+     * Journal records give tasks by index, which only journal mode looks up.
+     *
+     * @param tasks the task list after the change
+     * @param task  the marked task
+     */
+    public static void saveMark(TaskList tasks, Task task) {
+        persist(tasks, () -> Journal.markRecord(tasks.indexOfId(task.getId())));
+    }
+
+    /**
+     * Persists a task that was just marked as not done.
+     * <p>
+     * Journal records give tasks by index, which only journal mode looks up.
+     *
+     * @param tasks the task list after the change
+     * @param task  the unmarked task
+     */
+    public static void saveUnmark(TaskList tasks, Task task) {
+        persist(tasks, () -> Journal.unmarkRecord(tasks.indexOfId(task.getId())));
+    }
+
+    /**
+     * Persists the deletion of a task.
+     *
+     * @param tasks the task list after the deletion
+     * @param idx   0-based index the deleted task had
+     */
+    public static void saveDelete(TaskList tasks, int idx) {
+        persist(tasks, () -> Journal.deleteRecord(idx));
+    }
+
+    /**
+     * Persists a single mutation, as a journal record in journal mode or as a full save otherwise.
+     *
+     * @param tasks  the task list after the mutation
+     * @param record makes the journal record describing the mutation, if one is needed
+     */
+    private static synchronized void persist(TaskList tasks, Supplier<String> record) {
+        if (!IS_JOURNAL_ENABLED || mappedStore != null) {
+            save(tasks);
+        } else if (isBatching) {
+            BATCH_RECORDS.add(record.get());
+        } else {
+            appendRecords(tasks, List.of(record.get()));
+        }
+    }
+
+    /**
+     * Appends journal records, falling back to a full save if the journal cannot be written.
+     *
+     * @param tasks   the task list after the mutations
+     * @param records the records describing the mutations, in order
+     */
+    private static void appendRecords(TaskList tasks, List<String> records) {
+        WriteBehindSaver current = saver;
+        if (current != null) {
+            for (String record : records) {
+                current.append(record);
             }
-            fw.close();
+            return;
+        }
+
+        try {
+            JOURNAL.append(records);
         } catch (IOException e) {
-            System.out.println("Could not save tasks.");
+            save(tasks);
         }
     }
 
     /**
      * Loads tasks from the data file into a TaskList.
      * <p>
-     * If the data file does not exist, an empty TaskList is returned.
+     * If the data file does not exist, an empty TaskList is returned. If a crash
+     * left only the previous version of the data file behind, that version is loaded.
      * <p>
      * If a line in the file is corrupted or cannot be parsed,
      * it is skipped and loading continues for remaining lines.
+     * Journal records are replayed on top of the data file.
      *
      * @return a TaskList containing all successfully loaded tasks
      */
     public static TaskList load() {
-        TaskList list = new TaskList();
-        File file = new File(FILE_PATH);
+        return load(list -> { });
+    }
 
-        if (!file.exists()) {
-            return list;
+    /**
+     * Loads tasks like {@link #load()}, handing out the list before it is filled so that
+     * another thread can watch it grow.
+     *
+     * @param onStart called with the list before any task is read into it; called again
+     *                with a new list if the memory-mapped store cannot be opened
+     * @return a TaskList containing all successfully loaded tasks
+     */
+    public static TaskList load(Consumer<TaskList> onStart) {
+        if (IS_MAPPED) {
+            try {
+                return loadMapped(onStart);
+            } catch (IOException | UncheckedIOException e) {
+                System.out.println(e.getMessage());
+                System.out.println("Could not open the task store, loading the data file instead.");
+            }
         }
 
+        TaskList list = IS_COLUMNAR ? TaskList.columnar() : new TaskList();
+        onStart.accept(list);
+
         try {
-            Scanner sc = new Scanner(file);
-            TaskParser parser = new TaskParser();
-            while (sc.hasNextLine()) {
-                Task t = parser.parse(sc.nextLine());
-                if (t != null) {
-                    list.addTask(t);
-                }
+            Path file = Paths.get(FILE_PATH);
+            if (AtomicFile.recover(file)) {
+                System.out.println("Data file was missing, restored the previous version.");
+            }
+            JOURNAL.recover();
+            if (Files.exists(file)) {
+                isBinaryFormat = BinarySnapshot.isBinary(file);
             }
-            sc.close();
+            readSnapshot(file, list);
+            JOURNAL.replay(list);
         } catch (Exception e) {
             System.out.println(e.getMessage());
             System.out.println("Could not load tasks.");
         }
         return list;
     }
+
+    /**
+     * Opens the memory-mapped store and returns a list over it. A new store is filled
+     * from the data file and its journal, which {@link #close()} brings up to date again.
+     *
+     * @param onStart called with the list before the store is filled
+     * @return a TaskList backed by the store
+     * @throws IOException if the store could not be opened or filled
+     */
+    private static TaskList loadMapped(Consumer<TaskList> onStart) throws IOException {
+        Path path = Paths.get(MAPPED_PATH);
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        boolean isNew = !Files.exists(path) && !Files.exists(AtomicFile.backupOf(path));
+
+        MappedTaskStore store = MappedTaskStore.open(path);
+        TaskList list = store.toTaskList();
+        onStart.accept(list);
+        Path file = Paths.get(FILE_PATH);
+        if (isNew) {
+            AtomicFile.recover(file);
+            JOURNAL.recover();
+            readSnapshot(file, list);
+            JOURNAL.replay(list);
+            store.force();
+        }
+        if (Files.exists(file)) {
+            isBinaryFormat = BinarySnapshot.isBinary(file);
+        }
+        mappedStore = store;
+        mappedTasks = list;
+        return list;
+    }
+
+    /**
+     * Reads every task stored in a snapshot file into the given list.
+     * <p>
+     * The format is detected from the file's magic bytes. Corrupted lines or
+     * records are reported and skipped.
+     *
+     * @param path  the snapshot file
+     * @param tasks the list to add the tasks to
+     * @throws IOException if the file could not be read
+     */
+    static void readSnapshot(Path path, TaskList tasks) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        if (BinarySnapshot.isBinary(path)) {
+            BinarySnapshot.read(path, tasks);
+        } else {
+            new MappedTaskLoader(LOAD_THREADS).load(path, tasks);
+        }
+    }
+
+    /**
+     * Writes every task in the given list to a snapshot file in the current format.
+     *
+     * @param path  the snapshot file
+     * @param tasks the tasks to write
+     * @throws IOException if the file could not be written
+     */
+    static void writeSnapshot(Path path, TaskList tasks) throws IOException {
+        if (isBinaryFormat) {
+            BinarySnapshot.write(path, tasks);
+        } else {
+            writeTextSnapshot(path, tasks);
+        }
+    }
+
+    /**
+     * Writes every task in the given list to a text snapshot file, one per line.
+     * <p>
+     * The file is replaced atomically, see {@link AtomicFile}.
+     *
+     * @param path  the snapshot file
+     * @param tasks the tasks to write
+     * @throws IOException if the file could not be written
+     */
+    static void writeTextSnapshot(Path path, TaskList tasks) throws IOException {
+        AtomicFile.write(path, channel -> {
+            ChannelOutput out = new ChannelOutput(channel);
+            for (Task task : tasks) {
+                out.write(task.toFileString().getBytes(StandardCharsets.UTF_8));
+                out.reserve(1).put((byte) '\n');
+            }
+            out.flush();
+        });
+    }
 }
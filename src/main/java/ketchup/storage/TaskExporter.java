@@ -0,0 +1,50 @@
+package ketchup.storage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import ketchup.tasks.Task;
+import ketchup.tasks.TaskList;
+
+/**
+ * Exports tasks to a text, CSV or JSON-lines file (see {@link TransferFormat}).
+ * <p>
+ * Tasks are formatted one at a time into a fixed-size buffer, so exporting a list
+ * takes no memory beyond the list itself. The file is replaced atomically, see
+ * {@link AtomicFile}.
+ */
+public final class TaskExporter {
+
+    private TaskExporter() {
+    }
+
+    /**
+     * Writes every task in the list to the given file, in order.
+     *
+     * @param file  the file to write, whose extension selects the format
+     * @param tasks the tasks to export
+     * @return the number of exported tasks
+     * @throws IOException if the file could not be written
+     */
+    public static int exportFile(Path file, TaskList tasks) throws IOException {
+        TransferFormat format = TransferFormat.of(file);
+
+        AtomicFile.write(file, channel -> {
+            ChannelOutput out = new ChannelOutput(channel);
+            if (format == TransferFormat.CSV) {
+                writeLine(out, TransferFormat.CSV_HEADER);
+            }
+            for (Task task : tasks) {
+                writeLine(out, format.format(task));
+            }
+            out.flush();
+        });
+        return tasks.getSize();
+    }
+
+    private static void writeLine(ChannelOutput out, String line) throws IOException {
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.reserve(1).put((byte) '\n');
+    }
+}
@@ -0,0 +1,251 @@
+package ketchup.storage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ketchup.parser.ParseResult;
+import ketchup.parser.TaskParser;
+import ketchup.tasks.Task;
+import ketchup.tasks.TaskList;
+
+/**
+ * Imports tasks from a text, CSV or JSON-lines file (see {@link TransferFormat}).
+ * <p>
+ * The file is read as a stream of lines on the calling thread and cut into chunks,
+ * which a pool of workers parse in parallel. Parsed chunks are appended to the task
+ * list in file order, also on the calling thread. At most {@link #MAX_CHUNKS_PER_THREAD}
+ * chunks per worker are in flight at once, so memory use does not depend on the size of
+ * the file.
+ */
+public final class TaskImporter {
+
+    /** Number of lines parsed together by one worker. */
+    private static final int CHUNK_LINES = 4096;
+
+    /** Number of chunks per worker that may be read but not yet appended. */
+    private static final int MAX_CHUNKS_PER_THREAD = 2;
+
+    /** The list tasks are appended to. */
+    private final TaskList tasks;
+
+    /** Number of tasks appended so far. */
+    private int imported;
+
+    /** Number of lines rejected so far. */
+    private int rejected;
+
+    /** Line number and reason of the first rejected line, or null. */
+    private String firstRejection;
+
+    private TaskImporter(TaskList tasks) {
+        this.tasks = tasks;
+    }
+
+    /**
+     * Outcome of an import.
+     */
+    public static final class Report {
+
+        private final int imported;
+
+        private final int rejected;
+
+        private final String firstRejection;
+
+        private final long nanos;
+
+        private Report(int imported, int rejected, String firstRejection, long nanos) {
+            this.imported = imported;
+            this.rejected = rejected;
+            this.firstRejection = firstRejection;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Returns the number of tasks added to the list.
+         *
+         * @return number of imported tasks
+         */
+        public int getImported() {
+            return this.imported;
+        }
+
+        /**
+         * Returns the number of lines that could not be turned into a task.
+         *
+         * @return number of rejected lines
+         */
+        public int getRejected() {
+            return this.rejected;
+        }
+
+        /**
+         * Returns the line number and reason of the first rejected line.
+         *
+         * @return a description of the first rejection, or null if no line was rejected
+         */
+        public String getFirstRejection() {
+            return this.firstRejection;
+        }
+
+        /**
+         * Returns how long the import took.
+         *
+         * @return elapsed time in milliseconds
+         */
+        public long getMillis() {
+            return this.nanos / 1_000_000;
+        }
+
+        /**
+         * Returns the number of lines handled per second.
+         *
+         * @return import throughput
+         */
+        public long getLinesPerSecond() {
+            return (this.imported + this.rejected) * 1_000_000_000L / Math.max(1, this.nanos);
+        }
+    }
+
+    /**
+     * A run of consecutive lines and, once parsed, their tasks.
+     */
+    private static final class Chunk {
+
+        private final List<String> lines = new ArrayList<>(CHUNK_LINES);
+
+        private final int firstLineNumber;
+
+        private final TransferFormat format;
+
+        private final List<Task> tasks = new ArrayList<>(CHUNK_LINES);
+
+        private int rejected;
+
+        private String firstRejection;
+
+        private Chunk(int firstLineNumber, TransferFormat format) {
+            this.firstLineNumber = firstLineNumber;
+            this.format = format;
+        }
+
+        private Chunk parse() {
+            TaskParser parser = new TaskParser();
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                if (format.isSkipped(line)) {
+                    continue;
+                }
+
+                int lineNumber = firstLineNumber + i;
+                String taskLine = format.toTaskLine(line);
+                ParseResult result = taskLine == null ? null : parser.parse(taskLine, lineNumber);
+                if (result != null && result.isSuccess()) {
+                    tasks.add(result.getTask());
+                } else if (rejected++ == 0) {
+                    String reason = result == null ? "Malformed record" : result.getMessage();
+                    firstRejection = "line " + lineNumber + ": " + reason;
+                }
+            }
+            lines.clear();
+            return this;
+        }
+    }
+
+    /**
+     * Reads every task in the given file and appends them to the list, in file order.
+     * <p>
+     * Nothing is saved; callers persist the list once the import is done.
+     *
+     * @param file  the file to import, whose extension selects the format
+     * @param tasks the list to add the tasks to
+     * @return what was imported and rejected
+     * @throws IOException if the file could not be read
+     */
+    public static Report importFile(Path file, TaskList tasks) throws IOException {
+        long start = System.nanoTime();
+        TaskImporter importer = new TaskImporter(tasks);
+        importer.run(file, TransferFormat.of(file));
+        return new Report(importer.imported, importer.rejected, importer.firstRejection, System.nanoTime() - start);
+    }
+
+    private void run(Path file, TransferFormat format) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, daemonThreads());
+        Queue<Future<Chunk>> inFlight = new ArrayDeque<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            int lineNumber = 0;
+            Chunk chunk = new Chunk(1, format);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                chunk.lines.add(line);
+                if (chunk.lines.size() == CHUNK_LINES) {
+                    inFlight.add(pool.submit(chunk::parse));
+                    chunk = new Chunk(lineNumber + 1, format);
+                    if (inFlight.size() >= threads * MAX_CHUNKS_PER_THREAD) {
+                        append(inFlight.remove());
+                    }
+                }
+            }
+            if (!chunk.lines.isEmpty()) {
+                inFlight.add(pool.submit(chunk::parse));
+            }
+            while (!inFlight.isEmpty()) {
+                append(inFlight.remove());
+            }
+        } finally {
+            for (Future<Chunk> pending : inFlight) {
+                pending.cancel(true);
+            }
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits for a parsed chunk and appends its tasks.
+     */
+    private void append(Future<Chunk> pending) throws IOException {
+        Chunk chunk;
+        try {
+            chunk = pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Import failed", e.getCause());
+        }
+
+        for (Task task : chunk.tasks) {
+            this.tasks.addTask(task);
+        }
+        this.imported += chunk.tasks.size();
+        this.rejected += chunk.rejected;
+        if (this.firstRejection == null) {
+            this.firstRejection = chunk.firstRejection;
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "ketchup-import-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,361 @@
+package ketchup.storage;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import ketchup.tasks.DateTimeCodec;
+import ketchup.tasks.Deadline;
+import ketchup.tasks.Event;
+import ketchup.tasks.Task;
+
+/**
+ * File formats that tasks can be imported from and exported to, chosen by file extension.
+ * <p>
+ * Every format is read by turning each record into the data file's line format and
+ * handing that to {@link ketchup.parser.TaskParser}, so all formats share one set of
+ * validation rules. CSV and JSON-lines records use the fields {@code type} (T, D or E),
+ * {@code done}, {@code description}, {@code by}, {@code from} and {@code to}, with
+ * date-times as {@code yyyy-MM-dd HHmm}.
+ */
+enum TransferFormat {
+
+    /** The data file's own {@code T | 0 | description} lines. */
+    TEXT,
+
+    /** Comma-separated values with a header row, quoted as in RFC 4180. */
+    CSV,
+
+    /** One flat JSON object per line. */
+    JSON_LINES;
+
+    /** Header row of CSV files. */
+    static final String CSV_HEADER = "type,done,description,by,from,to";
+
+    private static final String[] FIELDS = {"type", "done", "description", "by", "from", "to"};
+
+    /**
+     * Returns the format for a file, based on its extension. Files without a known
+     * extension are read as text.
+     *
+     * @param path the file
+     * @return the file's format
+     */
+    static TransferFormat of(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return JSON_LINES;
+        }
+        return TEXT;
+    }
+
+    /**
+     * Returns whether a line holds no task, such as a blank line or the CSV header.
+     *
+     * @param line a line of the file
+     * @return true if the line should be skipped without counting it as rejected
+     */
+    boolean isSkipped(String line) {
+        return line.isBlank() || (this == CSV && line.trim().equalsIgnoreCase(CSV_HEADER));
+    }
+
+    /**
+     * Converts a record to the data file's line format.
+     *
+     * @param line a line of the file
+     * @return the equivalent task line, or null if the record is malformed or cannot be
+     *         stored (a description containing {@code |})
+     */
+    String toTaskLine(String line) {
+        if (this == TEXT) {
+            return line;
+        }
+
+        Map<String, String> fields = this == CSV ? readCsv(line) : readJson(line);
+        if (fields == null) {
+            return null;
+        }
+
+        String type = fields.getOrDefault("type", "").trim().toUpperCase(Locale.ROOT);
+        String done = fields.getOrDefault("done", "0").trim();
+        String desc = fields.getOrDefault("description", "").trim();
+        if (desc.indexOf('|') >= 0) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder(type).append(" | ")
+                .append(done.equals("1") || done.equalsIgnoreCase("true") ? '1' : '0')
+                .append(" | ").append(desc);
+        if (type.equals("D")) {
+            sb.append(" | ").append(fields.getOrDefault("by", ""));
+        } else if (type.equals("E")) {
+            sb.append(" | ").append(fields.getOrDefault("from", ""))
+                    .append(" | ").append(fields.getOrDefault("to", ""));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Formats a task as a record of this format, without the line break.
+     *
+     * @param task the task
+     * @return the record
+     */
+    String format(Task task) {
+        if (this == TEXT) {
+            return task.toFileString();
+        }
+
+        String[] values = new String[FIELDS.length];
+        values[1] = task.isDone() ? "1" : "0";
+        values[2] = task.getDesc();
+        if (task instanceof Deadline) {
+            values[0] = "D";
+            values[3] = DateTimeCodec.format(((Deadline) task).getDeadline());
+        } else if (task instanceof Event) {
+            values[0] = "E";
+            values[4] = DateTimeCodec.format(((Event) task).getStart());
+            values[5] = DateTimeCodec.format(((Event) task).getEnd());
+        } else {
+            values[0] = "T";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        if (this == CSV) {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                appendCsv(sb, values[i]);
+            }
+            return sb.toString();
+        }
+
+        sb.append('{');
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                continue;
+            }
+            if (sb.length() > 1) {
+                sb.append(',');
+            }
+            appendJson(sb.append('"').append(FIELDS[i]).append("\":"), values[i]);
+        }
+        return sb.append('}').toString();
+    }
+
+    /* ================= CSV ================= */
+
+    private static Map<String, String> readCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        int i = 0;
+        while (true) {
+            value.setLength(0);
+            if (i < line.length() && line.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i >= line.length()) {
+                        return null;
+                    }
+                    char c = line.charAt(i++);
+                    if (c != '"') {
+                        value.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        value.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                if (i < line.length() && line.charAt(i) != ',') {
+                    return null;
+                }
+            } else {
+                while (i < line.length() && line.charAt(i) != ',') {
+                    value.append(line.charAt(i++));
+                }
+            }
+            values.add(value.toString());
+            if (i >= line.length()) {
+                break;
+            }
+            i++;
+        }
+
+        if (values.size() > FIELDS.length) {
+            return null;
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int j = 0; j < values.size(); j++) {
+            fields.put(FIELDS[j], values.get(j));
+        }
+        return fields;
+    }
+
+    private static void appendCsv(StringBuilder sb, String value) {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            sb.append(value);
+            return;
+        }
+        sb.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    /* ================= JSON ================= */
+
+    /**
+     * Reads a flat JSON object of string, boolean, number and null values.
+     *
+     * @return the values by key, or null if the line is not such an object
+     */
+    private static Map<String, String> readJson(String line) {
+        JsonCursor in = new JsonCursor(line);
+        Map<String, String> fields = new HashMap<>();
+        if (!in.consume('{')) {
+            return null;
+        }
+        if (in.consume('}')) {
+            return in.isAtEnd() ? fields : null;
+        }
+
+        do {
+            String key = in.readString();
+            if (key == null || !in.consume(':')) {
+                return null;
+            }
+            String value = in.peek() == '"' ? in.readString() : in.readLiteral();
+            if (value == null) {
+                return null;
+            }
+            fields.put(key, value);
+        } while (in.consume(','));
+
+        return in.consume('}') && in.isAtEnd() ? fields : null;
+    }
+
+    private static void appendJson(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < ' ') {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Position in a line of JSON, skipping whitespace between tokens.
+     */
+    private static final class JsonCursor {
+
+        private final String text;
+
+        private int pos;
+
+        private JsonCursor(String text) {
+            this.text = text;
+        }
+
+        private char peek() {
+            skipSpace();
+            return pos < text.length() ? text.charAt(pos) : 0;
+        }
+
+        private boolean consume(char c) {
+            if (peek() != c) {
+                return false;
+            }
+            pos++;
+            return true;
+        }
+
+        private boolean isAtEnd() {
+            skipSpace();
+            return pos == text.length();
+        }
+
+        private String readString() {
+            if (!consume('"')) {
+                return null;
+            }
+            StringBuilder sb = new StringBuilder();
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) {
+                    return null;
+                }
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    if (pos + 4 > text.length()) {
+                        return null;
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    sb.append(escaped);
+                    break;
+                }
+            }
+            return null;
+        }
+
+        /** Reads {@code true}, {@code false}, {@code null} or a number as its text. */
+        private String readLiteral() {
+            skipSpace();
+            int start = pos;
+            while (pos < text.length() && text.charAt(pos) != ',' && text.charAt(pos) != '}'
+                    && text.charAt(pos) > ' ') {
+                pos++;
+            }
+            return pos > start ? text.substring(start, pos) : null;
+        }
+
+        private void skipSpace() {
+            while (pos < text.length() && text.charAt(pos) <= ' ') {
+                pos++;
+            }
+        }
+    }
+}
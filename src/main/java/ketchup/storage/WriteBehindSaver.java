@@ -0,0 +1,188 @@
+package ketchup.storage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import ketchup.tasks.TaskList;
+
+/**
+ * Persists task changes on a single background writer thread.
+ * <p>
+ * Requests that arrive within a short window are merged into one flush: only the
+ * latest full snapshot is written, and journal records queued after it are appended
+ * with a single write. Callers return as soon as their request is queued.
+ * <p>
+ * {@link #flush()} blocks until every queued change is on disk, and {@link #close()}
+ * flushes and stops the writer. Requests made after closing are written immediately
+ * on the caller's thread. Writes never overlap, and each writes what was queued before
+ * it, so changes reach the journal in the order they were requested.
+ */
+public class WriteBehindSaver {
+
+    /** Journal that snapshots and records are written through. */
+    private final Journal journal;
+
+    /** How long to wait for more requests before flushing. */
+    private final long delayMillis;
+
+    /** The single background writer. */
+    private final ScheduledThreadPoolExecutor writer = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread t = new Thread(r, "ketchup-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Guards the pending state below. */
+    private final Object lock = new Object();
+
+    /** Held while taking and writing queued changes, so that writes run one at a time and in order. */
+    private final Object writeLock = new Object();
+
+    /** Latest full snapshot waiting to be written, or null. */
+    private TaskList pendingSnapshot;
+
+    /** Journal records waiting to be appended after {@link #pendingSnapshot}. */
+    private List<String> pendingRecords = new ArrayList<>();
+
+    /** Whether a flush is already scheduled on the writer. */
+    private boolean isScheduled;
+
+    /** Whether {@link #close()} has been called. */
+    private boolean isClosed;
+
+    /**
+     * Creates a saver that writes through the given journal.
+     *
+     * @param journal     the journal used to write snapshots and records
+     * @param delayMillis how long to wait for more requests before flushing
+     */
+    public WriteBehindSaver(Journal journal, long delayMillis) {
+        this.journal = journal;
+        this.delayMillis = delayMillis;
+        this.writer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Queues a full snapshot. Any snapshot or records queued before it are superseded.
+     *
+     * @param snapshot a frozen version of the task list (see {@link TaskList#freeze()})
+     */
+    public void requestSave(TaskList snapshot) {
+        boolean isWriteNow;
+        synchronized (lock) {
+            pendingSnapshot = snapshot;
+            pendingRecords.clear();
+            isWriteNow = schedule();
+        }
+        if (isWriteNow) {
+            writePending();
+        }
+    }
+
+    /**
+     * Queues a journal record to be appended after any queued snapshot.
+     *
+     * @param record the journal record
+     */
+    public void append(String record) {
+        boolean isWriteNow;
+        synchronized (lock) {
+            pendingRecords.add(record);
+            isWriteNow = schedule();
+        }
+        if (isWriteNow) {
+            writePending();
+        }
+    }
+
+    /**
+     * Blocks until every change queued so far has been written.
+     */
+    public void flush() {
+        synchronized (lock) {
+            if (isClosed) {
+                return;
+            }
+        }
+
+        try {
+            writer.submit(this::writePending).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("Could not save tasks.");
+        }
+    }
+
+    /**
+     * Writes every queued change and stops the background writer. Changes requested
+     * meanwhile are written either by the writer or on the caller's thread, never both.
+     */
+    public void close() {
+        synchronized (lock) {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+        }
+
+        writer.shutdown();
+        try {
+            while (!writer.awaitTermination(1, TimeUnit.SECONDS)) {
+                // A flush that is writing a large snapshot finishes first.
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writePending();
+    }
+
+    /**
+     * Makes sure a flush will run. Must be called while holding {@link #lock}.
+     *
+     * @return true if the saver is closed and the caller must write the change itself
+     */
+    private boolean schedule() {
+        if (isClosed) {
+            return true;
+        }
+        if (!isScheduled) {
+            isScheduled = true;
+            writer.schedule(this::writePending, delayMillis, TimeUnit.MILLISECONDS);
+        }
+        return false;
+    }
+
+    /**
+     * Takes everything that is queued and writes it.
+     */
+    private void writePending() {
+        synchronized (writeLock) {
+            TaskList snapshot;
+            List<String> records;
+
+            synchronized (lock) {
+                snapshot = pendingSnapshot;
+                records = pendingRecords;
+                pendingSnapshot = null;
+                pendingRecords = new ArrayList<>();
+                isScheduled = false;
+            }
+
+            try {
+                if (snapshot != null) {
+                    journal.checkpoint(snapshot);
+                }
+                if (!records.isEmpty()) {
+                    journal.append(records);
+                }
+            } catch (IOException e) {
+                System.out.println("Could not save tasks.");
+            }
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package ketchup.tasks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * {@link TaskStore} that keeps each task field in its own primitive array instead of
+ * keeping task objects.
+ * <p>
+ * A stored task costs one state byte for its type and done status, two epoch-minute
+ * longs, an id and a description end offset, plus its description bytes in a shared
+ * UTF-8 arena: about 30 bytes and the text, where a {@link Deadline} object graph with its
+ * {@link java.time.LocalDateTime} and {@link String} takes around 140. {@link #get(int)}
+ * decodes a fresh task object each time, so callers that keep or change a task work on
+ * a short-lived view (see {@link TaskList#columnar()}).
+ * <p>
+ * Freed slots leave their description bytes in the arena until the store is compacted.
+ * <p>
+ * Only the state of a slot changes once it is filled; every other column is written
+ * once, when its slot is added, past the end of any frozen store. So {@link #freeze()}
+ * shares every column in O(1), and only the states are kept in copy-on-write pages, as
+ * the slots of an {@link ObjectTaskStore} are: freeing or marking a task after a freeze
+ * copies the directory and that task's page.
+ */
+final class ColumnarTaskStore implements TaskStore {
+
+    private static final byte FREE = 0;
+    private static final byte PLAIN = 1;
+    private static final byte TODO = 2;
+    private static final byte DEADLINE = 3;
+    private static final byte EVENT = 4;
+
+    /** Bits of a state that give the task type. */
+    private static final int TYPE_MASK = 0x7F;
+
+    /** Bit of a state that is set if the task is done. */
+    private static final int DONE = 0x80;
+
+    private static final int PAGE_BITS = 10;
+
+    /** Number of states per page. */
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    /** Smallest page allocated. */
+    private static final int MIN_PAGE_SIZE = 16;
+
+    /**
+     * Pages of the state of each slot: its task type, {@link #FREE} for freed slots,
+     * plus the {@link #DONE} bit. Unused trailing pages are null.
+     */
+    private byte[][] statePages;
+
+    /** Generation each state page was made or last copied in; null for a frozen store. */
+    private int[] pageGenerations;
+
+    /** Current generation; state pages from earlier generations are shared with a frozen store. */
+    private int generation;
+
+    /** Whether the state directory itself is shared with a frozen store. */
+    private boolean isDirectoryShared;
+
+    /** Due minute of a deadline or start minute of an event, by slot. */
+    private long[] firstMinutes;
+
+    /** End minute of an event, by slot. */
+    private long[] endMinutes;
+
+    /** Task id of each slot. */
+    private int[] ids;
+
+    /** End offset of each slot's description in the arena; it starts where the previous slot's ends. */
+    private int[] descEnds;
+
+    /** UTF-8 descriptions of all slots, back to back. */
+    private byte[] arena;
+
+    /** Number of arena bytes in use. */
+    private int arenaSize;
+
+    /**
+     * Creates an empty store.
+     */
+    ColumnarTaskStore() {
+        this(16, 256);
+    }
+
+    private ColumnarTaskStore(int capacity, int arenaCapacity) {
+        this.statePages = new byte[1][];
+        this.pageGenerations = new int[1];
+        this.firstMinutes = new long[capacity];
+        this.endMinutes = new long[capacity];
+        this.ids = new int[capacity];
+        this.descEnds = new int[capacity];
+        this.arena = new byte[arenaCapacity];
+    }
+
+    /**
+     * Creates a read-only store over the columns of another.
+     */
+    private ColumnarTaskStore(ColumnarTaskStore source) {
+        this.statePages = source.statePages;
+        this.isDirectoryShared = true;
+        this.firstMinutes = source.firstMinutes;
+        this.endMinutes = source.endMinutes;
+        this.ids = source.ids;
+        this.descEnds = source.descEnds;
+        this.arena = source.arena;
+        this.arenaSize = source.arenaSize;
+    }
+
+    @Override
+    public void add(int slot, Task task) {
+        if (slot == this.ids.length) {
+            grow(slot * 2);
+        }
+
+        byte type;
+        if (task instanceof Deadline) {
+            type = DEADLINE;
+            this.firstMinutes[slot] = DateTimeCodec.toEpochMinute(((Deadline) task).getDeadline());
+        } else if (task instanceof Event) {
+            type = EVENT;
+            this.firstMinutes[slot] = DateTimeCodec.toEpochMinute(((Event) task).getStart());
+            this.endMinutes[slot] = DateTimeCodec.toEpochMinute(((Event) task).getEnd());
+        } else {
+            type = task instanceof ToDo ? TODO : PLAIN;
+        }
+        setState(slot, type | (task.isDone() ? DONE : 0));
+        this.ids[slot] = task.getId();
+
+        byte[] desc = task.getDesc().getBytes(StandardCharsets.UTF_8);
+        appendDesc(slot, desc, 0, desc.length);
+    }
+
+    @Override
+    public Task get(int slot) {
+        int state = stateAt(slot);
+        Task task;
+        switch (state & TYPE_MASK) {
+        case FREE:
+            return null;
+        case DEADLINE:
+            task = new Deadline(descAt(slot), DateTimeCodec.fromEpochMinute(this.firstMinutes[slot]));
+            break;
+        case EVENT:
+            task = new Event(descAt(slot), DateTimeCodec.fromEpochMinute(this.firstMinutes[slot]),
+                    DateTimeCodec.fromEpochMinute(this.endMinutes[slot]));
+            break;
+        case TODO:
+            task = new ToDo(descAt(slot));
+            break;
+        default:
+            task = new Task(descAt(slot));
+            break;
+        }
+
+        if ((state & DONE) != 0) {
+            task.markDone();
+        }
+        return task;
+    }
+
+    @Override
+    public void free(int slot) {
+        setState(slot, FREE);
+    }
+
+    @Override
+    public boolean isUsed(int slot) {
+        return (stateAt(slot) & TYPE_MASK) != FREE;
+    }
+
+    @Override
+    public int idAt(int slot) {
+        return this.ids[slot];
+    }
+
+    @Override
+    public String descAt(int slot) {
+        int start = descStart(slot);
+        return new String(this.arena, start, this.descEnds[slot] - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * An ASCII description is matched in place in the arena. Other descriptions are
+     * decoded, since lower-casing a non-ASCII character may give ASCII ones.
+     */
+    @Override
+    public boolean descContains(int slot, String text) {
+        int start = descStart(slot);
+        int end = this.descEnds[slot];
+        for (int i = start; i < end; i++) {
+            if (this.arena[i] < 0) {
+                return TaskStore.super.descContains(slot, text);
+            }
+        }
+
+        int length = text.length();
+        for (int at = start; at + length <= end; at++) {
+            int i = 0;
+            while (i < length && toLowerCase(this.arena[at + i]) == text.charAt(i)) {
+                i++;
+            }
+            if (i == length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int toLowerCase(byte ascii) {
+        return ascii >= 'A' && ascii <= 'Z' ? ascii + ('a' - 'A') : ascii;
+    }
+
+    @Override
+    public boolean hasViews() {
+        return true;
+    }
+
+    @Override
+    public void setDone(int slot, boolean isDone) {
+        setState(slot, (stateAt(slot) & TYPE_MASK) | (isDone ? DONE : 0));
+    }
+
+    @Override
+    public TaskStore compact(int slotCount, int size) {
+        ColumnarTaskStore copy = new ColumnarTaskStore(Math.max(16, size * 2), Math.max(256, this.arenaSize));
+        int count = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (!isUsed(slot)) {
+                continue;
+            }
+            copy.setState(count, stateAt(slot));
+            copy.firstMinutes[count] = this.firstMinutes[slot];
+            copy.endMinutes[count] = this.endMinutes[slot];
+            copy.ids[count] = this.ids[slot];
+            int start = descStart(slot);
+            copy.appendDesc(count, this.arena, start, this.descEnds[slot] - start);
+            count++;
+        }
+        return copy;
+    }
+
+    @Override
+    public TaskStore freeze() {
+        assert this.pageGenerations != null : "A frozen store cannot be frozen again";
+        this.generation++;
+        this.isDirectoryShared = true;
+        return new ColumnarTaskStore(this);
+    }
+
+    private int stateAt(int slot) {
+        return this.statePages[slot >>> PAGE_BITS][slot & PAGE_MASK];
+    }
+
+    private void setState(int slot, int state) {
+        writablePage(slot)[slot & PAGE_MASK] = (byte) state;
+    }
+
+    /**
+     * Returns the state page of a slot, ready to be written: the page and the directory
+     * are copied first if they are shared, and the page is added or grown if it does not
+     * reach the slot yet.
+     */
+    private byte[] writablePage(int slot) {
+        int page = slot >>> PAGE_BITS;
+        assert this.pageGenerations != null : "A frozen store is read-only";
+        if (page >= this.statePages.length) {
+            int length = Math.max(page + 1, this.statePages.length * 2);
+            this.statePages = Arrays.copyOf(this.statePages, length);
+            this.pageGenerations = Arrays.copyOf(this.pageGenerations, length);
+            this.isDirectoryShared = false;
+        } else if (this.isDirectoryShared) {
+            this.statePages = this.statePages.clone();
+            this.isDirectoryShared = false;
+        }
+
+        byte[] states = this.statePages[page];
+        int offset = slot & PAGE_MASK;
+        if (states == null || offset >= states.length) {
+            int length = states == null ? MIN_PAGE_SIZE : states.length * 2;
+            length = Math.min(PAGE_SIZE, Math.max(offset + 1, length));
+            states = states == null ? new byte[length] : Arrays.copyOf(states, length);
+        } else if (this.pageGenerations[page] != this.generation) {
+            states = states.clone();
+        } else {
+            return states;
+        }
+        this.statePages[page] = states;
+        this.pageGenerations[page] = this.generation;
+        return states;
+    }
+
+    private int descStart(int slot) {
+        return slot == 0 ? 0 : this.descEnds[slot - 1];
+    }
+
+    private void appendDesc(int slot, byte[] bytes, int offset, int length) {
+        if (this.arenaSize + length > this.arena.length) {
+            this.arena = Arrays.copyOf(this.arena, Math.max(this.arenaSize + length, this.arena.length * 2));
+        }
+        System.arraycopy(bytes, offset, this.arena, this.arenaSize, length);
+        this.arenaSize += length;
+        this.descEnds[slot] = this.arenaSize;
+    }
+
+    private void grow(int capacity) {
+        this.firstMinutes = Arrays.copyOf(this.firstMinutes, capacity);
+        this.endMinutes = Arrays.copyOf(this.endMinutes, capacity);
+        this.ids = Arrays.copyOf(this.ids, capacity);
+        this.descEnds = Arrays.copyOf(this.descEnds, capacity);
+    }
+}
@@ -0,0 +1,279 @@
+package ketchup.tasks;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Fast parser and formatter for the fixed 15-character {@code yyyy-MM-dd HHmm} layout.
+ * <p>
+ * Common values are read and written digit by digit, without the intermediate
+ * objects {@link DateTimeFormatter} allocates on every call. Anything outside the
+ * fast path (invalid text, day-of-month clamping, {@code 2400}, years outside
+ * {@code 1-9999}) is delegated to {@link Task#getDateFormat()}, so results and
+ * {@link DateTimeParseException} messages are exactly the same as before.
+ */
+public final class DateTimeCodec {
+
+    /** Length of a date-time in {@code yyyy-MM-dd HHmm} form. */
+    public static final int LENGTH = 15;
+
+    /** Value returned by {@link #parseEpochMinute(CharSequence)} for text that cannot be parsed. */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    private DateTimeCodec() {
+    }
+
+    /**
+     * Parses a date-time in {@code yyyy-MM-dd HHmm} form.
+     *
+     * @param text the text to parse
+     * @return the parsed date-time
+     * @throws DateTimeParseException if the text cannot be parsed, with the same
+     *                                message as {@link Task#getDateFormat()} would give
+     */
+    public static LocalDateTime parse(CharSequence text) {
+        long packed = parseFields(text);
+
+        if (packed < 0) {
+            return LocalDateTime.parse(text, Task.getDateFormat());
+        }
+
+        return LocalDateTime.of(year(packed), month(packed), day(packed), hour(packed), minute(packed));
+    }
+
+    /**
+     * Parses a date-time in {@code yyyy-MM-dd HHmm} form without throwing.
+     *
+     * @param text the text to parse
+     * @return the parsed date-time, or null if the text cannot be parsed
+     */
+    public static LocalDateTime parseOrNull(CharSequence text) {
+        long packed = parseFields(text);
+
+        if (packed >= 0) {
+            return LocalDateTime.of(year(packed), month(packed), day(packed), hour(packed), minute(packed));
+        }
+
+        if (!hasLayout(text)) {
+            return null;
+        }
+
+        try {
+            return LocalDateTime.parse(text, Task.getDateFormat());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses a date-time in {@code yyyy-MM-dd HHmm} form into minutes since the epoch
+     * (1970-01-01 0000), without creating a {@link LocalDateTime}.
+     *
+     * @param text the text to parse
+     * @return the epoch-minute, or {@link #INVALID} if the text cannot be parsed
+     */
+    public static long parseEpochMinute(CharSequence text) {
+        long packed = parseFields(text);
+
+        if (packed < 0) {
+            LocalDateTime slow = parseOrNull(text);
+            return slow == null ? INVALID : toEpochMinute(slow);
+        }
+
+        long days = epochDay(year(packed), month(packed), day(packed));
+        return days * 24 * 60 + hour(packed) * 60 + minute(packed);
+    }
+
+    /**
+     * Returns the number of minutes between the epoch (1970-01-01 0000) and the given date-time.
+     *
+     * @param dateTime the date-time to convert
+     * @return the epoch-minute
+     */
+    public static long toEpochMinute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * Returns the date-time that is the given number of minutes after the epoch.
+     *
+     * @param epochMinute minutes since 1970-01-01 0000
+     * @return the corresponding date-time
+     */
+    public static LocalDateTime fromEpochMinute(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Formats a date-time in {@code yyyy-MM-dd HHmm} form.
+     *
+     * @param dateTime the date-time to format
+     * @return the formatted text
+     */
+    public static String format(LocalDateTime dateTime) {
+        StringBuilder sb = new StringBuilder(LENGTH);
+        formatTo(dateTime, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Appends a date-time in {@code yyyy-MM-dd HHmm} form to a builder.
+     *
+     * @param dateTime the date-time to format
+     * @param sb       the builder to append to
+     */
+    public static void formatTo(LocalDateTime dateTime, StringBuilder sb) {
+        int year = dateTime.getYear();
+
+        if (year < 1 || year > 9999) {
+            Task.getDateFormat().formatTo(dateTime, sb);
+            return;
+        }
+
+        appendDigits(sb, year, 4);
+        sb.append('-');
+        appendDigits(sb, dateTime.getMonthValue(), 2);
+        sb.append('-');
+        appendDigits(sb, dateTime.getDayOfMonth(), 2);
+        sb.append(' ');
+        appendDigits(sb, dateTime.getHour(), 2);
+        appendDigits(sb, dateTime.getMinute(), 2);
+    }
+
+    /**
+     * Writes a date-time in {@code yyyy-MM-dd HHmm} form as ASCII bytes at the buffer's position.
+     *
+     * @param dateTime the date-time to format
+     * @param buffer   the buffer to write to
+     */
+    public static void formatTo(LocalDateTime dateTime, ByteBuffer buffer) {
+        int year = dateTime.getYear();
+
+        if (year < 1 || year > 9999) {
+            buffer.put(Task.getDateFormat().format(dateTime).getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+
+        putDigits(buffer, year, 4);
+        buffer.put((byte) '-');
+        putDigits(buffer, dateTime.getMonthValue(), 2);
+        buffer.put((byte) '-');
+        putDigits(buffer, dateTime.getDayOfMonth(), 2);
+        buffer.put((byte) ' ');
+        putDigits(buffer, dateTime.getHour(), 2);
+        putDigits(buffer, dateTime.getMinute(), 2);
+    }
+
+    /* ================= FAST PATH ================= */
+
+    /**
+     * Reads the fields of an unambiguous date-time.
+     *
+     * @return the fields packed as {@code yyyyMMddHHmm} in decimal, or -1 if the
+     *         text needs the full formatter (or is invalid)
+     */
+    private static long parseFields(CharSequence text) {
+        if (!hasLayout(text)) {
+            return -1;
+        }
+
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 13, 2);
+
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+                || hour > 23 || minute > 59) {
+            return -1;
+        }
+
+        return (((year * 100L + month) * 100 + day) * 100 + hour) * 100 + minute;
+    }
+
+    /**
+     * Returns whether the text has the exact {@code dddd-dd-dd dddd} shape.
+     * Text of any other shape is always rejected by the formatter.
+     */
+    private static boolean hasLayout(CharSequence text) {
+        if (text == null || text.length() != LENGTH) {
+            return false;
+        }
+
+        for (int i = 0; i < LENGTH; i++) {
+            char c = text.charAt(i);
+            boolean isSeparator = i == 4 || i == 7 || i == 10;
+            if (isSeparator) {
+                if (c != (i == 10 ? ' ' : '-')) {
+                    return false;
+                }
+            } else if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int digits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        boolean isLeap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        return month == 2 && isLeap ? 29 : DAYS_IN_MONTH[month - 1];
+    }
+
+    /**
+     * Returns days since 1970-01-01 for a valid proleptic Gregorian date.
+     */
+    private static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    private static int year(long packed) {
+        return (int) (packed / 100_000_000L);
+    }
+
+    private static int month(long packed) {
+        return (int) (packed / 1_000_000L % 100);
+    }
+
+    private static int day(long packed) {
+        return (int) (packed / 10_000L % 100);
+    }
+
+    private static int hour(long packed) {
+        return (int) (packed / 100L % 100);
+    }
+
+    private static int minute(long packed) {
+        return (int) (packed % 100);
+    }
+
+    private static void appendDigits(StringBuilder sb, int value, int count) {
+        for (int divisor = count == 4 ? 1000 : 10; divisor > 0; divisor /= 10) {
+            sb.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    private static void putDigits(ByteBuffer buffer, int value, int count) {
+        for (int divisor = count == 4 ? 1000 : 10; divisor > 0; divisor /= 10) {
+            buffer.put((byte) ('0' + value / divisor % 10));
+        }
+    }
+}
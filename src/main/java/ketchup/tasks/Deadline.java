@@ -8,7 +8,7 @@ import java.time.LocalDateTime;
 public class Deadline extends Task {
 
     /** Date-time by which the task must be completed. */
-    private LocalDateTime deadline;
+    private final LocalDateTime deadline;
 
     /**
      * Creates a deadline task with the given description and deadline.
@@ -45,8 +45,11 @@ public class Deadline extends Task {
      */
     @Override
     public String toFileString() {
-        return "D | " + (this.isDone() ? "1" : "0") + " | " + this.getDesc() + " | "
-                + this.deadline.format(Task.getDateFormat());
+        StringBuilder sb = new StringBuilder("D | ")
+                .append(this.isDone() ? "1" : "0").append(" | ")
+                .append(this.getDesc()).append(" | ");
+        DateTimeCodec.formatTo(this.deadline, sb);
+        return sb.toString();
     }
 
     /**
@@ -56,7 +59,8 @@ public class Deadline extends Task {
      */
     @Override
     public String toString() {
-        return "[D]" + super.toString()
-                + " (by: " + this.deadline.format(Task.getDateFormat()) + ")";
+        StringBuilder sb = new StringBuilder("[D]").append(super.toString()).append(" (by: ");
+        DateTimeCodec.formatTo(this.deadline, sb);
+        return sb.append(")").toString();
     }
 }
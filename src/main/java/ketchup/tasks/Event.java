@@ -9,10 +9,10 @@ import java.time.LocalDateTime;
 public class Event extends Task {
 
     /** Start date-time of the event. */
-    private LocalDateTime start;
+    private final LocalDateTime start;
 
     /** End date-time of the event. */
-    private LocalDateTime end;
+    private final LocalDateTime end;
 
     /**
      * Creates an event task with the given description, start time, and end time.
@@ -60,9 +60,13 @@ public class Event extends Task {
      */
     @Override
     public String toFileString() {
-        return "E | " + (this.isDone() ? "1" : "0") + " | " + this.getDesc() + " | "
-                + this.start.format(Task.getDateFormat()) + " | "
-                + this.end.format(Task.getDateFormat());
+        StringBuilder sb = new StringBuilder("E | ")
+                .append(this.isDone() ? "1" : "0").append(" | ")
+                .append(this.getDesc()).append(" | ");
+        DateTimeCodec.formatTo(this.start, sb);
+        sb.append(" | ");
+        DateTimeCodec.formatTo(this.end, sb);
+        return sb.toString();
     }
 
     /**
@@ -72,8 +76,10 @@ public class Event extends Task {
      */
     @Override
     public String toString() {
-        return "[E]" + super.toString() + " (from: "
-                + this.start.format(Task.getDateFormat())
-                + " to: " + this.end.format(Task.getDateFormat()) + ")";
+        StringBuilder sb = new StringBuilder("[E]").append(super.toString()).append(" (from: ");
+        DateTimeCodec.formatTo(this.start, sb);
+        sb.append(" to: ");
+        DateTimeCodec.formatTo(this.end, sb);
+        return sb.append(")").toString();
     }
 }
@@ -0,0 +1,163 @@
+package ketchup.tasks;
+
+import java.util.Arrays;
+
+/**
+ * {@link TaskStore} that keeps the task objects themselves. This is the default layout.
+ * <p>
+ * Slots are kept in pages of {@link #PAGE_SIZE}, reached through a directory, so that
+ * {@link #freeze()} can share them with a frozen store in O(1). The first change to
+ * a shared page after a freeze copies that page, and the first change of any kind
+ * copies the directory; everything else stays shared. The last page grows as it fills,
+ * so small lists, such as search results, stay small.
+ */
+final class ObjectTaskStore implements TaskStore {
+
+    private static final int PAGE_BITS = 10;
+
+    /** Number of slots per page. */
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    /** Smallest page allocated. */
+    private static final int MIN_PAGE_SIZE = 16;
+
+    /** Pages of tasks by slot, null for freed slots. Unused trailing pages are null. */
+    private Task[][] pages;
+
+    /** Generation each page was made or last copied in. */
+    private int[] pageGenerations;
+
+    /** Current generation; pages from earlier generations are shared with a frozen store. */
+    private int generation;
+
+    /** Whether the directory itself is shared with a frozen store. */
+    private boolean isDirectoryShared;
+
+    /**
+     * Creates an empty store.
+     */
+    ObjectTaskStore() {
+        this.pages = new Task[1][];
+        this.pageGenerations = new int[1];
+    }
+
+    /**
+     * Creates a store whose first slots hold the given tasks.
+     *
+     * @param tasks the tasks by slot, null for unused slots
+     */
+    ObjectTaskStore(Task[] tasks) {
+        int pageCount = Math.max(1, (tasks.length + PAGE_MASK) >>> PAGE_BITS);
+        this.pages = new Task[pageCount][];
+        this.pageGenerations = new int[pageCount];
+        for (int p = 0; p * PAGE_SIZE < tasks.length; p++) {
+            int length = Math.min(PAGE_SIZE, tasks.length - p * PAGE_SIZE);
+            this.pages[p] = Arrays.copyOfRange(tasks, p * PAGE_SIZE, p * PAGE_SIZE + Math.max(MIN_PAGE_SIZE, length));
+        }
+    }
+
+    /**
+     * Creates a read-only store over the pages of another.
+     */
+    private ObjectTaskStore(Task[][] pages) {
+        this.pages = pages;
+        this.isDirectoryShared = true;
+    }
+
+    @Override
+    public void add(int slot, Task task) {
+        writablePage(slot)[slot & PAGE_MASK] = task;
+    }
+
+    @Override
+    public Task get(int slot) {
+        return this.pages[slot >>> PAGE_BITS][slot & PAGE_MASK];
+    }
+
+    @Override
+    public void free(int slot) {
+        writablePage(slot)[slot & PAGE_MASK] = null;
+    }
+
+    @Override
+    public boolean isUsed(int slot) {
+        return get(slot) != null;
+    }
+
+    @Override
+    public int idAt(int slot) {
+        return get(slot).getId();
+    }
+
+    @Override
+    public String descAt(int slot) {
+        return get(slot).getDesc();
+    }
+
+    @Override
+    public boolean hasViews() {
+        return false;
+    }
+
+    @Override
+    public void setDone(int slot, boolean isDone) {
+        // The stored task is the one that changed.
+    }
+
+    @Override
+    public TaskStore compact(int slotCount, int size) {
+        Task[] live = new Task[size];
+        int count = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            Task task = get(slot);
+            if (task != null) {
+                live[count++] = task;
+            }
+        }
+        return new ObjectTaskStore(live);
+    }
+
+    @Override
+    public TaskStore freeze() {
+        assert this.pageGenerations != null : "A frozen store cannot be frozen again";
+        this.generation++;
+        this.isDirectoryShared = true;
+        return new ObjectTaskStore(this.pages);
+    }
+
+    /**
+     * Returns the page of a slot, ready to be written: the page and the directory are
+     * copied first if they are shared, and the page is added or grown if it does not
+     * reach the slot yet.
+     */
+    private Task[] writablePage(int slot) {
+        int page = slot >>> PAGE_BITS;
+        assert this.pageGenerations != null : "A frozen store is read-only";
+        if (page >= this.pages.length) {
+            int length = Math.max(page + 1, this.pages.length * 2);
+            this.pages = Arrays.copyOf(this.pages, length);
+            this.pageGenerations = Arrays.copyOf(this.pageGenerations, length);
+            this.isDirectoryShared = false;
+        } else if (this.isDirectoryShared) {
+            this.pages = this.pages.clone();
+            this.isDirectoryShared = false;
+        }
+
+        Task[] tasks = this.pages[page];
+        int offset = slot & PAGE_MASK;
+        if (tasks == null || offset >= tasks.length) {
+            int length = tasks == null ? MIN_PAGE_SIZE : tasks.length * 2;
+            length = Math.min(PAGE_SIZE, Math.max(offset + 1, length));
+            tasks = tasks == null ? new Task[length] : Arrays.copyOf(tasks, length);
+        } else if (this.pageGenerations[page] != this.generation) {
+            tasks = tasks.clone();
+        } else {
+            return tasks;
+        }
+        this.pages[page] = tasks;
+        this.pageGenerations[page] = this.generation;
+        return tasks;
+    }
+}
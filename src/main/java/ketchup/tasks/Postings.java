@@ -0,0 +1,65 @@
+package ketchup.tasks;
+
+import java.util.Arrays;
+
+/**
+ * Sorted, growable list of task slots backed by a primitive array.
+ * <p>
+ * Slots are only ever appended. A deleted task's slot stays in every list it is in
+ * until the index is rebuilt, and queries skip it (see {@link TrigramIndex}).
+ */
+final class Postings {
+
+    private int[] slots = new int[4];
+    private int size;
+
+    /**
+     * Appends a slot that is not smaller than any slot already in the list.
+     * A repeated slot, from a key that occurs twice in one description, is ignored.
+     *
+     * @param slot the task slot
+     */
+    void add(int slot) {
+        if (size > 0 && slots[size - 1] == slot) {
+            return;
+        }
+        if (size == slots.length) {
+            slots = Arrays.copyOf(slots, size * 2);
+        }
+        slots[size++] = slot;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(slots, size);
+    }
+
+    /**
+     * Returns the slots that are in both this list and the given sorted array.
+     *
+     * @param others sorted task slots
+     * @return sorted slots present in both
+     */
+    int[] intersect(int[] others) {
+        int[] result = new int[Math.min(size, others.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < size && j < others.length) {
+            if (slots[i] < others[j]) {
+                i++;
+            } else if (slots[i] > others[j]) {
+                j++;
+            } else {
+                result[count++] = slots[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
@@ -0,0 +1,221 @@
+package ketchup.tasks;
+
+import java.util.Arrays;
+
+/**
+ * Keeps track of which slots of an append-only array are still in use, so that the
+ * position of a slot among the used ones can be found without shifting elements.
+ * <p>
+ * Slots are handed out in increasing order and freed individually. A Fenwick tree over
+ * the slots counts the used ones, which makes freeing a slot and converting between
+ * slots and positions O(log n). While no slot has been freed, a position is its own
+ * slot and lookups are O(1).
+ * <p>
+ * The tree is kept in pages, like the slots of an {@link ObjectTaskStore}, so that
+ * {@link #freeze()} can share it with a frozen order in O(1). Freeing a slot afterwards
+ * copies the directory and the O(log n) pages it changes; appending copies at most the
+ * last page.
+ */
+final class SlotOrder {
+
+    private static final int PAGE_BITS = 10;
+
+    /** Number of tree entries per page. */
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    /** Smallest page allocated. */
+    private static final int MIN_PAGE_SIZE = 16;
+
+    /**
+     * Fenwick tree over the slots, 1-based, in pages: entry i counts used slots in
+     * (i - lowbit(i), i]. Unused trailing pages are null.
+     */
+    private int[][] pages;
+
+    /** Generation each page was made or last copied in; null for a frozen order. */
+    private int[] pageGenerations;
+
+    /** Current generation; pages from earlier generations are shared with a frozen order. */
+    private int generation;
+
+    /** Whether the directory itself is shared with a frozen order. */
+    private boolean isDirectoryShared;
+
+    /** Number of slots handed out. */
+    private int slotCount;
+
+    /** Number of slots still in use. */
+    private int size;
+
+    /**
+     * Creates an order with no slots.
+     */
+    SlotOrder() {
+        this(0);
+    }
+
+    /**
+     * Creates an order whose first {@code count} slots are all in use.
+     *
+     * @param count number of used slots
+     */
+    SlotOrder(int count) {
+        int pageCount = Math.max(1, (count + PAGE_SIZE) >>> PAGE_BITS);
+        pages = new int[pageCount][];
+        pageGenerations = new int[pageCount];
+        for (int i = 1; i <= count; i++) {
+            set(i, Integer.lowestOneBit(i));
+        }
+        slotCount = count;
+        size = count;
+    }
+
+    /**
+     * Creates a read-only order over the pages of another.
+     */
+    private SlotOrder(int[][] pages, int slotCount, int size) {
+        this.pages = pages;
+        this.slotCount = slotCount;
+        this.size = size;
+        this.isDirectoryShared = true;
+    }
+
+    /**
+     * Returns a read-only order that keeps the current slots while this one goes on
+     * changing. The two share the tree until this one changes a page of it.
+     *
+     * @return the frozen order
+     */
+    SlotOrder freeze() {
+        assert pageGenerations != null : "A frozen order cannot be frozen again";
+        generation++;
+        isDirectoryShared = true;
+        return new SlotOrder(pages, slotCount, size);
+    }
+
+    /**
+     * Returns the number of slots in use.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of slots handed out, used or freed.
+     */
+    int slotCount() {
+        return slotCount;
+    }
+
+    /**
+     * Hands out the next slot, after every slot handed out so far.
+     *
+     * @return the new slot
+     */
+    int append() {
+        int i = ++slotCount;
+        set(i, 1 + prefix(i - 1) - prefix(i - Integer.lowestOneBit(i)));
+        size++;
+        return i - 1;
+    }
+
+    /**
+     * Frees a slot that is in use.
+     *
+     * @param slot the slot to free
+     */
+    void remove(int slot) {
+        for (int i = slot + 1; i <= slotCount; i += Integer.lowestOneBit(i)) {
+            set(i, get(i) - 1);
+        }
+        size--;
+    }
+
+    /**
+     * Returns the slot of the used slot at the given position.
+     *
+     * @param position 0-based position among the used slots
+     * @return the slot
+     */
+    int slotAt(int position) {
+        if (size == slotCount) {
+            return position;
+        }
+
+        int slot = 0;
+        int remaining = position + 1;
+        for (int step = Integer.highestOneBit(slotCount); step > 0; step >>= 1) {
+            int next = slot + step;
+            if (next <= slotCount && get(next) < remaining) {
+                slot = next;
+                remaining -= get(next);
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the position of a used slot among the used slots.
+     *
+     * @param slot a slot in use
+     * @return its 0-based position
+     */
+    int positionOf(int slot) {
+        return size == slotCount ? slot : prefix(slot);
+    }
+
+    /**
+     * Returns the number of used slots among the first {@code count} slots.
+     */
+    private int prefix(int count) {
+        int sum = 0;
+        for (int i = count; i > 0; i -= Integer.lowestOneBit(i)) {
+            sum += get(i);
+        }
+        return sum;
+    }
+
+    private int get(int i) {
+        return pages[i >>> PAGE_BITS][i & PAGE_MASK];
+    }
+
+    private void set(int i, int count) {
+        writablePage(i)[i & PAGE_MASK] = count;
+    }
+
+    /**
+     * Returns the page of a tree entry, ready to be written: the page and the directory
+     * are copied first if they are shared, and the page is added or grown if it does not
+     * reach the entry yet.
+     */
+    private int[] writablePage(int i) {
+        int page = i >>> PAGE_BITS;
+        assert pageGenerations != null : "A frozen order is read-only";
+        if (page >= pages.length) {
+            int length = Math.max(page + 1, pages.length * 2);
+            pages = Arrays.copyOf(pages, length);
+            pageGenerations = Arrays.copyOf(pageGenerations, length);
+            isDirectoryShared = false;
+        } else if (isDirectoryShared) {
+            pages = pages.clone();
+            isDirectoryShared = false;
+        }
+
+        int[] counts = pages[page];
+        int offset = i & PAGE_MASK;
+        if (counts == null || offset >= counts.length) {
+            int length = counts == null ? MIN_PAGE_SIZE : counts.length * 2;
+            length = Math.min(PAGE_SIZE, Math.max(offset + 1, length));
+            counts = counts == null ? new int[length] : Arrays.copyOf(counts, length);
+        } else if (pageGenerations[page] != generation) {
+            counts = counts.clone();
+        } else {
+            return counts;
+        }
+        pages[page] = counts;
+        pageGenerations[page] = generation;
+        return counts;
+    }
+}
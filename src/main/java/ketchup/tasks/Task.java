@@ -12,11 +12,17 @@ public class Task {
     private static final DateTimeFormatter FORMAT =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
 
-    /** Indicates whether the task has been completed. */
-    private boolean isDone;
+    /** Indicates whether the task has been completed; volatile so that marks are seen by other threads. */
+    private volatile boolean isDone;
 
     /** Description of the task. */
-    private String desc;
+    private final String desc;
+
+    /** Stable id given by the first {@link TaskList} the task is added to, or 0 if none yet. */
+    private int id;
+
+    /** List this task is a view of, if that list stores its tasks as columns; done changes are written back to it. */
+    private TaskList owner;
 
     /**
      * Creates a task with the given description.
@@ -30,6 +36,8 @@ public class Task {
 
     /**
      * Returns the date-time formatter used by tasks.
+     * <p>
+     * Hot paths use {@link DateTimeCodec}, which produces the same text faster.
      *
      * @return task date-time formatter
      */
@@ -51,6 +59,9 @@ public class Task {
      */
     public void markDone() {
         this.isDone = true;
+        if (this.owner != null) {
+            this.owner.writeDone(this);
+        }
     }
 
     /**
@@ -58,6 +69,9 @@ public class Task {
      */
     public void markUndone() {
         this.isDone = false;
+        if (this.owner != null) {
+            this.owner.writeDone(this);
+        }
     }
 
     /**
@@ -69,6 +83,40 @@ public class Task {
         return this.desc;
     }
 
+    /**
+     * Returns the stable id of the task.
+     * <p>
+     * Ids are numbered from 1 by the task list and do not change when other
+     * tasks are deleted. They are not saved, so each load numbers the tasks again
+     * in list order; {@link TaskList#formatId(int)} tags the ids a list shows so that
+     * one from before a load is not taken for a current one.
+     *
+     * @return the task id, or 0 if the task has not been added to a list
+     */
+    public int getId() {
+        return this.id;
+    }
+
+    /**
+     * Sets the stable id of the task. Only called by {@link TaskList}.
+     *
+     * @param id the new id, greater than 0
+     */
+    void setId(int id) {
+        assert id > 0 : "Task id must be positive";
+        this.id = id;
+    }
+
+    /**
+     * Makes this task a view of a columnar list, so that marking it updates the list.
+     * Only called by {@link TaskList}.
+     *
+     * @param owner the list holding the task's fields
+     */
+    void setOwner(TaskList owner) {
+        this.owner = owner;
+    }
+
     /**
      * Returns a string representation of this task suitable for file storage.
      * <p>
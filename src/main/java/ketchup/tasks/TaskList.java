@@ -1,21 +1,152 @@
 package ketchup.tasks;
 
-import java.util.ArrayList;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
 
 /**
  * Represents a list of {@link Task} objects and provides basic operations
  * such as adding, deleting, retrieving, and searching tasks.
+ * <p>
+ * Tasks are kept in an append-only slot array. Deleting a task only frees its slot,
+ * and a {@link SlotOrder} maps positions to slots, so deleting from the middle is
+ * O(log n) instead of shifting every later task. Freed slots are squeezed out once
+ * they outnumber the tasks. Every task also gets a stable id (see {@link Task#getId()}),
+ * which is looked up in O(1).
+ * <p>
+ * The slots live in a {@link TaskStore}. A list made by {@link #columnar()} stores each
+ * task field in a primitive column instead of keeping task objects, for lists of
+ * millions of tasks.
+ * <p>
+ * A list may be read by many threads while one thread changes it. Every method takes
+ * a {@link ReentrantReadWriteLock}: changes hold the write lock, and reads share the
+ * read lock, so reads only ever wait for a change in memory, never for a save, which
+ * reads the list like any other reader. The lookups built on first use are built under
+ * the write lock. Marking a task is seen by other threads, but is not atomic with
+ * other reads. Iteration takes the lock for a batch of tasks at a time, so it sees a
+ * change made meanwhile or not, and fails fast if the slots were compacted under it.
+ * To walk a list that other threads are changing, walk a {@link #freeze() frozen} version.
  */
-public class TaskList {
+public class TaskList implements Iterable<Task> {
 
-    /** Internal list that stores tasks. */
-    private ArrayList<Task> taskList;
+    /** Number of freed slots that is always tolerated before compacting. */
+    private static final int MIN_FREE_SLOTS = 64;
+
+    /** Number of tasks an iterator fetches per hold of the read lock. */
+    private static final int ITERATOR_BATCH = 256;
+
+    /** Number of distinct id sessions, all three base-36 digits long. */
+    private static final int ID_SESSIONS = 36 * 36 * 36;
+
+    /** Session of the next new list, counted on from a random start so each run differs. */
+    private static final AtomicInteger NEXT_ID_SESSION = new AtomicInteger(
+            ThreadLocalRandom.current().nextInt(ID_SESSIONS));
+
+    /** Guards every field below. */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Count of compactions, which renumber slots under running iterators. */
+    private int layout;
+
+    /** Whether this list is a read-only version made by {@link #freeze()}. */
+    private final boolean isFrozen;
+
+    /** Tasks by slot. */
+    private TaskStore store;
+
+    /** Maps positions to slots. */
+    private SlotOrder order;
+
+    /**
+     * Slot of each task id plus one, or 0. Kept up to date by every change once built. Built
+     * with the list, except for frozen lists and search results, which build it on first use.
+     */
+    private int[] idSlots;
+
+    /** Id given to the next added task that does not have one yet. */
+    private int nextId = 1;
+
+    /**
+     * Tag written after every id this list shows, so that an id shown before the tasks
+     * were last loaded, and so numbered differently, is not taken for a current one.
+     */
+    private final String idSession;
+
+    /** Search index over the descriptions, built by the first search and kept up to date after that. */
+    private TrigramIndex index;
+
+    /** Date-time index over deadlines and events, built by the first time query and kept up to date after that. */
+    private TimeIndex timeIndex;
 
     /**
      * Creates an empty task list.
      */
     public TaskList() {
-        this.taskList = new ArrayList<>();
+        this(new ObjectTaskStore(), 0, 1, newIdSession());
+    }
+
+    /**
+     * Creates a task list whose store holds {@code count} tasks in its first slots.
+     */
+    private TaskList(TaskStore store, int count, int nextId, String idSession) {
+        this(store, new SlotOrder(count), nextId, idSession, false, true);
+    }
+
+    /**
+     * Creates a task list over a store, building the id lookup now if {@code isIdLookupBuilt}
+     * is set and on first use otherwise.
+     */
+    private TaskList(TaskStore store, SlotOrder order, int nextId, String idSession, boolean isFrozen,
+            boolean isIdLookupBuilt) {
+        this.store = store;
+        this.order = order;
+        this.nextId = nextId;
+        this.idSession = idSession;
+        this.isFrozen = isFrozen;
+        if (isIdLookupBuilt) {
+            buildIdSlots();
+        }
+    }
+
+    /**
+     * Creates an empty task list that stores its tasks as primitive columns.
+     * <p>
+     * Such a list takes a fraction of the memory of a regular one, at the cost of
+     * building a new task object on every {@link #getTask(int)} or iteration step.
+     * The returned tasks are views: marking one updates the list, but two calls for
+     * the same task return different objects. Date-times are kept to the minute.
+     * Copies of the list are columnar too.
+     *
+     * @return an empty columnar task list
+     */
+    public static TaskList columnar() {
+        return new TaskList(new ColumnarTaskStore(), 0, 1, newIdSession());
+    }
+
+    /**
+     * Creates a task list over a store that already holds tasks, such as one reopened
+     * from a file. Like with {@link #columnar()}, a store that hands out views makes
+     * the list return views.
+     *
+     * @param store  the store, whose first {@code size} slots must all be used
+     * @param size   number of tasks in the store
+     * @param nextId id to give the next added task, greater than every stored id
+     * @return a task list over the store
+     */
+    public static TaskList backedBy(TaskStore store, int size, int nextId) {
+        return new TaskList(store, size, nextId, newIdSession());
+    }
+
+    private static String newIdSession() {
+        int session = Math.floorMod(NEXT_ID_SESSION.getAndIncrement(), ID_SESSIONS);
+        return Integer.toString(ID_SESSIONS + session, 36).substring(1);
     }
 
     /**
@@ -24,16 +155,54 @@ public class TaskList {
      * @return size of the task list
      */
     public int getSize() {
-        return this.taskList.size();
+        lock.readLock().lock();
+        try {
+            return this.order.size();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
      * Adds a task to the list.
+     * <p>
+     * A task without an id is given the next free one. A task that already has an
+     * id, such as one taken from another list, keeps it.
      *
      * @param task Task to be added
      */
     public void addTask(Task task) {
-        this.taskList.add(task);
+        checkNotFrozen();
+        lock.writeLock().lock();
+        try {
+            append(task);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void append(Task task) {
+        if (task.getId() == 0) {
+            task.setId(this.nextId++);
+        } else {
+            this.nextId = Math.max(this.nextId, task.getId() + 1);
+        }
+
+        int slot = this.order.append();
+        this.store.add(slot, task);
+        if (this.store.hasViews()) {
+            task.setOwner(this);
+        }
+
+        if (this.idSlots != null) {
+            putIdSlot(task.getId(), slot);
+        }
+        if (this.index != null) {
+            this.index.add(slot, task.getDesc());
+        }
+        if (this.timeIndex != null) {
+            this.timeIndex.add(task);
+        }
     }
 
     /**
@@ -43,7 +212,13 @@ public class TaskList {
      * @return task at the specified index
      */
     public Task getTask(int idx) {
-        return this.taskList.get(idx);
+        lock.readLock().lock();
+        try {
+            Objects.checkIndex(idx, this.order.size());
+            return taskAt(this.order.slotAt(idx));
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -52,27 +227,508 @@ public class TaskList {
      * @param idx Index of the task to delete
      */
     public void deleteTask(int idx) {
-        this.taskList.remove(idx);
+        checkNotFrozen();
+        lock.writeLock().lock();
+        try {
+            remove(idx);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Deletes the task with the given id in O(log n), without looking up its index first.
+     *
+     * @param id Stable id of the task to delete
+     * @return the 0-based index the task had, or -1 if no task in the list has that id
+     */
+    public int deleteTaskById(int id) {
+        checkNotFrozen();
+        lock.writeLock().lock();
+        try {
+            if (this.idSlots == null) {
+                buildIdSlots();
+            }
+            int slot = slotOfId(id);
+            if (slot < 0) {
+                return -1;
+            }
+            int idx = this.order.positionOf(slot);
+            removeSlot(slot);
+            return idx;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(int idx) {
+        Objects.checkIndex(idx, this.order.size());
+        removeSlot(this.order.slotAt(idx));
+    }
+
+    private void removeSlot(int slot) {
+        Task removed = this.timeIndex != null ? taskAt(slot) : null;
+        int id = this.store.idAt(slot);
+
+        this.store.free(slot);
+        this.order.remove(slot);
+
+        if (this.idSlots != null && id < this.idSlots.length) {
+            this.idSlots[id] = 0;
+        }
+        if (this.timeIndex != null) {
+            this.timeIndex.remove(removed);
+        }
+
+        int freeSlots = this.order.slotCount() - this.order.size();
+        if (freeSlots > Math.max(MIN_FREE_SLOTS, this.order.size())) {
+            compact();
+        }
+    }
+
+    /**
+     * Returns the task with the given id in O(1).
+     *
+     * @param id Stable id of the task
+     * @return the task, or null if no task in the list has that id
+     */
+    public Task getTaskById(int id) {
+        readLockWith(() -> this.idSlots != null, this::buildIdSlots);
+        try {
+            int slot = slotOfId(id);
+            return slot < 0 ? null : taskAt(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the current index of the task with the given id in O(log n).
+     *
+     * @param id Stable id of the task
+     * @return the 0-based index of the task, or -1 if no task in the list has that id
+     */
+    public int indexOfId(int id) {
+        readLockWith(() -> this.idSlots != null, this::buildIdSlots);
+        try {
+            int slot = slotOfId(id);
+            return slot < 0 ? -1 : this.order.positionOf(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns an iterator over the tasks in order.
+     * <p>
+     * Walking the list this way is O(n) even after deletions, while calling
+     * {@link #getTask(int)} for every index is O(n log n). The iterator is weakly
+     * consistent: tasks added or deleted by other threads during the walk may or may
+     * not be seen, and a walk across a compaction throws
+     * {@link ConcurrentModificationException}.
+     *
+     * @return an iterator over the tasks
+     */
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<>() {
+            private final Task[] batch = new Task[ITERATOR_BATCH];
+            private int batchSize;
+            private int batchPos;
+            private int slot;
+            private int expectedLayout = -1;
+
+            @Override
+            public boolean hasNext() {
+                if (batchPos == batchSize) {
+                    fill();
+                }
+                return batchPos < batchSize;
+            }
+
+            @Override
+            public Task next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Task task = batch[batchPos];
+                batch[batchPos++] = null;
+                return task;
+            }
+
+            private void fill() {
+                lock.readLock().lock();
+                try {
+                    if (expectedLayout == -1) {
+                        expectedLayout = layout;
+                    } else if (expectedLayout != layout) {
+                        throw new ConcurrentModificationException("Task list compacted during iteration");
+                    }
+                    batchSize = 0;
+                    batchPos = 0;
+                    while (slot < order.slotCount() && batchSize < batch.length) {
+                        if (store.isUsed(slot)) {
+                            batch[batchSize++] = taskAt(slot);
+                        }
+                        slot++;
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns a shallow copy of this list that shares the same task objects.
+     * <p>
+     * Adding or deleting tasks in either list does not affect the other. The copy of
+     * a columnar list holds copies of the columns, so marking tasks of one does not
+     * affect the other either. A list over a file-backed store is copied into memory
+     * as a columnar list.
+     *
+     * @return a copy of this task list
+     */
+    public TaskList copy() {
+        lock.readLock().lock();
+        try {
+            int size = this.order.size();
+            if (!this.store.compactsInPlace()) {
+                return new TaskList(this.store.compact(this.order.slotCount(), size), size, this.nextId,
+                        this.idSession);
+            }
+
+            TaskList copy = new TaskList(new ColumnarTaskStore(), 0, this.nextId, this.idSession);
+            for (int slot = 0; slot < this.order.slotCount(); slot++) {
+                if (this.store.isUsed(slot)) {
+                    copy.append(taskAt(slot));
+                }
+            }
+            return copy;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a read-only version of this list as it is now, which later additions and
+     * deletions do not affect.
+     * <p>
+     * Freezing a regular or {@link #columnar()} list takes O(1): the frozen list shares
+     * the list's pages of task slots and of its {@link SlotOrder}, so it can look tasks
+     * up by position at once, and the list copies a page only when it next changes it,
+     * so a save or a long {@code list} can read a frozen list while commands go on
+     * changing this one, and memory stays close to a single copy. Task objects of a
+     * regular list are shared as with {@link #copy()}, so marking a task shows in both;
+     * marking a columnar view does not change the frozen list. Views handed out by a
+     * frozen columnar list are detached: marking one changes that object only, and
+     * neither list.
+     * <p>
+     * A list over a store that cannot freeze itself, such as a file-backed one, is
+     * frozen by copying it, in O(n).
+     * <p>
+     * Frozen lists take no part in this list's locking. Changing one throws
+     * {@link UnsupportedOperationException}; freezing one returns it.
+     *
+     * @return a frozen version of this list
+     */
+    public TaskList freeze() {
+        if (this.isFrozen) {
+            return this;
+        }
+
+        lock.writeLock().lock();
+        try {
+            TaskStore frozen = this.store.freeze();
+            if (frozen == null) {
+                TaskList copy = copy();
+                return new TaskList(copy.store, copy.order, copy.nextId, this.idSession, true, false);
+            }
+            return new TaskList(frozen, this.order.freeze(), this.nextId, this.idSession, true, false);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of the current contents that later changes to this list or its
+     * tasks do not affect, for {@link #restore(TaskList)}.
+     * <p>
+     * Unlike {@link #copy()}, this also copies the done status of every task. The
+     * snapshot is kept in columns, so it costs a fraction of the list's own memory.
+     *
+     * @return a columnar snapshot of this list
+     */
+    public TaskList snapshot() {
+        lock.readLock().lock();
+        try {
+            TaskList snapshot = new TaskList(new ColumnarTaskStore(), 0, this.nextId, this.idSession);
+            for (int slot = 0; slot < this.order.slotCount(); slot++) {
+                if (this.store.isUsed(slot)) {
+                    Task task = taskAt(slot);
+                    int copySlot = snapshot.order.append();
+                    snapshot.store.add(copySlot, task);
+                    snapshot.putIdSlot(task.getId(), copySlot);
+                }
+            }
+            return snapshot;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the contents of this list with those of a snapshot taken earlier, ids included.
+     * <p>
+     * Ids given out since the snapshot are not reused. The list keeps its kind of store.
+     * Task objects handed out before are no longer part of the list.
+     *
+     * @param snapshot a snapshot from {@link #snapshot()}
+     */
+    public void restore(TaskList snapshot) {
+        checkNotFrozen();
+        lock.writeLock().lock();
+        try {
+            replaceWith(snapshot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void replaceWith(TaskList snapshot) {
+        for (int slot = 0; slot < this.order.slotCount(); slot++) {
+            if (this.store.isUsed(slot)) {
+                this.store.free(slot);
+            }
+        }
+        this.store = this.store.compact(this.order.slotCount(), 0);
+        this.order = new SlotOrder();
+        this.index = null;
+        this.timeIndex = null;
+        this.layout++;
+        this.nextId = Math.max(this.nextId, snapshot.nextId);
+        this.idSlots = new int[this.nextId];
+
+        for (Task task : snapshot) {
+            task.setOwner(null);
+            append(task);
+        }
     }
 
     /**
      * Finds tasks whose descriptions contain the given keyword (case-insensitive).
+     * <p>
+     * The first search builds a {@link TrigramIndex} over the descriptions, which later
+     * additions and deletions keep up to date, so searches do not scan every task.
      *
      * @param keyword Keyword to search for
      * @return a new {@link TaskList} containing matching tasks
      */
     public TaskList findTask(String keyword) {
-        TaskList results = new TaskList();
-        String keywordLower = keyword.toLowerCase();
+        readLockWith(() -> this.index != null, () -> {
+            this.index = new TrigramIndex(this.store);
+            for (int slot = 0; slot < this.order.slotCount(); slot++) {
+                if (this.store.isUsed(slot)) {
+                    this.index.add(slot, this.store.descAt(slot));
+                }
+            }
+        });
+        try {
+            int[] matches = this.index.find(keyword);
+            Task[] results = new Task[Math.max(16, matches.length)];
+            for (int i = 0; i < matches.length; i++) {
+                results[i] = taskAt(matches[i]);
+            }
+            return resultList(results, matches.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds deadlines that are due within the given window, earliest first.
+     *
+     * @param from Start of the window, inclusive
+     * @param to   End of the window, inclusive
+     * @return a new {@link TaskList} containing matching deadlines
+     */
+    public TaskList findDue(LocalDateTime from, LocalDateTime to) {
+        readLockWithTimeIndex();
+        try {
+            return toTaskList(this.timeIndex.due(DateTimeCodec.toEpochMinute(from), DateTimeCodec.toEpochMinute(to)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds deadlines that are due within the given window and events that overlap it,
+     * ordered by due time or start time.
+     *
+     * @param from Start of the window, inclusive
+     * @param to   End of the window, inclusive
+     * @return a new {@link TaskList} containing matching tasks
+     */
+    public TaskList findBetween(LocalDateTime from, LocalDateTime to) {
+        readLockWithTimeIndex();
+        try {
+            return toTaskList(this.timeIndex.between(
+                    DateTimeCodec.toEpochMinute(from), DateTimeCodec.toEpochMinute(to)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Takes the read lock once the time index and the id lookup it answers through are built.
+     */
+    private void readLockWithTimeIndex() {
+        readLockWith(() -> this.timeIndex != null && this.idSlots != null, () -> {
+            if (this.timeIndex == null) {
+                this.timeIndex = new TimeIndex();
+                for (int slot = 0; slot < this.order.slotCount(); slot++) {
+                    if (this.store.isUsed(slot)) {
+                        this.timeIndex.add(taskAt(slot));
+                    }
+                }
+            }
+            if (this.idSlots == null) {
+                buildIdSlots();
+            }
+        });
+    }
+
+    /**
+     * Takes the read lock, first building a lookup if {@code isBuilt} says it is missing.
+     * <p>
+     * Building changes the list's fields, so it happens under the write lock, which is
+     * then downgraded. The caller must not already hold the read lock, since a read lock
+     * cannot be upgraded.
+     */
+    private void readLockWith(BooleanSupplier isBuilt, Runnable build) {
+        lock.readLock().lock();
+        if (isBuilt.getAsBoolean()) {
+            return;
+        }
+        assert lock.getReadHoldCount() == 1 || lock.isWriteLockedByCurrentThread()
+                : "Lookups cannot be built while already reading";
+        if (lock.isWriteLockedByCurrentThread()) {
+            build.run();
+            return;
+        }
+
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            if (!isBuilt.getAsBoolean()) {
+                build.run();
+            }
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private TaskList toTaskList(int[] ids) {
+        Task[] results = new Task[Math.max(16, ids.length)];
+        for (int i = 0; i < ids.length; i++) {
+            int slot = slotOfId(ids[i]);
+            results[i] = slot < 0 ? null : taskAt(slot);
+        }
+        return resultList(results, ids.length);
+    }
+
+    /**
+     * Returns a list of search results. Its id lookup is left to be built on first use,
+     * so that a query costs time in the number of results rather than the number of ids
+     * ever given out.
+     */
+    private TaskList resultList(Task[] results, int count) {
+        return new TaskList(new ObjectTaskStore(results), new SlotOrder(count), this.nextId, this.idSession,
+                false, false);
+    }
+
+    /**
+     * Returns the task in a used slot, giving columnar views their id and this list as
+     * owner. Views of a frozen list get no owner, so marking one changes only the view.
+     */
+    private Task taskAt(int slot) {
+        Task task = this.store.get(slot);
+        if (task != null && this.store.hasViews()) {
+            task.setId(this.store.idAt(slot));
+            task.setOwner(this.isFrozen ? null : this);
+        }
+        return task;
+    }
+
+    /**
+     * Writes the done status of a columnar view back to its slot. Does nothing if the
+     * task has been deleted since.
+     *
+     * @param task a view handed out by this list
+     */
+    void writeDone(Task task) {
+        checkNotFrozen();
+        lock.writeLock().lock();
+        try {
+            if (this.idSlots == null) {
+                buildIdSlots();
+            }
+            int slot = slotOfId(task.getId());
+            if (slot >= 0) {
+                this.store.setDone(slot, task.isDone());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
 
-        for (int i = 0; i < this.getSize(); i++) {
-            Task task = this.getTask(i);
-            if (task.getDesc().toLowerCase().contains(keywordLower)) {
-                results.addTask(task);
+    private void checkNotFrozen() {
+        if (this.isFrozen) {
+            throw new UnsupportedOperationException("A frozen task list cannot be changed");
+        }
+    }
+
+    private void buildIdSlots() {
+        this.idSlots = new int[this.nextId];
+        for (int slot = 0; slot < this.order.slotCount(); slot++) {
+            if (this.store.isUsed(slot)) {
+                putIdSlot(this.store.idAt(slot), slot);
             }
         }
+    }
+
+    /**
+     * Returns the slot of the task with the given id, or -1 if there is none.
+     * The id lookup must have been built.
+     */
+    private int slotOfId(int id) {
+        if (id <= 0 || id >= this.idSlots.length) {
+            return -1;
+        }
+        return this.idSlots[id] - 1;
+    }
+
+    private void putIdSlot(int id, int slot) {
+        if (id >= this.idSlots.length) {
+            this.idSlots = Arrays.copyOf(this.idSlots, Math.max(id + 1, this.idSlots.length * 2));
+        }
+        this.idSlots[id] = slot + 1;
+    }
 
-        return results;
+    /**
+     * Squeezes out freed slots. The id lookup, if built, is rebuilt at once; the search index is
+     * rebuilt the next time it is needed.
+     */
+    private void compact() {
+        int size = this.order.size();
+        this.store = this.store.compact(this.order.slotCount(), size);
+        this.order = new SlotOrder(size);
+        if (this.idSlots != null) {
+            buildIdSlots();
+        }
+        this.index = null;
+        this.layout++;
     }
 
     /**
@@ -82,19 +738,129 @@ public class TaskList {
      */
     @Override
     public String toString() {
-        if (this.taskList.isEmpty()) {
-            return "Oh yeah no tasks in your list!";
+        lock.readLock().lock();
+        try {
+            if (this.order.size() == 0) {
+                return "Oh yeah no tasks in your list!";
+            }
+            return formatRange(0, 0, this.order.size(), false);
+        } finally {
+            lock.readLock().unlock();
         }
+    }
 
+    /**
+     * Returns the lines of {@link #toString()} for a range of tasks, numbered by their
+     * position in the whole list. Only the tasks in the range are formatted, and the
+     * first of them is found in O(log n).
+     *
+     * @param from  the index of the first task
+     * @param count the most tasks to include; fewer are included at the end of the list
+     * @return the formatted tasks
+     * @throws IndexOutOfBoundsException if {@code from} is not the index of a task
+     */
+    public String toString(int from, int count) {
+        return toString(from, count, false);
+    }
+
+    /**
+     * Returns the lines of {@link #toString(int, int)}, optionally ending each with the
+     * task's id as given by {@link #formatId(int)}, such as {@code (#12.k7f)}. Ids are not
+     * saved and are given again in list order on every load, so each id is tagged with
+     * this list's session, and {@link #parseId(String)} turns away ids from another one.
+     *
+     * @param from     the index of the first task
+     * @param count    the most tasks to include; fewer are included at the end of the list
+     * @param showsIds true to add each task's id
+     * @return the formatted tasks
+     * @throws IndexOutOfBoundsException if {@code from} is not the index of a task
+     */
+    public String toString(int from, int count, boolean showsIds) {
+        lock.readLock().lock();
+        try {
+            Objects.checkIndex(from, this.order.size());
+            int end = (int) Math.min(this.order.size(), (long) from + count);
+            return formatRange(this.order.slotAt(from), from, end, showsIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Formats one line of a listing.
+     *
+     * @param number the 1-based position of the task
+     * @param task   the task
+     * @return the line, without a line break
+     */
+    public static String formatLine(int number, Task task) {
+        return appendLine(new StringBuilder(), number, task, null).toString();
+    }
+
+    /**
+     * Formats a task id as shown in listings, such as {@code #12.k7f}: the id followed by
+     * the session of this list. Lists loaded separately have different sessions, while
+     * copies, frozen versions and search results share the session of their list.
+     *
+     * @param id the task id
+     * @return the id as the user writes it
+     */
+    public String formatId(int id) {
+        return "#" + id + "." + this.idSession;
+    }
+
+    /**
+     * Parses an id written as by {@link #formatId(int)}.
+     *
+     * @param text the text to parse
+     * @return the id, 0 if the text does not start with {@code #}, or -1 if it is not a
+     *         valid id or is from another session, such as a listing from before a restart
+     */
+    public int parseId(String text) {
+        if (!text.startsWith("#")) {
+            return 0;
+        }
+
+        int dot = text.indexOf('.');
+        if (dot < 0 || !text.substring(dot + 1).equals(this.idSession)) {
+            return -1;
+        }
+        try {
+            int id = Integer.parseInt(text.substring(1, dot));
+            return id > 0 ? id : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Formats the tasks at positions {@code from} to {@code end - 1}, the first of which
+     * is at or after {@code slot}. Callers hold the read lock.
+     */
+    private String formatRange(int slot, int from, int end, boolean showsIds) {
         StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < this.taskList.size(); i++) {
-            if (i > 0) {
+        int number = from;
+        for (int s = slot; number < end; s++) {
+            if (!this.store.isUsed(s)) {
+                continue;
+            }
+            if (number > from) {
                 sb.append("\n");
             }
-            sb.append(i + 1)
-                    .append(". ")
-                    .append(this.taskList.get(i).toString());
+            appendLine(sb, ++number, taskAt(s), showsIds ? this : null);
         }
         return sb.toString();
     }
+
+    /**
+     * Appends one line of a listing, ending with the task's id as formatted by
+     * {@code ids} unless it is null.
+     */
+    private static StringBuilder appendLine(StringBuilder sb, int number, Task task, TaskList ids) {
+        sb.append(number).append(". ").append(task.toString());
+        if (ids != null) {
+            sb.append(" (").append(ids.formatId(task.getId())).append(")");
+        }
+        return sb;
+    }
 }
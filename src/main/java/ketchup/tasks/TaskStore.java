@@ -0,0 +1,133 @@
+package ketchup.tasks;
+
+import java.util.Locale;
+
+/**
+ * Slot-addressed storage behind a {@link TaskList}.
+ * <p>
+ * The list decides which slot each task goes to (see {@link SlotOrder}); a store only
+ * keeps what is in each slot. Slots are filled in increasing order and are never
+ * reused until the store is compacted.
+ * <p>
+ * The built-in stores are chosen through {@link TaskList#TaskList()} and
+ * {@link TaskList#columnar()}; other stores, such as ones kept outside the heap, are
+ * wrapped with {@link TaskList#backedBy(TaskStore, int, int)}.
+ */
+public interface TaskStore {
+
+    /**
+     * Stores a task in a new slot.
+     *
+     * @param slot the slot, equal to the number of slots filled so far
+     * @param task the task to store, which already has an id
+     */
+    void add(int slot, Task task);
+
+    /**
+     * Returns the task in a slot.
+     * <p>
+     * A view need not carry the task id; the list sets it.
+     *
+     * @param slot the slot
+     * @return the task, or null if the slot has been freed
+     */
+    Task get(int slot);
+
+    /**
+     * Frees a slot.
+     *
+     * @param slot a used slot
+     */
+    void free(int slot);
+
+    /**
+     * Returns whether a slot holds a task.
+     *
+     * @param slot the slot
+     * @return true if the slot is used
+     */
+    boolean isUsed(int slot);
+
+    /**
+     * Returns the id of the task in a used slot.
+     *
+     * @param slot a used slot
+     * @return the task id
+     */
+    int idAt(int slot);
+
+    /**
+     * Returns the description of the task in a used slot.
+     *
+     * @param slot a used slot
+     * @return the task description
+     */
+    String descAt(int slot);
+
+    /**
+     * Returns whether the description of the task in a used slot, lower-cased in
+     * {@link Locale#ROOT}, contains the given text. Stores that keep
+     * descriptions as bytes can check them without decoding them.
+     *
+     * @param slot a used slot
+     * @param text lower-case text to look for
+     * @return true if the description contains the text, ignoring case
+     */
+    default boolean descContains(int slot, String text) {
+        return descAt(slot).toLowerCase(Locale.ROOT).contains(text);
+    }
+
+    /**
+     * Returns whether {@link #get(int)} builds a new view of the slot on every call instead
+     * of returning the stored task. Changes to a view must then be written back with
+     * {@link #setDone(int, boolean)}.
+     *
+     * @return true if the store hands out views
+     */
+    boolean hasViews();
+
+    /**
+     * Records a change to the done status of the task in a used slot.
+     *
+     * @param slot   a used slot
+     * @param isDone the new status
+     */
+    void setDone(int slot, boolean isDone);
+
+    /**
+     * Returns a store of the same kind holding the used slots of the first
+     * {@code slotCount}, in order, in slots numbered from 0.
+     * <p>
+     * Unless {@link #compactsInPlace()}, the result is a new store and this one is
+     * left unchanged.
+     *
+     * @param slotCount number of slots filled so far
+     * @param size      number of used slots among them
+     * @return the compacted store
+     */
+    TaskStore compact(int slotCount, int size);
+
+    /**
+     * Returns whether {@link #compact(int, int)} rewrites this store and returns it,
+     * which is the case for stores backed by a single file. Copies of lists over such
+     * a store are kept in memory instead.
+     *
+     * @return true if compacting does not make a copy
+     */
+    default boolean compactsInPlace() {
+        return false;
+    }
+
+    /**
+     * Returns a read-only store that keeps the current contents of this one while this
+     * one goes on changing, if the store can make one without copying every slot.
+     * <p>
+     * Stores that return one share their data with it and copy parts of it only when
+     * they change them. Stored task objects themselves are shared, not copied.
+     *
+     * @return the frozen store, or null if this store cannot freeze cheaply
+     */
+    default TaskStore freeze() {
+        return null;
+    }
+}
@@ -0,0 +1,198 @@
+package ketchup.tasks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Sorted index of {@link Deadline} due times and {@link Event} start times, keyed by
+ * epoch-minute (see {@link DateTimeCodec#toEpochMinute}).
+ * <p>
+ * A range lookup is a logarithmic seek followed by a walk over the matching entries.
+ * Events that overlap a window can start before it, but never earlier than the window
+ * start minus the longest event ever indexed, so overlap queries seek to that point and
+ * drop the few events that ended before the window. The lengths of the indexed events
+ * are counted in a sorted map, so the longest is known exactly in O(log n) as events
+ * are added and removed, and one long event only widens the seek while it is indexed.
+ * <p>
+ * Entries hold task ids rather than tasks, so the index does not keep task objects
+ * alive for lists that store their tasks as columns.
+ */
+final class TimeIndex {
+
+    /** Deadlines by due time. */
+    private final NavigableMap<Long, List<Entry>> deadlines = new TreeMap<>();
+
+    /** Events by start time. */
+    private final NavigableMap<Long, List<Entry>> events = new TreeMap<>();
+
+    /** Number of indexed events of each length in minutes. */
+    private final NavigableMap<Long, Integer> eventLengths = new TreeMap<>();
+
+    /**
+     * Indexes a task. Tasks without a date-time are ignored.
+     *
+     * @param task the added task, which has an id
+     */
+    void add(Task task) {
+        if (task instanceof Deadline) {
+            long due = dueMinute(task);
+            deadlines.computeIfAbsent(due, k -> new ArrayList<>()).add(new Entry(task.getId(), due));
+        } else if (task instanceof Event) {
+            long start = startMinute(task);
+            long end = endMinute(task);
+            events.computeIfAbsent(start, k -> new ArrayList<>()).add(new Entry(task.getId(), end));
+            eventLengths.merge(end - start, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param task the deleted task
+     */
+    void remove(Task task) {
+        if (task instanceof Deadline) {
+            removeFrom(deadlines, dueMinute(task), task.getId());
+        } else if (task instanceof Event) {
+            long start = startMinute(task);
+            if (removeFrom(events, start, task.getId())) {
+                eventLengths.computeIfPresent(endMinute(task) - start,
+                        (length, count) -> count == 1 ? null : count - 1);
+            }
+        }
+    }
+
+    /**
+     * Returns the length of the longest indexed event.
+     *
+     * @return the length in minutes, or 0 if no event is indexed
+     */
+    long maxEventLength() {
+        return eventLengths.isEmpty() ? 0 : eventLengths.lastKey();
+    }
+
+    /**
+     * Returns the ids of the deadlines due within the given window, earliest first.
+     *
+     * @param from start of the window in epoch-minutes, inclusive
+     * @param to   end of the window in epoch-minutes, inclusive
+     * @return ids of the matching deadlines
+     */
+    int[] due(long from, long to) {
+        List<Entry> dueEntries = dueEntries(from, to);
+        int[] ids = new int[dueEntries.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = dueEntries.get(i).id;
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the ids of the deadlines due within the given window and the events that
+     * overlap it, ordered by due time or start time.
+     *
+     * @param from start of the window in epoch-minutes, inclusive
+     * @param to   end of the window in epoch-minutes, inclusive
+     * @return ids of the matching tasks
+     */
+    int[] between(long from, long to) {
+        if (from > to) {
+            return new int[0];
+        }
+
+        List<Entry> dueEntries = dueEntries(from, to);
+        int[] ids = new int[16];
+        int count = 0;
+        int next = 0;
+
+        NavigableMap<Long, List<Entry>> candidates = events.subMap(from - maxEventLength(), true, to, true);
+        for (Map.Entry<Long, List<Entry>> sameStart : candidates.entrySet()) {
+            for (Entry event : sameStart.getValue()) {
+                if (event.minute < from) {
+                    continue;
+                }
+                while (next < dueEntries.size() && dueEntries.get(next).minute < sameStart.getKey()) {
+                    ids = append(ids, count++, dueEntries.get(next++).id);
+                }
+                ids = append(ids, count++, event.id);
+            }
+        }
+        while (next < dueEntries.size()) {
+            ids = append(ids, count++, dueEntries.get(next++).id);
+        }
+
+        return Arrays.copyOf(ids, count);
+    }
+
+    private List<Entry> dueEntries(long from, long to) {
+        List<Entry> result = new ArrayList<>();
+        if (from <= to) {
+            for (List<Entry> sameMinute : deadlines.subMap(from, true, to, true).values()) {
+                result.addAll(sameMinute);
+            }
+        }
+        return result;
+    }
+
+    private static int[] append(int[] ids, int count, int id) {
+        int[] result = count == ids.length ? Arrays.copyOf(ids, count * 2) : ids;
+        result[count] = id;
+        return result;
+    }
+
+    /**
+     * Removes the entry with the given id under the given key.
+     *
+     * @return true if it was found
+     */
+    private static boolean removeFrom(NavigableMap<Long, List<Entry>> map, long key, int id) {
+        List<Entry> sameMinute = map.get(key);
+        if (sameMinute == null) {
+            return false;
+        }
+
+        boolean isFound = false;
+        for (int i = 0; i < sameMinute.size(); i++) {
+            if (sameMinute.get(i).id == id) {
+                sameMinute.remove(i);
+                isFound = true;
+                break;
+            }
+        }
+        if (sameMinute.isEmpty()) {
+            map.remove(key);
+        }
+        return isFound;
+    }
+
+    private static long dueMinute(Task task) {
+        return DateTimeCodec.toEpochMinute(((Deadline) task).getDeadline());
+    }
+
+    private static long startMinute(Task task) {
+        return DateTimeCodec.toEpochMinute(((Event) task).getStart());
+    }
+
+    private static long endMinute(Task task) {
+        return DateTimeCodec.toEpochMinute(((Event) task).getEnd());
+    }
+
+    /**
+     * Indexed task id with its due minute (deadlines) or end minute (events).
+     */
+    private static final class Entry {
+
+        private final int id;
+
+        private final long minute;
+
+        private Entry(int id, long minute) {
+            this.id = id;
+            this.minute = minute;
+        }
+    }
+}
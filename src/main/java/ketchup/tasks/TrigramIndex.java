@@ -0,0 +1,197 @@
+package ketchup.tasks;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * Substring index from every three-character sequence (trigram) of the lowercase task
+ * descriptions to the tasks that contain it.
+ * <p>
+ * A query of at least three characters can only occur in a description that contains
+ * every trigram of the query, so the candidates are the intersection of those posting
+ * lists, smallest first. Candidates are then checked against the description in the
+ * {@link TaskStore}, since the trigrams may appear in a different order. Results are
+ * exactly those of a {@link String#contains} scan over descriptions lower-cased in
+ * {@link Locale#ROOT}. The index keeps no descriptions of its own, so a columnar list
+ * keeps its memory savings.
+ * <p>
+ * Tasks are identified by their {@link TaskList} slot. Slots only ever increase, so
+ * they are in the same order as the tasks' positions and every posting list stays
+ * sorted by simply appending. Trigrams are packed into a {@code long} and kept in an
+ * open-addressing table, so neither keys nor slots are boxed.
+ * <p>
+ * Deleting a task leaves its slot in the posting list of each of its trigrams: the slot
+ * freed in the store is its tombstone, and queries skip freed slots. The list compacts
+ * its slots once they are mostly freed, which drops the index along with its
+ * tombstones, so posting lists stay within twice the live tasks.
+ */
+final class TrigramIndex {
+
+    /** Length of an indexed character sequence. Shorter queries cannot use the index. */
+    static final int GRAM_LENGTH = 3;
+
+    /** Store holding the indexed descriptions. */
+    private final TaskStore store;
+
+    /** Number of slots indexed so far, used or freed. */
+    private int slotCount;
+
+    /** Packed trigram of each used table entry. */
+    private long[] keys = new long[1024];
+
+    /** Posting list of each used table entry, or null for a free entry. */
+    private Postings[] values = new Postings[1024];
+
+    /** Number of used table entries. */
+    private int used;
+
+    /**
+     * Creates an empty index over the descriptions in a store.
+     *
+     * @param store the store whose slots are indexed
+     */
+    TrigramIndex(TaskStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Indexes a task stored in a new slot.
+     *
+     * @param slot the task's slot, greater than every slot indexed so far
+     * @param text the task's description
+     */
+    void add(int slot, String text) {
+        String desc = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i + GRAM_LENGTH <= desc.length(); i++) {
+            getOrCreate(pack(desc, i)).add(slot);
+        }
+        slotCount = slot + 1;
+    }
+
+    /**
+     * Returns the slots of the tasks whose descriptions contain the keyword, ignoring case.
+     * <p>
+     * Queries shorter than {@link #GRAM_LENGTH} are answered by scanning the descriptions
+     * in the store, which is faster than merging the many posting lists they would match.
+     *
+     * @param keyword the text to search for
+     * @return matching slots in ascending order
+     */
+    int[] find(String keyword) {
+        String query = keyword.toLowerCase(Locale.ROOT);
+        if (query.length() < GRAM_LENGTH) {
+            return scan(query);
+        }
+
+        int gramCount = query.length() - GRAM_LENGTH + 1;
+        Postings[] lists = new Postings[gramCount];
+        for (int i = 0; i < gramCount; i++) {
+            lists[i] = get(pack(query, i));
+            if (lists[i] == null || lists[i].size() == 0) {
+                return new int[0];
+            }
+        }
+
+        Arrays.sort(lists, Comparator.comparingInt(Postings::size));
+        int[] candidates = lists[0].toArray();
+        for (int i = 1; i < gramCount && candidates.length > 0; i++) {
+            candidates = lists[i].intersect(candidates);
+        }
+
+        return verify(candidates, query, gramCount > 1);
+    }
+
+    /**
+     * Keeps only the candidates whose slots are still used and, if {@code isChecked}, whose
+     * description contains the query.
+     *
+     * @param candidates sorted slots
+     * @param query      the lowercase query
+     * @param isChecked  false if every candidate is known to contain the query
+     * @return matching slots in ascending order
+     */
+    private int[] verify(int[] candidates, String query, boolean isChecked) {
+        int[] matches = new int[candidates.length];
+        int count = 0;
+        for (int slot : candidates) {
+            if (store.isUsed(slot) && (!isChecked || store.descContains(slot, query))) {
+                matches[count++] = slot;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Returns the slots of all tasks whose description contains the query, checking each one.
+     *
+     * @param query the lowercase query
+     * @return matching slots in ascending order
+     */
+    private int[] scan(String query) {
+        int[] matches = new int[slotCount];
+        int count = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (store.isUsed(slot) && store.descContains(slot, query)) {
+                matches[count++] = slot;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    private static long pack(String text, int start) {
+        return (long) text.charAt(start) << 32 | (long) text.charAt(start + 1) << 16 | text.charAt(start + 2);
+    }
+
+    private static int slot(long key, int mask) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    private Postings get(long key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    private Postings getOrCreate(long key) {
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+
+        Postings list = new Postings();
+        keys[i] = key;
+        values[i] = list;
+        if (++used * 2 > keys.length) {
+            grow();
+        }
+        return list;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Postings[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Postings[oldValues.length * 2];
+        int mask = keys.length - 1;
+
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] == null) {
+                continue;
+            }
+            int i = slot(oldKeys[j], mask);
+            while (values[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package ketchup.ui;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import ketchup.tasks.TaskList;
+
+/**
+ * The conversation shown in the GUI, kept to a bounded number of entries.
+ * <p>
+ * Entries are appended to a list supplied by the caller, which the GUI shows in a
+ * virtualized view. Once the list holds more than its limit, the oldest quarter of it
+ * is dropped in one step, so that a long session costs the same per message as a
+ * short one. Dropped entries are appended to a spill file as plain text if one is
+ * given, and are otherwise forgotten.
+ */
+public class Transcript {
+
+    /** The shown entries, oldest first. */
+    private final List<Entry> entries;
+
+    /** Most entries kept. */
+    private final int limit;
+
+    /** File that dropped entries are appended to, or null to forget them. */
+    private Path spillFile;
+
+    /**
+     * Creates a transcript that appends to the given list.
+     *
+     * @param entries   the list the entries are shown from, usually empty
+     * @param limit     the most entries kept, at least 4
+     * @param spillFile the file that dropped entries are appended to, or null to forget them
+     */
+    public Transcript(List<Entry> entries, int limit, Path spillFile) {
+        assert limit >= 4 : "Transcript limit must leave room to drop a quarter";
+        this.entries = entries;
+        this.limit = limit;
+        this.spillFile = spillFile;
+    }
+
+    /**
+     * Appends a message.
+     *
+     * @param text   the message
+     * @param isUser true if the user said it, false if Ketchup did
+     * @return the new entry
+     */
+    public Entry add(String text, boolean isUser) {
+        return append(new Entry(text, isUser, null));
+    }
+
+    /**
+     * Appends a reply from Ketchup that shows a task list.
+     *
+     * @param title   the text shown above the tasks
+     * @param listing the frozen list of tasks to show
+     * @return the new entry
+     */
+    public Entry addListing(String title, TaskList listing) {
+        return append(new Entry(title, false, listing));
+    }
+
+    /**
+     * Replaces a message with a reply, keeping its place in the conversation. This is how
+     * a placeholder shown while a command runs gives way to the command's reply.
+     *
+     * @param placeholder the message to replace
+     * @param text        the reply
+     * @param listing     the frozen list of tasks the reply shows, or null
+     * @return the new entry, which is appended instead if the placeholder has been dropped
+     */
+    public Entry replace(Entry placeholder, String text, TaskList listing) {
+        Entry entry = new Entry(text, false, listing);
+        int index = entries.lastIndexOf(placeholder);
+        if (index < 0) {
+            return append(entry);
+        }
+        entries.set(index, entry);
+        return entry;
+    }
+
+    /**
+     * Changes the text of a message in place, such as a progress report, without
+     * animating it in again.
+     *
+     * @param entry the message to change
+     * @param text  the new text
+     * @return the changed entry, or the given one if it has been dropped
+     */
+    public Entry update(Entry entry, String text) {
+        int index = entries.lastIndexOf(entry);
+        if (index < 0) {
+            return entry;
+        }
+        Entry updated = new Entry(text, entry.isUser(), entry.getListing());
+        updated.hasAppeared = entry.hasAppeared;
+        entries.set(index, updated);
+        return updated;
+    }
+
+    private Entry append(Entry entry) {
+        entries.add(entry);
+        if (entries.size() > limit) {
+            List<Entry> dropped = entries.subList(0, entries.size() - limit + limit / 4);
+            spill(dropped);
+            dropped.clear();
+        }
+        return entry;
+    }
+
+    /**
+     * Appends entries to the spill file. If the file cannot be written, later entries
+     * are forgotten instead of failing every message.
+     */
+    private void spill(List<Entry> dropped) {
+        if (spillFile == null) {
+            return;
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Entry entry : dropped) {
+                out.write(entry.isUser() ? "> " : "");
+                out.write(entry.getText());
+                out.newLine();
+            }
+        } catch (IOException e) {
+            spillFile = null;
+        }
+    }
+
+    /**
+     * One message of the conversation.
+     */
+    public static final class Entry {
+
+        private final String text;
+
+        private final boolean isUser;
+
+        private final TaskList listing;
+
+        /** Whether the entry has been on screen, so that it animates in only once. */
+        private boolean hasAppeared;
+
+        private Entry(String text, boolean isUser, TaskList listing) {
+            this.text = text;
+            this.isUser = isUser;
+            this.listing = listing;
+        }
+
+        /**
+         * Returns the message.
+         *
+         * @return the text of the message
+         */
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * Returns who said the message.
+         *
+         * @return true if the user said it, false if Ketchup did
+         */
+        public boolean isUser() {
+            return isUser;
+        }
+
+        /**
+         * Returns the tasks shown under the message.
+         *
+         * @return the frozen task list, or null if the message shows no tasks
+         */
+        public TaskList getListing() {
+            return listing;
+        }
+
+        /**
+         * Records that the entry is on screen.
+         *
+         * @return true the first time, false afterwards
+         */
+        public boolean appear() {
+            boolean isFirst = !hasAppeared;
+            hasAppeared = true;
+            return isFirst;
+        }
+    }
+}
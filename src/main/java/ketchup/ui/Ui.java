@@ -1,5 +1,6 @@
 package ketchup.ui;
 
+import ketchup.storage.TaskImporter;
 import ketchup.tasks.TaskList;
 
 /**
@@ -39,6 +40,36 @@ public class Ui {
         return "Bye. Hope to see you again soon!";
     }
 
+    /**
+     * Returns a progress message shown while the tasks are loading.
+     *
+     * @param count The number of tasks loaded so far
+     * @return A message saying how far loading has got
+     */
+    public String showLoading(int count) {
+        return count == 0 ? "Loading your tasks..." : "Loading your tasks... " + count + " so far";
+    }
+
+    /**
+     * Returns a message confirming that the tasks have loaded.
+     *
+     * @param size   The number of tasks loaded
+     * @param millis How long loading took, in milliseconds
+     * @return A message reporting the load
+     */
+    public String showLoaded(int size, long millis) {
+        return "Loaded " + size + " tasks in " + millis + " ms!";
+    }
+
+    /**
+     * Returns the placeholder shown while a command is still running.
+     *
+     * @return A message asking the user to wait
+     */
+    public String showPending() {
+        return "...";
+    }
+
     /**
      * Returns an error message to be displayed to the user.
      *
@@ -95,18 +126,67 @@ public class Ui {
     }
 
     /**
-     * Returns a string representation of the task list.
+     * Returns a summary of an import.
+     *
+     * @param report What was imported and rejected
+     * @param size   The updated number of tasks in the list
+     * @return A message reporting the import
+     */
+    public String showImported(TaskImporter.Report report, int size) {
+        String message = "Imported " + report.getImported() + " tasks in " + report.getMillis() + " ms ("
+                + report.getLinesPerSecond() + " lines/s)!"
+                + "\nYou now have " + size + " tasks in your list!";
+        if (report.getRejected() > 0) {
+            message += "\nSkipped " + report.getRejected() + " bad lines, the first at "
+                    + report.getFirstRejection();
+        }
+        return message;
+    }
+
+    /**
+     * Returns a confirmation message indicating that the tasks have been exported.
+     *
+     * @param count The number of exported tasks
+     * @param path  The file the tasks were written to
+     * @return A message confirming the export
+     */
+    public String showExported(int count, String path) {
+        return "Done! I exported " + count + " tasks to " + path;
+    }
+
+    /**
+     * Returns one page of the task list.
      * If the task list is empty, an appropriate message is returned instead.
+     * A page that does not reach the end of the list says how to see the next one.
      *
-     * @param tasks The task list to be displayed
-     * @return A formatted list of tasks or a message indicating the list is empty
+     * @param tasks    The task list to be displayed
+     * @param from     The index of the first task on the page, which must be in the list
+     * @param count    The most tasks on the page
+     * @param showsIds Whether each task is shown with its id
+     * @return A formatted page of tasks or a message indicating the list is empty
      */
-    public String showList(TaskList tasks) {
-        if (tasks.getSize() == 0) {
+    public String showList(TaskList tasks, int from, int count, boolean showsIds) {
+        int size = tasks.getSize();
+        if (size == 0) {
             return "No tasks in your list.";
-        } else {
-            return tasks.toString();
         }
+        String page = tasks.toString(from, count, showsIds);
+        int end = (int) Math.min(size, (long) from + count);
+        if (from == 0 && end == size) {
+            return page;
+        }
+        return page + "\nShowing tasks " + (from + 1) + "-" + end + " of " + size + "."
+                + (end < size ? " Type 'list /from " + (end + 1) + "' for more!" : "");
+    }
+
+    /**
+     * Returns the heading shown above a scrollable view of the task list.
+     *
+     * @param size The number of tasks in the list
+     * @return A heading for the task list
+     */
+    public String showListTitle(int size) {
+        return "Here are your " + size + " tasks!";
     }
 
     /**
@@ -126,13 +206,22 @@ public class Ui {
                 + "📅 Add an Event\n"
                 + "event \"event description\" /from yyyy-MM-dd HHmm /to yyyy-MM-dd HHmm\n\n"
                 + "📋 View All Tasks\n"
-                + "list\n\n"
+                + "list\n"
+                + "list <page>  or  list /from <n> /limit <m>\n"
+                + "Add /ids to see each task's #id\n\n"
                 + "✅ Mark a Task as Done\n"
-                + "mark <task number>\n\n"
+                + "mark <task number or #id>\n\n"
                 + "↩ Unmark a Task\n"
-                + "unmark <task number>\n\n"
+                + "unmark <task number or #id>\n\n"
                 + "🗑 Delete a Task\n"
-                + "delete <task number>\n\n"
+                + "delete <task number or #id>\n\n"
+                + "⌛ Deadlines Due Soon\n"
+                + "due <hours>h\n\n"
+                + "🗓 Tasks in a Time Window\n"
+                + "between yyyy-MM-dd HHmm /to yyyy-MM-dd HHmm\n\n"
+                + "📥 Import or Export Tasks (.txt, .csv or .jsonl)\n"
+                + "import <file>\n"
+                + "export <file>\n\n"
                 + "👋 Exit the Chatbot\n"
                 + "bye\n\n"
                 + "Type \"help\" anytime to see this guide again. "
@@ -0,0 +1,71 @@
+package ketchup.parser;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link CommandLine}.
+ * Verifies that input is split into a command word, arguments and flag values.
+ */
+public class CommandLineTest {
+
+    @Test
+    public void of_splitsCommandWordFromArguments() {
+        CommandLine line = CommandLine.of("  UnMark \t 2  extra ");
+
+        assertEquals("unmark", line.verb());
+        assertEquals("2  extra", line.args());
+        assertEquals("2", line.firstArg());
+    }
+
+    @Test
+    public void of_blankInput_hasEmptyCommandWord() {
+        CommandLine line = CommandLine.of("   ");
+
+        assertEquals("", line.verb());
+        assertEquals("", line.args());
+        assertEquals("", line.firstArg());
+    }
+
+    @Test
+    public void split_returnsTextAndFlagValues() {
+        CommandLine line = CommandLine.of("event  camp  /from 2026-03-01 0900  /to 2026-03-05 1700 ");
+
+        assertArrayEquals(new String[] {"camp", "2026-03-01 0900", "2026-03-05 1700"}, line.split("from", "to"));
+        assertArrayEquals(new String[] {"camp", "2026-03-01 0900", "2026-03-05 1700"},
+                CommandLine.of("event camp /to 2026-03-05 1700 /from 2026-03-01 0900").split("from", "to"));
+    }
+
+    @Test
+    public void split_missingFlag_isNull() {
+        assertArrayEquals(new String[] {"essay", null}, CommandLine.of("deadline essay").split("by"));
+        assertArrayEquals(new String[] {"essay /by", null}, CommandLine.of("deadline essay /by").split("by"));
+        assertArrayEquals(new String[] {"", "tomorrow"}, CommandLine.of("deadline /by tomorrow").split("by"));
+    }
+
+    @Test
+    public void split_flagInsideWordOrUnknown_isText() {
+        assertArrayEquals(new String[] {"read a/by b /bypass /etc", "x"},
+                CommandLine.of("deadline read a/by b /bypass /etc /by x").split("by"));
+    }
+
+    @Test
+    public void split_repeatedFlag_firstCounts() {
+        assertArrayEquals(new String[] {"report", "1"}, CommandLine.of("deadline report /by 1 /by 2").split("by"));
+    }
+
+    @Test
+    public void withoutSwitch_removesOnlyWholeWords() {
+        CommandLine line = CommandLine.of("list /ids /from 3  /ids a/ids /idsx");
+
+        assertTrue(line.hasSwitch("ids"));
+        assertFalse(CommandLine.of("list a/ids /idsx").hasSwitch("ids"));
+        assertEquals("/from 3  a/ids /idsx", line.withoutSwitch("ids").args());
+        assertArrayEquals(new String[] {"", "3"},
+                CommandLine.of("list /from 3 /ids").withoutSwitch("ids").split("from"));
+    }
+}
@@ -2,16 +2,19 @@ package ketchup.parser;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import ketchup.KetchupResult;
 import ketchup.tasks.TaskList;
+import ketchup.tasks.ToDo;
 import ketchup.ui.Ui;
 
 /**
@@ -59,6 +62,45 @@ public class InputParserTest {
         assertFalse(result.isShouldExit());
     }
 
+    @Test
+    public void handle_listCommand_showsFirstPageAndWholeListing() {
+        for (int i = 1; i <= 120; i++) {
+            parser.handle("todo task " + i, tasks);
+        }
+
+        KetchupResult result = new InputParser(new Ui(), true).handle("list", tasks);
+
+        assertTrue(result.getResponse().startsWith("1. [T][ ] task 1\n"));
+        assertTrue(result.getResponse().contains("\n50. [T][ ] task 50\nShowing tasks 1-50 of 120."));
+        assertEquals(120, result.getListing().getSize());
+        assertNull(parser.handle("list", tasks).getListing());
+    }
+
+    @Test
+    public void handle_listPages_showOnlyThoseTasks() {
+        for (int i = 1; i <= 120; i++) {
+            parser.handle("todo task " + i, tasks);
+        }
+        parser.handle("delete 1", tasks);
+
+        String page = parser.handle("list 3", tasks).getResponse();
+        assertTrue(page.startsWith("101. [T][ ] task 102\n"));
+        assertTrue(page.endsWith("119. [T][ ] task 120\nShowing tasks 101-119 of 119."));
+
+        KetchupResult range = parser.handle("list /from 10 /limit 2", tasks);
+        assertEquals("10. [T][ ] task 11\n11. [T][ ] task 12\nShowing tasks 10-11 of 119."
+                + " Type 'list /from 12' for more!", range.getResponse());
+        assertNull(range.getListing());
+        assertEquals("10. [T][ ] task 11 (" + tasks.formatId(11) + ")\n"
+                + "Showing tasks 10-10 of 119. Type 'list /from 11' for more!",
+                parser.handle("list /ids /from 10 /limit 1", tasks).getResponse());
+
+        assertTrue(parser.handle("list 4", tasks).isError());
+        assertTrue(parser.handle("list 0", tasks).isError());
+        assertTrue(parser.handle("list /limit 0", tasks).isError());
+        assertTrue(parser.handle("list 2 /from 3", tasks).isError());
+    }
+
     /* ================= TODO ================= */
 
     @Test
@@ -154,6 +196,117 @@ public class InputParserTest {
         assertTrue(result.getResponse().contains("read"));
     }
 
+    @Test
+    public void handle_markById_marksTaskAfterEarlierDelete() {
+        parser.handle("todo first", tasks);
+        parser.handle("todo second", tasks);
+        parser.handle("delete 1", tasks);
+
+        parser.handle("mark " + tasks.formatId(2), tasks);
+
+        assertTrue(tasks.getTask(0).isDone());
+        assertTrue(parser.handle("unmark " + tasks.formatId(1), tasks).getResponse().contains("Task not found"));
+    }
+
+    @Test
+    public void handle_deleteById_deletesThatTask() {
+        parser.handle("todo first", tasks);
+        parser.handle("todo second", tasks);
+        parser.handle("todo third", tasks);
+
+        parser.handle("delete " + tasks.formatId(2), tasks);
+
+        assertEquals(2, tasks.getSize());
+        assertEquals("third", tasks.getTask(1).getDesc());
+        assertTrue(parser.handle("delete " + tasks.formatId(2), tasks).getResponse().contains("Task not found"));
+        assertTrue(parser.handle("delete #x", tasks).getResponse().contains("Task not found"));
+    }
+
+    @Test
+    public void handle_idFromEarlierLoad_isRefused() {
+        parser.handle("todo first", tasks);
+        TaskList reloaded = new TaskList();
+        reloaded.addTask(new ToDo("first"));
+
+        assertTrue(parser.handle("mark #1", reloaded).getResponse().contains("Task not found"));
+        assertTrue(parser.handle("mark " + tasks.formatId(1), reloaded).getResponse().contains("Task not found"));
+        assertFalse(reloaded.getTask(0).isDone());
+
+        parser.handle("mark " + reloaded.formatId(1), reloaded);
+        assertTrue(reloaded.getTask(0).isDone());
+    }
+
+    /* ================= TIME QUERIES ================= */
+
+    @Test
+    public void handle_due_listsOnlyDeadlinesInWindow() {
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+        LocalDateTime now = LocalDateTime.now();
+        parser.handle("deadline soon /by " + now.plusHours(5).format(format), tasks);
+        parser.handle("deadline later /by " + now.plusDays(5).format(format), tasks);
+
+        KetchupResult result = parser.handle("due 48h", tasks);
+
+        assertTrue(result.getResponse().contains("soon"));
+        assertFalse(result.getResponse().contains("later"));
+    }
+
+    @Test
+    public void handle_dueWithoutHours_returnsError() {
+        KetchupResult result = parser.handle("due soon", tasks);
+
+        assertTrue(result.getResponse().contains("due 48h"));
+    }
+
+    @Test
+    public void handle_between_listsOverlappingEventsAndDeadlines() {
+        parser.handle("event camp /from 2026-03-01 0900 /to 2026-03-05 1700", tasks);
+        parser.handle("deadline essay /by 2026-03-03 2359", tasks);
+        parser.handle("event party /from 2026-04-01 1900 /to 2026-04-01 2300", tasks);
+
+        KetchupResult result = parser.handle("between 2026-03-02 0000 /to 2026-03-04 0000", tasks);
+
+        assertTrue(result.getResponse().contains("camp"));
+        assertTrue(result.getResponse().contains("essay"));
+        assertFalse(result.getResponse().contains("party"));
+    }
+
+    /* ================= BATCH ================= */
+
+    @Test
+    public void handleBatch_runsEveryCommand_returnsOneResultEach() {
+        List<KetchupResult> results = parser.handleBatch(
+                List.of("todo one", "todo two", "mark 1", "nonsense", "todo three"), tasks, false);
+
+        assertEquals(5, results.size());
+        assertTrue(results.get(3).isError());
+        assertEquals(3, tasks.getSize());
+        assertTrue(tasks.getTask(0).isDone());
+    }
+
+    @Test
+    public void handleBatch_failureWithRollback_restoresList() {
+        parser.handle("todo kept", tasks);
+
+        List<KetchupResult> results = parser.handleBatch(
+                List.of("todo added", "mark 1", "delete 1", "delete 9", "todo never"), tasks, true);
+
+        assertEquals(4, results.size());
+        assertTrue(results.get(3).isError());
+        assertEquals(1, tasks.getSize());
+        assertEquals("kept", tasks.getTask(0).getDesc());
+        assertFalse(tasks.getTask(0).isDone());
+    }
+
+    @Test
+    public void handleBatch_stopsAfterBye() {
+        List<KetchupResult> results = parser.handleBatch(List.of("todo one", "bye", "todo two"), tasks, true);
+
+        assertEquals(2, results.size());
+        assertTrue(results.get(1).isShouldExit());
+        assertEquals(1, tasks.getSize());
+    }
+
     /* ================= INVALID COMMAND ================= */
 
     @Test
@@ -163,4 +316,20 @@ public class InputParserTest {
         assertFalse(result.isShouldExit());
         assertTrue(result.getResponse().length() > 0);
     }
+
+    @Test
+    public void handle_commandGluedToArgument_isNotRecognised() {
+        assertTrue(parser.handle("todobuy milk", tasks).isError());
+        assertTrue(parser.handle("bye now", tasks).isError());
+        assertEquals(0, tasks.getSize());
+    }
+
+    @Test
+    public void handle_commandWordInAnyCase_isRecognised() {
+        parser.handle("TODO read", tasks);
+        parser.handle("  Mark   1  ", tasks);
+
+        assertEquals("read", tasks.getTask(0).getDesc());
+        assertTrue(tasks.getTask(0).isDone());
+    }
 }
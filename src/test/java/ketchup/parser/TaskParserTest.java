@@ -152,4 +152,48 @@ public class TaskParserTest {
 
         assertThrows(Exception.class, () -> parser.parse(line));
     }
+
+    /* ================= RESULT API ================= */
+
+    /**
+     * Tests that the result API produces the same task as the throwing API.
+     */
+    @Test
+    public void parseResult_validEvent_matchesParse() throws Exception {
+        String line = "E | 1 | meeting | 2026-02-20 1400 | 2026-02-20 1600";
+
+        ParseResult result = parser.parse(line, 7);
+
+        assertTrue(result.isSuccess());
+        assertEquals(7, result.getLineNumber());
+        assertEquals(parser.parse(line).toFileString(), result.getTask().toFileString());
+    }
+
+    /**
+     * Tests that whitespace around fields and the line is ignored.
+     */
+    @Test
+    public void parseResult_extraWhitespace_trimsFields() {
+        ParseResult result = parser.parse("  D|0|   submit report  |2026-02-20 1400  ", 1);
+
+        assertTrue(result.isSuccess());
+        assertEquals("submit report", result.getTask().getDesc());
+    }
+
+    /**
+     * Tests that corrupted lines report the matching error and line number.
+     */
+    @Test
+    public void parseResult_corruptedLines_reportErrors() {
+        assertEquals(ParseError.NULL_LINE, parser.parse(null, 1).getError());
+        assertEquals(ParseError.EMPTY_LINE, parser.parse(" \t ", 2).getError());
+        assertEquals(ParseError.NOT_ENOUGH_PARTS, parser.parse("T | 0 | ", 3).getError());
+        assertEquals(ParseError.INVALID_DONE_FLAG, parser.parse("T | 10 | x", 4).getError());
+        assertEquals(ParseError.UNKNOWN_TASK_TYPE, parser.parse("TD | 0 | x", 5).getError());
+        assertEquals(ParseError.MISSING_BY, parser.parse("D | 0 | x", 6).getError());
+        assertEquals(ParseError.MISSING_FROM_TO, parser.parse("E | 0 | x | 2026-02-20 1400", 7).getError());
+        assertEquals(ParseError.INVALID_DATE_TIME, parser.parse("D | 0 | x | 2026-02-20T1400", 8).getError());
+        assertFalse(parser.parse("D | 0 | x | 2026-02-20T1400", 8).isSuccess());
+        assertEquals(8, parser.parse("D | 0 | x | 2026-02-20T1400", 8).getLineNumber());
+    }
 }
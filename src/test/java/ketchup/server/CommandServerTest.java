@@ -0,0 +1,129 @@
+package ketchup.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ketchup.Ketchup;
+
+/**
+ * Unit tests for {@link CommandServer}.
+ * Verifies the reply framing, pipelining from concurrent clients, and that bye only
+ * ends the client's own connection.
+ */
+public class CommandServerTest {
+
+    private CommandServer server;
+    private Thread serverThread;
+
+    /**
+     * Starts a server on a free loopback port.
+     */
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = CommandServer.open(new Ketchup(), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        serverThread = new Thread(() -> {
+            try {
+                server.run();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        serverThread.start();
+    }
+
+    /**
+     * Stops the server.
+     */
+    @AfterEach
+    public void tearDown() throws Exception {
+        server.close();
+        serverThread.join();
+    }
+
+    /**
+     * Reads one reply and returns its header followed by its lines.
+     */
+    private static List<String> readReply(BufferedReader in) throws Exception {
+        List<String> reply = new ArrayList<>();
+        String header = in.readLine();
+        reply.add(header);
+        int lines = Integer.parseInt(header.substring(header.indexOf(' ') + 1));
+        for (int i = 0; i < lines; i++) {
+            reply.add(in.readLine());
+        }
+        return reply;
+    }
+
+    private Socket connect() throws Exception {
+        return new Socket(InetAddress.getLoopbackAddress(), ((InetSocketAddress) server.getAddress()).getPort());
+    }
+
+    @Test
+    public void commands_getFramedRepliesInOrder() throws Exception {
+        try (Socket socket = connect()) {
+            OutputStream out = socket.getOutputStream();
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out.write("help\r\nasdfgh\n\nbye\nhelp\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            assertTrue(readReply(in).get(0).startsWith("OK "));
+            assertEquals("ERR 1", readReply(in).get(0));
+            assertEquals(List.of("OK 1", "Bye. Hope to see you again soon!"), readReply(in));
+            assertNull(in.readLine());
+        }
+    }
+
+    @Test
+    public void concurrentPipelinedClients_eachGetEveryReply() throws Exception {
+        int clients = 4;
+        int commands = 500;
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<Integer>> replies = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                replies.add(pool.submit(() -> {
+                    try (Socket socket = connect()) {
+                        StringBuilder script = new StringBuilder();
+                        for (int i = 0; i < commands; i++) {
+                            script.append(i % 2 == 0 ? "help\n" : "nonsense " + i + "\n");
+                        }
+                        socket.getOutputStream().write(script.toString().getBytes(StandardCharsets.UTF_8));
+                        BufferedReader in = new BufferedReader(
+                                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                        int errors = 0;
+                        for (int i = 0; i < commands; i++) {
+                            if (readReply(in).get(0).startsWith("ERR")) {
+                                errors++;
+                            }
+                        }
+                        return errors;
+                    }
+                }));
+            }
+            for (Future<Integer> reply : replies) {
+                assertEquals(commands / 2, reply.get().intValue());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
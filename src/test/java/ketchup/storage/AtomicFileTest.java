@@ -0,0 +1,90 @@
+package ketchup.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ketchup.tasks.TaskList;
+import ketchup.tasks.ToDo;
+
+/**
+ * Unit tests for {@link AtomicFile}.
+ * Verifies that replaced files keep their previous version and survive failed writes.
+ */
+public class AtomicFileTest {
+
+    @TempDir
+    Path dir;
+
+    private static AtomicFile.Content text(String content) {
+        return channel -> channel.write(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void write_existingFile_keepsPreviousVersionAsBackup() throws Exception {
+        Path file = dir.resolve("ketchup.txt");
+
+        AtomicFile.write(file, text("first\n"));
+        AtomicFile.write(file, text("second\n"));
+
+        assertEquals("second\n", Files.readString(file));
+        assertEquals("first\n", Files.readString(AtomicFile.backupOf(file)));
+        assertFalse(Files.exists(dir.resolve("ketchup.txt.tmp")));
+    }
+
+    @Test
+    public void write_failingContent_leavesFileUntouched() throws Exception {
+        Path file = dir.resolve("ketchup.txt");
+        AtomicFile.write(file, text("kept\n"));
+
+        assertThrows(IOException.class, () -> AtomicFile.write(file, channel -> {
+            channel.write(ByteBuffer.wrap("partial".getBytes(StandardCharsets.UTF_8)));
+            throw new IOException("disk full");
+        }));
+
+        assertEquals("kept\n", Files.readString(file));
+        assertFalse(Files.exists(dir.resolve("ketchup.txt.tmp")));
+    }
+
+    @Test
+    public void recover_missingFile_restoresBackup() throws Exception {
+        Path file = dir.resolve("ketchup.txt");
+        AtomicFile.write(file, text("first\n"));
+        AtomicFile.write(file, text("second\n"));
+        Files.delete(file);
+        Files.writeString(dir.resolve("ketchup.txt.tmp"), "torn");
+
+        assertTrue(AtomicFile.recover(file));
+        assertEquals("first\n", Files.readString(file));
+        assertFalse(Files.exists(dir.resolve("ketchup.txt.tmp")));
+        assertFalse(AtomicFile.recover(file));
+    }
+
+    @Test
+    public void writeTextSnapshot_largeTaskList_writesEveryLine() throws Exception {
+        Path file = dir.resolve("ketchup.txt");
+        TaskList tasks = new TaskList();
+        String longDesc = "x".repeat(70_000);
+        for (int i = 0; i < 5_000; i++) {
+            tasks.addTask(new ToDo(i == 100 ? longDesc : "task " + i));
+        }
+
+        Storage.writeTextSnapshot(file, tasks);
+        TaskList loaded = new TaskList();
+        new MappedTaskLoader().load(file, loaded);
+
+        assertEquals(5_000, loaded.getSize());
+        assertEquals(longDesc, loaded.getTask(100).getDesc());
+        assertEquals("task 4999", loaded.getTask(4_999).getDesc());
+    }
+}
@@ -0,0 +1,143 @@
+package ketchup.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ketchup.tasks.Deadline;
+import ketchup.tasks.Event;
+import ketchup.tasks.TaskList;
+import ketchup.tasks.ToDo;
+
+/**
+ * Unit tests for {@link BinarySnapshot} and {@link SnapshotConverter}.
+ * Verifies round trips through the binary format and conversions between formats.
+ */
+public class BinarySnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    private TaskList sampleTasks() {
+        TaskList tasks = new TaskList();
+        tasks.addTask(new ToDo("read book"));
+        tasks.addTask(new Deadline("submit report", LocalDateTime.of(2026, 2, 20, 18, 0)));
+        tasks.addTask(new Event("café meetup", LocalDateTime.of(2026, 3, 1, 9, 30),
+                LocalDateTime.of(2026, 3, 1, 11, 0)));
+        tasks.addTask(new ToDo("read book"));
+        tasks.getTask(1).markDone();
+        return tasks;
+    }
+
+    private void assertSameTasks(TaskList expected, TaskList actual) {
+        assertEquals(expected.getSize(), actual.getSize());
+        for (int i = 0; i < expected.getSize(); i++) {
+            assertEquals(expected.getTask(i).toFileString(), actual.getTask(i).toFileString());
+        }
+    }
+
+    @Test
+    public void writeThenRead_roundTripsAllTaskTypes() throws Exception {
+        Path file = dir.resolve("ketchup.bin");
+        TaskList tasks = sampleTasks();
+
+        BinarySnapshot.write(file, tasks);
+        TaskList loaded = new TaskList();
+        BinarySnapshot.read(file, loaded);
+
+        assertTrue(BinarySnapshot.isBinary(file));
+        assertSameTasks(tasks, loaded);
+        assertTrue(loaded.getTask(2) instanceof Event);
+    }
+
+    @Test
+    public void read_unsupportedVersion_throws() throws Exception {
+        Path file = dir.resolve("ketchup.bin");
+        BinarySnapshot.write(file, sampleTasks());
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[5] = 99;
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> BinarySnapshot.read(file, new TaskList()));
+    }
+
+    @Test
+    public void read_corruptedCounts_throwsWithOffset() throws Exception {
+        Path file = dir.resolve("ketchup.bin");
+        BinarySnapshot.write(file, sampleTasks());
+        byte[] original = Files.readAllBytes(file);
+
+        // Task count, string count and the first string's length, each made negative or huge.
+        int[][] corruptions = {{8, -1}, {8, Integer.MAX_VALUE}, {12, -5}, {12, 1 << 30}, {16, -2}, {16, 1 << 30}};
+        for (int[] corruption : corruptions) {
+            byte[] bytes = original.clone();
+            ByteBuffer.wrap(bytes).putInt(corruption[0], corruption[1]);
+            Files.write(file, bytes);
+
+            IOException e = assertThrows(IOException.class, () -> BinarySnapshot.read(file, new TaskList()));
+            assertTrue(e.getMessage().contains("at byte " + corruption[0]), e.getMessage());
+        }
+    }
+
+    @Test
+    public void read_truncatedStrings_throws() throws Exception {
+        Path file = dir.resolve("ketchup.bin");
+        BinarySnapshot.write(file, sampleTasks());
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, 22));
+
+        assertThrows(IOException.class, () -> BinarySnapshot.read(file, new TaskList()));
+    }
+
+    @Test
+    public void read_dateOutOfRange_skipsRecord() throws Exception {
+        Path file = dir.resolve("ketchup.bin");
+        TaskList tasks = sampleTasks();
+        BinarySnapshot.write(file, tasks);
+        byte[] bytes = Files.readAllBytes(file);
+        // The deadline is the second record; its due time follows type, flags, reserved and index.
+        int recordsStart = bytes.length - tasks.getSize() * 24;
+        ByteBuffer.wrap(bytes).putLong(recordsStart + 24 + 8, 1L << 50);
+        Files.write(file, bytes);
+
+        TaskList loaded = new TaskList();
+        assertEquals(1, BinarySnapshot.read(file, loaded));
+        assertEquals(3, loaded.getSize());
+    }
+
+    @Test
+    public void isBinary_textFile_returnsFalse() throws Exception {
+        Path file = dir.resolve("ketchup.txt");
+        Files.writeString(file, "T | 0 | read book\n");
+
+        assertFalse(BinarySnapshot.isBinary(file));
+        assertFalse(BinarySnapshot.isBinary(dir.resolve("missing.txt")));
+    }
+
+    @Test
+    public void converter_textToBinaryAndBack_keepsTasks() throws Exception {
+        Path text = dir.resolve("ketchup.txt");
+        Path binary = dir.resolve("ketchup.bin");
+        TaskList tasks = sampleTasks();
+        Storage.writeTextSnapshot(text, tasks);
+        String original = Files.readString(text);
+
+        assertEquals(4, SnapshotConverter.toBinary(text, binary));
+        assertTrue(BinarySnapshot.isBinary(binary));
+
+        assertEquals(4, SnapshotConverter.toText(binary, binary));
+        assertFalse(BinarySnapshot.isBinary(binary));
+        assertEquals(original, Files.readString(binary));
+    }
+}
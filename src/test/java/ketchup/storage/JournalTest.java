@@ -0,0 +1,149 @@
+package ketchup.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ketchup.tasks.Task;
+import ketchup.tasks.TaskList;
+import ketchup.tasks.ToDo;
+
+/**
+ * Unit tests for {@link Journal}.
+ * Verifies that journal records replay onto the snapshot and that
+ * compaction folds them into a new snapshot.
+ */
+public class JournalTest {
+
+    @TempDir
+    Path dir;
+
+    private Path snapshot;
+    private Path journalFile;
+
+    /**
+     * Sets up file paths inside a fresh temporary directory.
+     */
+    @BeforeEach
+    public void setUp() {
+        snapshot = dir.resolve("ketchup.txt");
+        journalFile = dir.resolve("ketchup.journal");
+    }
+
+    private TaskList reload(Journal journal) throws Exception {
+        TaskList list = new TaskList();
+        journal.recover();
+        Storage.readSnapshot(snapshot, list);
+        journal.replay(list);
+        return list;
+    }
+
+    @Test
+    public void replay_recordsAppliedOnTopOfSnapshot() throws Exception {
+        Journal journal = new Journal(snapshot, journalFile, 1024 * 1024);
+        TaskList initial = new TaskList();
+        initial.addTask(new ToDo("read book"));
+        journal.checkpoint(initial);
+
+        journal.append(List.of(Journal.addRecord(new ToDo("write report"))));
+        journal.append(List.of(Journal.addRecord(new ToDo("buy milk")), Journal.markRecord(2),
+                Journal.deleteRecord(0)));
+
+        TaskList loaded = reload(new Journal(snapshot, journalFile, 1024 * 1024));
+
+        assertEquals(2, loaded.getSize());
+        assertEquals("write report", loaded.getTask(0).getDesc());
+        assertTrue(loaded.getTask(1).isDone());
+    }
+
+    @Test
+    public void replay_corruptedRecord_isSkipped() throws Exception {
+        Journal journal = new Journal(snapshot, journalFile, 1024 * 1024);
+        journal.append(List.of(Journal.addRecord(new ToDo("read book"))));
+        Files.writeString(journalFile, "M 7\n?? garbage\n", StandardOpenOption.APPEND);
+        journal.append(List.of(Journal.unmarkRecord(0)));
+
+        TaskList loaded = reload(journal);
+
+        assertEquals(1, loaded.getSize());
+        assertFalse(loaded.getTask(0).isDone());
+    }
+
+    @Test
+    public void checkpoint_discardsJournal() throws Exception {
+        Journal journal = new Journal(snapshot, journalFile, 1024 * 1024);
+        journal.append(List.of(Journal.addRecord(new ToDo("read book"))));
+
+        journal.checkpoint(new TaskList());
+
+        assertFalse(Files.exists(journalFile));
+        assertEquals(0, reload(journal).getSize());
+    }
+
+    @Test
+    public void append_pastLimit_compactsIntoSnapshot() throws Exception {
+        Journal journal = new Journal(snapshot, journalFile, 64);
+
+        for (int i = 0; i < 20; i++) {
+            Task task = new ToDo("task " + i);
+            journal.append(List.of(Journal.addRecord(task)));
+        }
+        journal.append(List.of(Journal.markRecord(5)));
+        journal.awaitCompaction();
+
+        assertTrue(Files.exists(snapshot));
+        TaskList loaded = reload(journal);
+
+        assertEquals(20, loaded.getSize());
+        assertEquals("task 19", loaded.getTask(19).getDesc());
+        assertTrue(loaded.getTask(5).isDone());
+    }
+
+    @Test
+    public void compact_checkpointAndRotationMeanwhile_keepsNewerRecords() throws Exception {
+        ExecutorService compactor = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        compactor.submit(() -> {
+            release.await();
+            return null;
+        });
+        Journal journal = new Journal(snapshot, journalFile, 64, compactor);
+
+        // Rotates the old records out, then folds them as a compaction would.
+        for (int i = 0; i < 10; i++) {
+            journal.append(List.of(Journal.addRecord(new ToDo("old " + i))));
+        }
+        long rotation = journal.generation();
+        journal.fold();
+
+        // Before that compaction commits, a checkpoint and a second rotation happen.
+        TaskList current = new TaskList();
+        current.addTask(new ToDo("kept"));
+        journal.checkpoint(current);
+        for (int i = 0; i < 10; i++) {
+            journal.append(List.of(Journal.addRecord(new ToDo("new " + i))));
+        }
+        journal.commit(rotation);
+
+        release.countDown();
+        journal.awaitCompaction();
+        compactor.shutdown();
+
+        TaskList loaded = reload(journal);
+        assertEquals(11, loaded.getSize());
+        assertEquals("kept", loaded.getTask(0).getDesc());
+        assertEquals("new 9", loaded.getTask(10).getDesc());
+    }
+}
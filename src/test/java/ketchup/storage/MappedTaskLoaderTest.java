@@ -0,0 +1,145 @@
+package ketchup.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ketchup.parser.TaskParser;
+import ketchup.tasks.Deadline;
+import ketchup.tasks.Event;
+import ketchup.tasks.TaskList;
+import ketchup.tasks.ToDo;
+
+/**
+ * Unit tests for {@link MappedTaskLoader}.
+ * Verifies that mapped loading produces the same tasks as {@link TaskParser}
+ * and that corrupted lines are skipped.
+ */
+public class MappedTaskLoaderTest {
+
+    @TempDir
+    Path dir;
+
+    private TaskList load(String content) throws Exception {
+        Path file = dir.resolve("ketchup.txt");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        TaskList tasks = new TaskList();
+        new MappedTaskLoader().load(file, tasks);
+        return tasks;
+    }
+
+    @Test
+    public void load_validLines_matchesTaskParser() throws Exception {
+        String[] lines = {
+            "T | 1 | read book",
+            "D | 0 | buy tickets | 2026-09-09 1800",
+            "E | 0 | dj dash | 2026-07-23 1800 | 2026-07-24 1800",
+            "  T|0|  café crème  ",
+        };
+        TaskList tasks = load(String.join("\n", lines) + "\n");
+
+        TaskParser parser = new TaskParser();
+        assertEquals(lines.length, tasks.getSize());
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(parser.parse(lines[i]).toFileString(), tasks.getTask(i).toFileString());
+        }
+        assertTrue(tasks.getTask(0).isDone());
+        assertTrue(tasks.getTask(1) instanceof Deadline);
+        assertTrue(tasks.getTask(2) instanceof Event);
+        assertTrue(tasks.getTask(3) instanceof ToDo);
+        assertEquals("café crème", tasks.getTask(3).getDesc());
+    }
+
+    @Test
+    public void load_corruptedLines_skippedAndLoadingContinues() throws Exception {
+        TaskList tasks = load("T | 0 | first\n"
+                + "Z | 0 | unknown\n"
+                + "\n"
+                + "D | 0 | homework | invalid-date\n"
+                + "T | X | bad flag\n"
+                + "T | 0 | \n"
+                + "T | 0 | last");
+
+        assertEquals(2, tasks.getSize());
+        assertEquals("first", tasks.getTask(0).getDesc());
+        assertEquals("last", tasks.getTask(1).getDesc());
+    }
+
+    @Test
+    public void load_windowsLineEndings_trimmed() throws Exception {
+        TaskList tasks = load("T | 0 | one\r\nT | 1 | two\r\n");
+
+        assertEquals(2, tasks.getSize());
+        assertEquals("one", tasks.getTask(0).getDesc());
+        assertFalse(tasks.getTask(0).isDone());
+        assertTrue(tasks.getTask(1).isDone());
+    }
+
+    @Test
+    public void load_parallel_matchesSequentialLoad() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            text.append(i % 9_973 == 17 ? "Z | 0 | broken " + i : "T | " + (i % 2) + " | tâche " + i).append('\n');
+        }
+        Path file = dir.resolve("ketchup.txt");
+        Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+
+        TaskList sequential = new TaskList();
+        TaskList parallel = new TaskList();
+        PrintStream out = System.out;
+        ByteArrayOutputStream sequentialLog = new ByteArrayOutputStream();
+        ByteArrayOutputStream parallelLog = new ByteArrayOutputStream();
+        int sequentialSkipped;
+        int parallelSkipped;
+        try {
+            System.setOut(new PrintStream(sequentialLog, true, StandardCharsets.UTF_8));
+            sequentialSkipped = new MappedTaskLoader().load(file, sequential);
+            System.setOut(new PrintStream(parallelLog, true, StandardCharsets.UTF_8));
+            parallelSkipped = new MappedTaskLoader(4).load(file, parallel);
+        } finally {
+            System.setOut(out);
+        }
+
+        assertEquals(21, sequentialSkipped);
+        assertEquals(sequentialSkipped, parallelSkipped);
+        assertEquals(sequentialLog.toString(StandardCharsets.UTF_8), parallelLog.toString(StandardCharsets.UTF_8));
+        assertTrue(parallelLog.toString(StandardCharsets.UTF_8).startsWith("Skipping corrupted line 18: "));
+        assertEquals(sequential.getSize(), parallel.getSize());
+        for (int i = 0; i < sequential.getSize(); i++) {
+            assertEquals(sequential.getTask(i).toFileString(), parallel.getTask(i).toFileString());
+        }
+    }
+
+    @Test
+    public void load_emptyFile_returnsNoTasks() throws Exception {
+        assertEquals(0, load("").getSize());
+    }
+
+    @Test
+    public void load_thenSaveOverTheFile_savesEveryTask() throws Exception {
+        Path file = dir.resolve("ketchup.txt");
+        Files.write(file, "T | 0 | read book\nD | 1 | submit | 2026-09-09 1800\n".getBytes(StandardCharsets.UTF_8));
+
+        for (boolean isMapped : new boolean[] {true, false}) {
+            TaskList tasks = new TaskList();
+            new MappedTaskLoader(1, isMapped).load(file, tasks);
+            tasks.addTask(new ToDo("task " + tasks.getSize()));
+            Storage.writeTextSnapshot(file, tasks);
+        }
+
+        TaskList reloaded = new TaskList();
+        new MappedTaskLoader(1, false).load(file, reloaded);
+        assertEquals(4, reloaded.getSize());
+        assertEquals("D | 1 | submit | 2026-09-09 1800", reloaded.getTask(1).toFileString());
+        assertEquals("T | 0 | task 3", reloaded.getTask(3).toFileString());
+    }
+}
@@ -0,0 +1,125 @@
+package ketchup.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ketchup.tasks.Deadline;
+import ketchup.tasks.Event;
+import ketchup.tasks.TaskList;
+import ketchup.tasks.ToDo;
+
+/**
+ * Unit tests for {@link MappedTaskStore}.
+ * Verifies that task lists over the store survive reopening, growing and compaction.
+ */
+public class MappedTaskStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void reopen_returnsSameTasks() throws Exception {
+        Path file = dir.resolve("ketchup.tasks");
+        LocalDateTime base = LocalDateTime.of(2026, 5, 1, 12, 0);
+
+        try (MappedTaskStore store = MappedTaskStore.open(file)) {
+            TaskList tasks = store.toTaskList();
+            tasks.addTask(new ToDo("café run"));
+            tasks.addTask(new Deadline("report", base));
+            tasks.addTask(new Event("trip", base, base.plusDays(2)));
+            tasks.getTask(1).markDone();
+        }
+
+        try (MappedTaskStore store = MappedTaskStore.open(file)) {
+            TaskList tasks = store.toTaskList();
+            assertEquals(3, tasks.getSize());
+            assertEquals("[T][ ] café run", tasks.getTask(0).toString());
+            assertTrue(tasks.getTask(1).isDone());
+            assertEquals(base, ((Deadline) tasks.getTask(1)).getDeadline());
+            assertEquals(base.plusDays(2), ((Event) tasks.getTask(2)).getEnd());
+            assertEquals(3, tasks.getTask(2).getId());
+
+            tasks.addTask(new ToDo("next"));
+            assertEquals(4, tasks.getTask(3).getId());
+        }
+    }
+
+    @Test
+    public void manyTasks_growAndCompactAcrossReopens() throws Exception {
+        Path file = dir.resolve("ketchup.tasks");
+
+        try (MappedTaskStore store = MappedTaskStore.open(file)) {
+            TaskList tasks = store.toTaskList();
+            for (int i = 0; i < 5_000; i++) {
+                tasks.addTask(new ToDo("task " + i));
+            }
+            tasks.deleteTask(0);
+            for (int i = 0; i < 3_000; i++) {
+                tasks.deleteTask(1_000);
+            }
+            tasks.addTask(new ToDo("last"));
+        }
+
+        try (MappedTaskStore store = MappedTaskStore.open(file)) {
+            TaskList tasks = store.toTaskList();
+            assertEquals(1_000 + 999 + 1, tasks.getSize());
+            assertEquals("task 1", tasks.getTask(0).getDesc());
+            assertEquals("task 4001", tasks.getTask(1_000).getDesc());
+            assertEquals("last", tasks.getTask(tasks.getSize() - 1).getDesc());
+            assertEquals(1_000, tasks.indexOfId(4_002));
+            assertEquals(1, tasks.findTask("task 4999").getSize());
+        }
+    }
+
+    @Test
+    public void copy_isIndependentOfStore() throws Exception {
+        try (MappedTaskStore store = MappedTaskStore.open(dir.resolve("ketchup.tasks"))) {
+            TaskList tasks = store.toTaskList();
+            tasks.addTask(new ToDo("first"));
+
+            TaskList copy = tasks.copy();
+            copy.getTask(0).markDone();
+            copy.addTask(new ToDo("second"));
+
+            assertFalse(tasks.getTask(0).isDone());
+            assertEquals(1, tasks.getSize());
+            assertEquals(2, copy.getSize());
+        }
+    }
+
+    @Test
+    public void freeze_copiesTasksOutOfStore() throws Exception {
+        try (MappedTaskStore store = MappedTaskStore.open(dir.resolve("ketchup.tasks"))) {
+            TaskList tasks = store.toTaskList();
+            tasks.addTask(new ToDo("first"));
+            tasks.addTask(new ToDo("second"));
+
+            TaskList frozen = tasks.freeze();
+            tasks.getTask(0).markDone();
+            tasks.deleteTask(1);
+
+            assertEquals(2, frozen.getSize());
+            assertFalse(frozen.getTask(0).isDone());
+            assertEquals("second", frozen.getTask(1).getDesc());
+            assertThrows(UnsupportedOperationException.class, () -> frozen.addTask(new ToDo("third")));
+        }
+    }
+
+    @Test
+    public void open_otherFile_isRejected() throws Exception {
+        Path file = dir.resolve("ketchup.txt");
+        Files.writeString(file, "T | 0 | not a task store, just text that is long enough\n".repeat(4));
+
+        assertThrows(IOException.class, () -> MappedTaskStore.open(file));
+    }
+}
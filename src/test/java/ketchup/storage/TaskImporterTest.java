@@ -0,0 +1,111 @@
+package ketchup.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ketchup.tasks.Deadline;
+import ketchup.tasks.Event;
+import ketchup.tasks.TaskList;
+import ketchup.tasks.ToDo;
+
+/**
+ * Unit tests for {@link TaskImporter} and {@link TaskExporter}.
+ * Verifies that every format round-trips and that bad lines are counted, not imported.
+ */
+public class TaskImporterTest {
+
+    @TempDir
+    Path dir;
+
+    private static TaskList sampleTasks() {
+        LocalDateTime base = LocalDateTime.of(2026, 5, 1, 12, 0);
+        TaskList tasks = new TaskList();
+        tasks.addTask(new ToDo("buy \"fresh\" milk, eggs"));
+        tasks.addTask(new Deadline("café report", base));
+        tasks.addTask(new Event("trip", base, base.plusDays(2)));
+        tasks.getTask(1).markDone();
+        return tasks;
+    }
+
+    private void assertRoundTrip(String fileName) throws Exception {
+        TaskList tasks = sampleTasks();
+        Path file = dir.resolve(fileName);
+
+        assertEquals(3, TaskExporter.exportFile(file, tasks));
+        TaskList imported = new TaskList();
+        TaskImporter.Report report = TaskImporter.importFile(file, imported);
+
+        assertEquals(3, report.getImported());
+        assertEquals(0, report.getRejected());
+        assertNull(report.getFirstRejection());
+        for (int i = 0; i < tasks.getSize(); i++) {
+            assertEquals(tasks.getTask(i).toFileString(), imported.getTask(i).toFileString());
+        }
+    }
+
+    @Test
+    public void exportThenImport_text_roundTrips() throws Exception {
+        assertRoundTrip("tasks.txt");
+    }
+
+    @Test
+    public void exportThenImport_csv_roundTrips() throws Exception {
+        assertRoundTrip("tasks.csv");
+        assertTrue(Files.readString(dir.resolve("tasks.csv")).startsWith(TransferFormat.CSV_HEADER + "\n"));
+    }
+
+    @Test
+    public void exportThenImport_jsonLines_roundTrips() throws Exception {
+        assertRoundTrip("tasks.jsonl");
+    }
+
+    @Test
+    public void importFile_badLines_areCountedAndSkipped() throws Exception {
+        Path file = dir.resolve("tasks.jsonl");
+        Files.writeString(file, "{\"type\":\"T\",\"description\":\"ok\"}\n"
+                + "\n"
+                + "{\"type\":\"D\",\"done\":true,\"description\":\"no date\"}\n"
+                + "not json\n"
+                + "{\"type\":\"T\",\"description\":\"a | b\"}\n"
+                + "{\"type\":\"E\",\"description\":\"fine\","
+                + "\"from\":\"2026-01-01 0900\",\"to\":\"2026-01-01 1000\"}\n");
+
+        TaskList tasks = new TaskList();
+        TaskImporter.Report report = TaskImporter.importFile(file, tasks);
+
+        assertEquals(2, report.getImported());
+        assertEquals(3, report.getRejected());
+        assertTrue(report.getFirstRejection().startsWith("line 3:"));
+        assertEquals("ok", tasks.getTask(0).getDesc());
+        assertEquals("fine", tasks.getTask(1).getDesc());
+    }
+
+    @Test
+    public void importFile_manyChunks_keepsFileOrder() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            text.append(i % 1_000 == 999 ? "X | 0 | broken\n" : "T | 0 | task " + i + "\n");
+        }
+        Path file = dir.resolve("tasks.txt");
+        Files.writeString(file, text);
+
+        TaskList tasks = new TaskList();
+        tasks.addTask(new ToDo("existing"));
+        TaskImporter.Report report = TaskImporter.importFile(file, tasks);
+
+        assertEquals(49_950, report.getImported());
+        assertEquals(50, report.getRejected());
+        assertEquals("line 1000: Unknown task type", report.getFirstRejection());
+        assertEquals("existing", tasks.getTask(0).getDesc());
+        assertEquals("task 0", tasks.getTask(1).getDesc());
+        assertEquals("task 49998", tasks.getTask(49_950).getDesc());
+    }
+}
@@ -0,0 +1,98 @@
+package ketchup.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ketchup.tasks.TaskList;
+import ketchup.tasks.ToDo;
+
+/**
+ * Unit tests for {@link WriteBehindSaver}.
+ * Verifies that queued changes are merged and written on flush and close.
+ */
+public class WriteBehindSaverTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void requestSave_manyRequests_latestSnapshotWrittenOnFlush() throws Exception {
+        Path snapshot = dir.resolve("ketchup.txt");
+        Journal journal = new Journal(snapshot, dir.resolve("ketchup.journal"), 1024 * 1024);
+        WriteBehindSaver saver = new WriteBehindSaver(journal, 10_000);
+        TaskList tasks = new TaskList();
+
+        for (int i = 0; i < 100; i++) {
+            tasks.addTask(new ToDo("task " + i));
+            saver.requestSave(tasks.copy());
+        }
+        assertFalse(Files.exists(snapshot));
+
+        saver.flush();
+
+        List<String> lines = Files.readAllLines(snapshot);
+        assertEquals(100, lines.size());
+        assertEquals("T | 0 | task 99", lines.get(99));
+    }
+
+    @Test
+    public void append_recordsAfterSnapshot_appendedInOrder() throws Exception {
+        Path snapshot = dir.resolve("ketchup.txt");
+        Path journalFile = dir.resolve("ketchup.journal");
+        Journal journal = new Journal(snapshot, journalFile, 1024 * 1024);
+        WriteBehindSaver saver = new WriteBehindSaver(journal, 10_000);
+        TaskList tasks = new TaskList();
+        tasks.addTask(new ToDo("read book"));
+
+        saver.append(Journal.markRecord(0));
+        saver.requestSave(tasks.copy());
+        saver.append(Journal.addRecord(new ToDo("write report")));
+        saver.append(Journal.markRecord(1));
+        saver.close();
+
+        assertEquals(List.of("T | 0 | read book"), Files.readAllLines(snapshot));
+        assertEquals(List.of("+ T | 0 | write report", "M 1"), Files.readAllLines(journalFile));
+
+        TaskList loaded = new TaskList();
+        Storage.readSnapshot(snapshot, loaded);
+        journal.replay(loaded);
+        assertEquals(2, loaded.getSize());
+        assertTrue(loaded.getTask(1).isDone());
+    }
+
+    @Test
+    public void append_afterClose_writtenImmediately() throws Exception {
+        Path journalFile = dir.resolve("ketchup.journal");
+        Journal journal = new Journal(dir.resolve("ketchup.txt"), journalFile, 1024 * 1024);
+        WriteBehindSaver saver = new WriteBehindSaver(journal, 10_000);
+
+        saver.close();
+        saver.append(Journal.markRecord(3));
+
+        assertEquals(List.of("M 3"), Files.readAllLines(journalFile));
+    }
+
+    @Test
+    public void close_flushStillScheduled_writesOnceWithoutWaitingForIt() throws Exception {
+        Path journalFile = dir.resolve("ketchup.journal");
+        Journal journal = new Journal(dir.resolve("ketchup.txt"), journalFile, 1024 * 1024);
+        WriteBehindSaver saver = new WriteBehindSaver(journal, 60_000);
+
+        saver.append(Journal.markRecord(1));
+        assertTimeoutPreemptively(Duration.ofSeconds(10), saver::close);
+        saver.append(Journal.markRecord(2));
+        saver.close();
+
+        assertEquals(List.of("M 1", "M 2"), Files.readAllLines(journalFile));
+    }
+}
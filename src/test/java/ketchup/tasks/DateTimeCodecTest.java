@@ -0,0 +1,90 @@
+package ketchup.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link DateTimeCodec}.
+ * Verifies that parsing and formatting agree with {@link Task#getDateFormat()}.
+ */
+public class DateTimeCodecTest {
+
+    @Test
+    public void parse_validText_matchesFormatter() {
+        String[] inputs = {"2026-02-20 1800", "2024-02-29 0000", "0001-01-01 2359", "9999-12-31 1200"};
+
+        for (String input : inputs) {
+            assertEquals(LocalDateTime.parse(input, Task.getDateFormat()), DateTimeCodec.parse(input));
+        }
+    }
+
+    @Test
+    public void parse_formatterSpecialCases_matchesFormatter() {
+        String[] inputs = {"2026-02-31 1400", "2026-04-31 0000", "2026-02-20 2400"};
+
+        for (String input : inputs) {
+            assertEquals(LocalDateTime.parse(input, Task.getDateFormat()), DateTimeCodec.parse(input));
+        }
+    }
+
+    @Test
+    public void parse_invalidText_keepsFormatterMessage() {
+        String[] inputs = {"invalid-date", "2026-02-20T1400", "2026-13-01 1200", "2026-02-20 2360", "2026-1-01 1000"};
+
+        for (String input : inputs) {
+            DateTimeParseException expected = assertThrows(DateTimeParseException.class,
+                    () -> LocalDateTime.parse(input, Task.getDateFormat()));
+            DateTimeParseException actual = assertThrows(DateTimeParseException.class,
+                    () -> DateTimeCodec.parse(input));
+
+            assertEquals(expected.getMessage(), actual.getMessage());
+            assertEquals(expected.getErrorIndex(), actual.getErrorIndex());
+        }
+    }
+
+    @Test
+    public void parseOrNull_invalidText_returnsNull() {
+        assertNull(DateTimeCodec.parseOrNull("invalid-date"));
+        assertNull(DateTimeCodec.parseOrNull("2026-00-10 1000"));
+        assertEquals(DateTimeCodec.INVALID, DateTimeCodec.parseEpochMinute("2026-00-10 1000"));
+    }
+
+    @Test
+    public void parseEpochMinute_matchesLocalDateTime() {
+        LocalDateTime time = LocalDateTime.of(1969, 3, 1, 0, 0);
+
+        for (int i = 0; i < 5000; i++) {
+            String text = time.format(Task.getDateFormat());
+            assertEquals(DateTimeCodec.toEpochMinute(time), DateTimeCodec.parseEpochMinute(text));
+            assertEquals(time, DateTimeCodec.fromEpochMinute(DateTimeCodec.parseEpochMinute(text)));
+            time = time.plusHours(37).plusMinutes(13);
+        }
+    }
+
+    @Test
+    public void format_matchesFormatter() {
+        LocalDateTime time = LocalDateTime.of(2026, 2, 20, 18, 5, 42);
+        String expected = time.format(Task.getDateFormat());
+
+        assertEquals(expected, DateTimeCodec.format(time));
+
+        ByteBuffer buffer = ByteBuffer.allocate(DateTimeCodec.LENGTH);
+        DateTimeCodec.formatTo(time, buffer);
+        assertEquals(expected, new String(buffer.array(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void format_yearOutsideFastPath_matchesFormatter() {
+        LocalDateTime time = LocalDateTime.of(12345, 1, 1, 0, 0);
+
+        assertEquals(time.format(Task.getDateFormat()), DateTimeCodec.format(time));
+    }
+}
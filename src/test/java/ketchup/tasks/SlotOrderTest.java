@@ -0,0 +1,72 @@
+package ketchup.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link SlotOrder}.
+ * Verifies conversions between positions and slots as slots are freed.
+ */
+public class SlotOrderTest {
+
+    @Test
+    public void slotAt_noFreedSlots_isIdentity() {
+        SlotOrder order = new SlotOrder(10);
+
+        assertEquals(7, order.slotAt(7));
+        assertEquals(7, order.positionOf(7));
+    }
+
+    @Test
+    public void slotAt_afterRemovals_skipsFreedSlots() {
+        SlotOrder order = new SlotOrder();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, order.append());
+        }
+
+        order.remove(0);
+        order.remove(50);
+        order.remove(99);
+
+        assertEquals(97, order.size());
+        assertEquals(100, order.slotCount());
+        assertEquals(1, order.slotAt(0));
+        assertEquals(51, order.slotAt(49));
+        assertEquals(98, order.slotAt(96));
+        assertEquals(49, order.positionOf(51));
+    }
+
+    @Test
+    public void append_afterRemovals_addsAtEnd() {
+        SlotOrder order = new SlotOrder(5);
+        order.remove(2);
+
+        int slot = order.append();
+
+        assertEquals(5, slot);
+        assertEquals(5, order.size());
+        assertEquals(5, order.slotAt(4));
+        assertEquals(4, order.positionOf(5));
+    }
+
+    @Test
+    public void freeze_keepsSlotsWhileOrderChanges() {
+        SlotOrder order = new SlotOrder(5_000);
+        order.remove(10);
+        SlotOrder frozen = order.freeze();
+
+        order.remove(0);
+        order.remove(4_096);
+        order.append();
+
+        assertEquals(4_999, frozen.size());
+        assertEquals(5_000, frozen.slotCount());
+        assertEquals(11, frozen.slotAt(10));
+        assertEquals(4_999, frozen.slotAt(4_998));
+        assertEquals(4_095, frozen.positionOf(4_096));
+        assertEquals(4_998, order.size());
+        assertEquals(4_097, order.slotAt(4_094));
+        assertEquals(5_000, order.slotAt(4_997));
+    }
+}
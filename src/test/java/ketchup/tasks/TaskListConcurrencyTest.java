@@ -0,0 +1,167 @@
+package ketchup.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Stress tests for {@link TaskList} shared between one writer and several readers.
+ * <p>
+ * The writer keeps the list holding {@code task lo} to {@code task hi - 1} in order, by
+ * adding at the end and deleting at the front, which also compacts the list now and then.
+ * Readers check that every view of the list they get is such a run, so a read that saw
+ * half of a change would fail.
+ */
+public class TaskListConcurrencyTest {
+
+    private static final int WRITES = 20_000;
+
+    private static final int READERS = 3;
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    /**
+     * Asserts that the tasks are {@code task k}, {@code task k + 1}, ... for some k.
+     */
+    private static void assertRun(Iterable<Task> tasks) {
+        int expected = -1;
+        for (Task task : tasks) {
+            int number = Integer.parseInt(task.getDesc().substring(5));
+            assertTrue(expected == -1 || number == expected, "Gap before " + task.getDesc());
+            expected = number + 1;
+        }
+    }
+
+    private static void runWriterAndReaders(Supplier<TaskList> factory) throws Exception {
+        TaskList tasks = factory.get();
+        AtomicBoolean isWriting = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newFixedThreadPool(READERS);
+        try {
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int r = 0; r < READERS; r++) {
+                int kind = r;
+                readers.add(pool.submit(() -> {
+                    int reads = 0;
+                    while (isWriting.get() || reads == 0) {
+                        switch (kind) {
+                        case 0:
+                            assertRun(tasks.copy());
+                            break;
+                        case 1:
+                            assertRun(tasks.findTask("task"));
+                            assertRun(tasks.findBetween(BASE, BASE.plusYears(1)));
+                            break;
+                        default:
+                            String text = tasks.toString();
+                            TaskList parsed = new TaskList();
+                            for (String line : text.split("\n")) {
+                                int end = line.indexOf(" (by: ");
+                                if (end >= 0) {
+                                    parsed.addTask(new ToDo(line.substring(line.indexOf("task "), end)));
+                                }
+                            }
+                            assertRun(parsed);
+                            Task byId = tasks.getTaskById(Math.max(1, reads));
+                            assertTrue(byId == null || byId.getId() == Math.max(1, reads));
+                            break;
+                        }
+                        reads++;
+                    }
+                    return reads;
+                }));
+            }
+
+            int lo = 0;
+            for (int hi = 0; hi < WRITES; hi++) {
+                tasks.addTask(new Deadline("task " + hi, BASE.plusMinutes(hi)));
+                tasks.getTask(tasks.getSize() - 1).markDone();
+                if (hi % 3 != 0) {
+                    tasks.deleteTask(0);
+                    lo++;
+                }
+            }
+            isWriting.set(false);
+
+            for (Future<Integer> reader : readers) {
+                assertTrue(reader.get(30, TimeUnit.SECONDS) > 0);
+            }
+            assertEquals(WRITES - lo, tasks.getSize());
+            assertRun(tasks);
+            for (Task task : tasks) {
+                assertTrue(task.isDone());
+            }
+        } finally {
+            isWriting.set(false);
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void oneWriterManyReaders_readersSeeWholeChanges() throws Exception {
+        runWriterAndReaders(TaskList::new);
+    }
+
+    @Test
+    public void oneWriterManyReaders_columnar_readersSeeWholeChanges() throws Exception {
+        runWriterAndReaders(TaskList::columnar);
+    }
+
+    @Test
+    public void slowIteration_doesNotBlockReadersOrWriters() throws Exception {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 1_000; i++) {
+            tasks.addTask(new ToDo("task " + i));
+        }
+
+        // A save walks the list like this, and may stop between tasks to write them out.
+        Iterator<Task> save = tasks.iterator();
+        save.next();
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> other = pool.submit(() -> {
+                tasks.addTask(new ToDo("task 1000"));
+                tasks.deleteTask(500);
+                return tasks.findTask("task 99").getSize();
+            });
+            assertEquals(11, other.get(5, TimeUnit.SECONDS).intValue());
+        } finally {
+            pool.shutdownNow();
+        }
+        save.next();
+    }
+
+    @Test
+    public void iteration_acrossCompaction_failsFast() {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 1_000; i++) {
+            tasks.addTask(new ToDo("task " + i));
+        }
+
+        Iterator<Task> iterator = tasks.iterator();
+        iterator.next();
+        for (int i = 0; i < 900; i++) {
+            tasks.deleteTask(0);
+        }
+
+        assertThrows(ConcurrentModificationException.class, () -> {
+            while (iterator.hasNext()) {
+                iterator.next();
+            }
+        });
+    }
+}
@@ -1,8 +1,13 @@
 package ketchup.tasks;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.LocalDateTime;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -55,6 +60,61 @@ public class TaskListTest {
         assertEquals("task2", taskList.getTask(0).getDesc());
     }
 
+    @Test
+    public void addTask_assignsStableIds() {
+        taskList.addTask(new ToDo("first"));
+        taskList.addTask(new ToDo("second"));
+        taskList.addTask(new ToDo("third"));
+
+        taskList.deleteTask(0);
+
+        assertEquals(2, taskList.getTask(0).getId());
+        assertEquals(0, taskList.indexOfId(2));
+        assertEquals(1, taskList.indexOfId(3));
+        assertEquals(-1, taskList.indexOfId(1));
+        assertEquals("third", taskList.getTaskById(3).getDesc());
+        assertNull(taskList.getTaskById(1));
+    }
+
+    @Test
+    public void deleteTask_manyFromMiddle_keepsOrderAndIds() {
+        for (int i = 0; i < 1_000; i++) {
+            taskList.addTask(new ToDo("task " + i));
+        }
+
+        for (int i = 0; i < 600; i++) {
+            taskList.deleteTask(200);
+        }
+
+        assertEquals(400, taskList.getSize());
+        assertEquals("task 199", taskList.getTask(199).getDesc());
+        assertEquals("task 800", taskList.getTask(200).getDesc());
+        assertEquals(200, taskList.indexOfId(801));
+        int count = 0;
+        for (Task task : taskList) {
+            assertEquals(task, taskList.getTask(count++));
+        }
+        assertEquals(400, count);
+    }
+
+    @Test
+    public void deleteTaskById_returnsFormerIndexAndKeepsIdsAcrossCompaction() {
+        for (int i = 0; i < 300; i++) {
+            taskList.addTask(new ToDo("task " + i));
+        }
+
+        assertEquals(5, taskList.deleteTaskById(6));
+        assertEquals(-1, taskList.deleteTaskById(6));
+        for (int id = 7; id <= 250; id++) {
+            taskList.deleteTaskById(id);
+        }
+
+        assertEquals(55, taskList.getSize());
+        assertEquals("task 250", taskList.getTaskById(251).getDesc());
+        assertEquals(5, taskList.indexOfId(251));
+        assertNull(taskList.getTaskById(100));
+    }
+
     /* ================= FIND ================= */
 
     @Test
@@ -87,6 +147,282 @@ public class TaskListTest {
         assertEquals(0, results.getSize());
     }
 
+    @Test
+    public void findTask_partialWord_matchesInsideTokens() {
+        taskList.addTask(new ToDo("Reading list"));
+        taskList.addTask(new ToDo("bread"));
+        taskList.addTask(new ToDo("write report"));
+
+        TaskList results = taskList.findTask("EAD");
+
+        assertEquals(2, results.getSize());
+        assertEquals("Reading list", results.getTask(0).getDesc());
+        assertEquals("bread", results.getTask(1).getDesc());
+    }
+
+    @Test
+    public void findTask_multipleWords_matchesOnlyAdjacentWords() {
+        taskList.addTask(new ToDo("read the book"));
+        taskList.addTask(new ToDo("book to read"));
+        taskList.addTask(new ToDo("bread the dough"));
+
+        TaskList results = taskList.findTask("ead the");
+
+        assertEquals(2, results.getSize());
+        assertEquals("read the book", results.getTask(0).getDesc());
+        assertEquals("bread the dough", results.getTask(1).getDesc());
+        assertEquals(0, taskList.findTask(" read ").getSize());
+    }
+
+    @Test
+    public void findTask_afterAddAndDelete_reflectsChanges() {
+        taskList.addTask(new ToDo("read book"));
+        taskList.addTask(new ToDo("read news"));
+        assertEquals(2, taskList.findTask("read").getSize());
+
+        taskList.deleteTask(0);
+        taskList.addTask(new ToDo("proofread essay"));
+        TaskList results = taskList.findTask("read");
+
+        assertEquals(2, results.getSize());
+        assertEquals("read news", results.getTask(0).getDesc());
+        assertEquals("proofread essay", results.getTask(1).getDesc());
+        assertEquals(0, taskList.findTask("book").getSize());
+    }
+
+    @Test
+    public void findTask_results_lookUpAndDeleteById() {
+        for (int i = 0; i < 100; i++) {
+            taskList.addTask(new ToDo(i % 10 == 0 ? "read " + i : "write " + i));
+        }
+
+        TaskList results = taskList.findTask("read");
+        results.addTask(new ToDo("read more"));
+
+        assertEquals(11, results.getSize());
+        assertEquals("read 50", results.getTaskById(51).getDesc());
+        assertEquals(101, results.getTask(10).getId());
+        assertEquals(5, results.deleteTaskById(51));
+        assertEquals(-1, results.indexOfId(51));
+        assertNull(results.getTaskById(2));
+        assertEquals(100, taskList.getSize());
+    }
+
+    /* ================= TIME QUERIES ================= */
+
+    @Test
+    public void findDue_returnsDeadlinesInWindowEarliestFirst() {
+        LocalDateTime base = LocalDateTime.of(2026, 5, 1, 12, 0);
+        taskList.addTask(new Deadline("late", base.plusHours(30)));
+        taskList.addTask(new ToDo("no date"));
+        taskList.addTask(new Deadline("early", base.plusHours(2)));
+        taskList.addTask(new Deadline("too late", base.plusHours(49)));
+
+        TaskList results = taskList.findDue(base, base.plusHours(48));
+
+        assertEquals(2, results.getSize());
+        assertEquals("early", results.getTask(0).getDesc());
+        assertEquals("late", results.getTask(1).getDesc());
+    }
+
+    @Test
+    public void findBetween_includesEventsStartingBeforeWindow() {
+        LocalDateTime base = LocalDateTime.of(2026, 5, 1, 12, 0);
+        taskList.addTask(new Event("long trip", base.minusDays(10), base.plusDays(1)));
+        taskList.addTask(new Event("ended", base.minusDays(3), base.minusDays(2)));
+        taskList.addTask(new Deadline("report", base.plusHours(1)));
+
+        TaskList results = taskList.findBetween(base, base.plusHours(6));
+
+        assertEquals(2, results.getSize());
+        assertEquals("long trip", results.getTask(0).getDesc());
+        assertEquals("report", results.getTask(1).getDesc());
+    }
+
+    @Test
+    public void findDue_afterDelete_dropsDeletedDeadline() {
+        LocalDateTime base = LocalDateTime.of(2026, 5, 1, 12, 0);
+        taskList.addTask(new Deadline("first", base));
+        assertEquals(1, taskList.findDue(base, base).getSize());
+
+        taskList.deleteTask(0);
+        taskList.addTask(new Deadline("second", base));
+        TaskList results = taskList.findDue(base, base);
+
+        assertEquals(1, results.getSize());
+        assertEquals("second", results.getTask(0).getDesc());
+    }
+
+    /* ================= COLUMNAR ================= */
+
+    @Test
+    public void columnar_returnsEqualTasks() {
+        TaskList columns = TaskList.columnar();
+        LocalDateTime base = LocalDateTime.of(2026, 5, 1, 12, 0);
+        columns.addTask(new ToDo("café run"));
+        columns.addTask(new Deadline("report", base));
+        columns.addTask(new Event("trip", base, base.plusDays(2)));
+
+        assertEquals(3, columns.getSize());
+        assertEquals("[T][ ] café run", columns.getTask(0).toString());
+        assertEquals(base, ((Deadline) columns.getTask(1)).getDeadline());
+        assertEquals(base.plusDays(2), ((Event) columns.getTask(2)).getEnd());
+        assertEquals(3, columns.getTask(2).getId());
+    }
+
+    @Test
+    public void columnar_markingView_updatesList() {
+        TaskList columns = TaskList.columnar();
+        columns.addTask(new ToDo("first"));
+        columns.addTask(new ToDo("second"));
+
+        columns.getTask(1).markDone();
+        TaskList snapshot = columns.copy();
+        columns.getTask(1).markUndone();
+        columns.findTask("first").getTask(0).markDone();
+
+        assertTrue(columns.getTask(0).isDone());
+        assertFalse(columns.getTask(1).isDone());
+        assertTrue(snapshot.getTask(1).isDone());
+        assertFalse(snapshot.getTask(0).isDone());
+    }
+
+    @Test
+    public void columnar_manyDeletes_matchesRegularList() {
+        TaskList columns = TaskList.columnar();
+        LocalDateTime base = LocalDateTime.of(2026, 5, 1, 12, 0);
+        for (int i = 0; i < 1_000; i++) {
+            Task task = i % 2 == 0 ? new ToDo("task " + i) : new Deadline("task " + i, base.plusHours(i));
+            columns.addTask(task);
+            taskList.addTask(task);
+        }
+        assertEquals(500, columns.findDue(base, base.plusHours(1_000)).getSize());
+
+        for (int i = 0; i < 600; i++) {
+            columns.deleteTask(100 + i % 7);
+            taskList.deleteTask(100 + i % 7);
+        }
+
+        assertEquals(taskList.toString(), columns.toString());
+        assertEquals(taskList.findTask("task 9").toString(), columns.findTask("task 9").toString());
+        assertEquals(taskList.findBetween(base, base.plusHours(100)).toString(),
+                columns.findBetween(base, base.plusHours(100)).toString());
+    }
+
+    /* ================= SNAPSHOT ================= */
+
+    @Test
+    public void restore_undoesAddsDeletesAndMarks() {
+        taskList.addTask(new ToDo("first"));
+        taskList.addTask(new ToDo("second"));
+        TaskList snapshot = taskList.snapshot();
+
+        taskList.getTask(0).markDone();
+        taskList.deleteTask(1);
+        taskList.addTask(new ToDo("third"));
+        taskList.restore(snapshot);
+
+        assertEquals(2, taskList.getSize());
+        assertFalse(taskList.getTask(0).isDone());
+        assertEquals("second", taskList.getTask(1).getDesc());
+        assertEquals(1, taskList.indexOfId(2));
+        assertEquals(1, taskList.findTask("sec").getSize());
+        taskList.addTask(new ToDo("fourth"));
+        assertEquals(4, taskList.getTask(2).getId());
+    }
+
+    /* ================= freeze ================= */
+
+    @Test
+    public void freeze_keepsContentsWhileListChanges() {
+        for (int i = 0; i < 3_000; i++) {
+            taskList.addTask(new ToDo("task " + i));
+        }
+        taskList.deleteTask(5);
+        TaskList frozen = taskList.freeze();
+
+        taskList.deleteTask(0);
+        taskList.addTask(new ToDo("late"));
+        for (int i = 0; i < 1_500; i++) {
+            taskList.deleteTask(1_000);
+        }
+
+        assertEquals(2_999, frozen.getSize());
+        assertEquals("task 0", frozen.getTask(0).getDesc());
+        assertEquals("task 6", frozen.getTask(5).getDesc());
+        assertEquals("task 2999", frozen.getTask(2_998).getDesc());
+        assertEquals(5, frozen.indexOfId(7));
+        assertEquals(11, frozen.findTask("task 299").getSize());
+        assertEquals(1_499, taskList.getSize());
+        assertEquals("task 1", taskList.getTask(0).getDesc());
+        assertEquals("late", taskList.getTask(1_498).getDesc());
+    }
+
+    @Test
+    public void freeze_frozenList_cannotChange() {
+        taskList.addTask(new ToDo("read"));
+        TaskList frozen = taskList.freeze();
+
+        assertTrue(frozen.freeze() == frozen);
+        assertThrows(UnsupportedOperationException.class, () -> frozen.addTask(new ToDo("write")));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.deleteTask(0));
+        assertEquals(1, frozen.getSize());
+    }
+
+    @Test
+    public void freeze_columnar_keepsContents() {
+        TaskList columnar = TaskList.columnar();
+        columnar.addTask(new ToDo("read"));
+        TaskList frozen = columnar.freeze();
+
+        columnar.getTask(0).markDone();
+        columnar.addTask(new ToDo("write"));
+
+        assertEquals(1, frozen.getSize());
+        assertFalse(frozen.getTask(0).isDone());
+    }
+
+    @Test
+    public void freeze_columnarView_marksOnlyThatView() {
+        TaskList columnar = TaskList.columnar();
+        columnar.addTask(new ToDo("read"));
+        TaskList frozen = columnar.freeze();
+
+        Task view = frozen.getTask(0);
+        view.markDone();
+
+        assertTrue(view.isDone());
+        assertFalse(frozen.getTask(0).isDone());
+        assertFalse(columnar.getTask(0).isDone());
+    }
+
+    @Test
+    public void freeze_columnarAcrossPages_sharesUnchangedColumns() {
+        TaskList columnar = TaskList.columnar();
+        for (int i = 0; i < 3_000; i++) {
+            columnar.addTask(new Deadline("task " + i, LocalDateTime.of(2026, 1, 1, 0, 0).plusMinutes(i)));
+        }
+        columnar.getTask(2_500).markDone();
+        TaskList frozen = columnar.freeze();
+
+        columnar.getTask(2_500).markUndone();
+        columnar.getTask(10).markDone();
+        columnar.deleteTask(1_500);
+        for (int i = 0; i < 2_000; i++) {
+            columnar.addTask(new ToDo("late " + i));
+        }
+
+        assertEquals(3_000, frozen.getSize());
+        assertTrue(frozen.getTask(2_500).isDone());
+        assertFalse(frozen.getTask(10).isDone());
+        assertEquals("task 1500", frozen.getTask(1_500).getDesc());
+        assertEquals(LocalDateTime.of(2026, 1, 1, 0, 0).plusMinutes(2_999),
+                ((Deadline) frozen.getTask(2_999)).getDeadline());
+        assertFalse(columnar.getTask(2_499).isDone());
+        assertTrue(columnar.getTask(10).isDone());
+        assertEquals("late 1999", columnar.getTask(4_998).getDesc());
+    }
+
     /* ================= toString ================= */
 
     @Test
@@ -106,4 +442,17 @@ public class TaskListTest {
         assertTrue(output.contains("read"));
         assertTrue(output.contains("write"));
     }
+
+    @Test
+    public void toString_range_formatsOnlyThoseTasks() {
+        for (int i = 0; i < 10; i++) {
+            taskList.addTask(new ToDo("task " + i));
+        }
+        taskList.deleteTask(2);
+
+        assertEquals("3. [T][ ] task 3\n4. [T][ ] task 4", taskList.toString(2, 2));
+        assertEquals("9. [T][ ] task 9", taskList.toString(8, 5));
+        assertEquals("9. [T][ ] task 9 (" + taskList.formatId(10) + ")", taskList.toString(8, 5, true));
+        assertThrows(IndexOutOfBoundsException.class, () -> taskList.toString(9, 1));
+    }
 }
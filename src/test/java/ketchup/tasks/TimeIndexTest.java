@@ -0,0 +1,70 @@
+package ketchup.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link TimeIndex}.
+ * Verifies overlap queries and that the longest event length follows removals.
+ */
+public class TimeIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 5, 1, 0, 0);
+
+    private static Event event(int id, LocalDateTime start, LocalDateTime end) {
+        Event event = new Event("event " + id, start, end);
+        event.setId(id);
+        return event;
+    }
+
+    private static long minute(LocalDateTime dateTime) {
+        return DateTimeCodec.toEpochMinute(dateTime);
+    }
+
+    @Test
+    public void between_oneLongEventAmongShortOnes_findsOverlapsUntilItIsRemoved() {
+        TimeIndex index = new TimeIndex();
+        Event[] shortEvents = new Event[1000];
+        for (int i = 0; i < shortEvents.length; i++) {
+            shortEvents[i] = event(i + 1, BASE.plusHours(i), BASE.plusHours(i).plusMinutes(30));
+            index.add(shortEvents[i]);
+        }
+        Event longEvent = event(1001, BASE.minusDays(30), BASE.plusDays(60));
+        index.add(longEvent);
+
+        long from = minute(BASE.plusHours(500).plusMinutes(10));
+        long to = minute(BASE.plusHours(501));
+        assertEquals(90L * 24 * 60, index.maxEventLength());
+        assertArrayEquals(new int[] {1001, 501, 502}, index.between(from, to));
+
+        index.remove(longEvent);
+
+        assertEquals(30, index.maxEventLength());
+        assertArrayEquals(new int[] {501, 502}, index.between(from, to));
+    }
+
+    @Test
+    public void maxEventLength_equalLengths_dropsOnlyAfterTheLastIsRemoved() {
+        TimeIndex index = new TimeIndex();
+        Event first = event(1, BASE, BASE.plusDays(2));
+        Event second = event(2, BASE.plusDays(5), BASE.plusDays(7));
+        Event shorter = event(3, BASE, BASE.plusHours(1));
+        index.add(first);
+        index.add(second);
+        index.add(shorter);
+
+        index.remove(first);
+        assertEquals(2 * 24 * 60, index.maxEventLength());
+
+        index.remove(second);
+        assertEquals(60, index.maxEventLength());
+
+        index.remove(second);
+        index.remove(shorter);
+        assertEquals(0, index.maxEventLength());
+    }
+}
@@ -0,0 +1,100 @@
+package ketchup.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link TrigramIndex}.
+ * Verifies that lookups return the slots a case-insensitive substring scan would.
+ */
+public class TrigramIndexTest {
+
+    private TaskStore store;
+
+    private TrigramIndex indexOf(String... descs) {
+        return indexOf(new ColumnarTaskStore(), descs);
+    }
+
+    private TrigramIndex indexOf(TaskStore taskStore, String... descs) {
+        store = taskStore;
+        TrigramIndex index = new TrigramIndex(store);
+        for (int i = 0; i < descs.length; i++) {
+            add(index, i, descs[i]);
+        }
+        return index;
+    }
+
+    private void add(TrigramIndex index, int slot, String desc) {
+        Task task = new ToDo(desc);
+        task.setId(slot + 1);
+        store.add(slot, task);
+        index.add(slot, desc);
+    }
+
+    @Test
+    public void find_substringAcrossWords_matchesLikeContains() {
+        TrigramIndex index = indexOf("read the book", "book the read", "Bread Thermos");
+
+        assertArrayEquals(new int[] {0, 2}, index.find("EAD TH"));
+        assertArrayEquals(new int[] {1}, index.find("k the r"));
+    }
+
+    @Test
+    public void find_trigramsInWrongOrder_areRejected() {
+        TrigramIndex index = indexOf("abcd bcde", "abcde");
+
+        assertArrayEquals(new int[] {1}, index.find("abcde"));
+    }
+
+    @Test
+    public void find_shortQuery_scansDescriptions() {
+        TrigramIndex index = indexOf("ab", "xyz", "cab");
+
+        assertArrayEquals(new int[] {0, 2}, index.find("Ab"));
+        assertArrayEquals(new int[] {0, 1, 2}, index.find(""));
+    }
+
+    @Test
+    public void find_afterAddAndRemove_reflectsChanges() {
+        TrigramIndex index = indexOf();
+        for (int i = 0; i < 2_005; i++) {
+            add(index, i, "task number " + i);
+        }
+
+        store.free(0);
+        for (int i = 2_000; i < 2_005; i++) {
+            store.free(i);
+        }
+        add(index, 2_005, "extra task");
+
+        assertArrayEquals(new int[] {999}, index.find("number 999"));
+        assertArrayEquals(new int[] {2_005}, index.find("extra"));
+        assertArrayEquals(new int[0], index.find("number 0"));
+        assertArrayEquals(new int[] {2_005}, index.find("XT"));
+    }
+
+    @Test
+    public void find_removedSlot_isSkippedByEveryKindOfQuery() {
+        TrigramIndex index = indexOf("abc", "abcd", "zabc");
+
+        store.free(1);
+
+        assertArrayEquals(new int[] {0, 2}, index.find("abc"));
+        assertArrayEquals(new int[0], index.find("bcd"));
+        assertArrayEquals(new int[] {0, 2}, index.find("ab"));
+    }
+
+    @Test
+    public void find_nonAsciiDescriptions_matchInEveryStore() {
+        String[] descs = {"Café run", "İstanbul trip", "KELVIN \u212A", "plain caf"};
+        for (TaskStore taskStore : new TaskStore[] {new ColumnarTaskStore(), new ObjectTaskStore()}) {
+            TrigramIndex index = indexOf(taskStore, descs);
+
+            assertArrayEquals(new int[] {0, 3}, index.find("CAF"));
+            assertArrayEquals(new int[] {0}, index.find("É"));
+            assertArrayEquals(new int[] {1}, index.find("İSTANBUL"));
+            assertArrayEquals(new int[] {2}, index.find("IN K"));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ketchup.ui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ketchup.tasks.TaskList;
+import ketchup.tasks.ToDo;
+
+/**
+ * Unit tests for {@link Transcript}.
+ * Verifies that the conversation stays bounded and that dropped messages are spilled.
+ */
+public class TranscriptTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void add_pastLimit_dropsOldestQuarter() {
+        List<Transcript.Entry> entries = new ArrayList<>();
+        Transcript transcript = new Transcript(entries, 8, null);
+
+        for (int i = 0; i < 1_000; i++) {
+            transcript.add("message " + i, i % 2 == 0);
+            assertTrue(entries.size() <= 8);
+        }
+
+        assertEquals("message 999", entries.get(entries.size() - 1).getText());
+        assertEquals(1_000 - entries.size(), Integer.parseInt(entries.get(0).getText().substring(8)));
+    }
+
+    @Test
+    public void add_withSpillFile_appendsDroppedMessagesInOrder() throws Exception {
+        Path spill = dir.resolve("transcript.txt");
+        List<Transcript.Entry> entries = new ArrayList<>();
+        Transcript transcript = new Transcript(entries, 4, spill);
+        TaskList tasks = new TaskList();
+        tasks.addTask(new ToDo("read"));
+
+        transcript.add("list", true);
+        transcript.addListing("Here are your 1 tasks!", tasks.freeze());
+        transcript.add("todo write", true);
+        transcript.add("Sure!", false);
+        transcript.add("bye", true);
+
+        assertEquals(List.of("> list", "Here are your 1 tasks!"), Files.readAllLines(spill));
+        assertEquals(3, entries.size());
+        assertEquals("todo write", entries.get(0).getText());
+    }
+
+    @Test
+    public void replace_placeholder_keepsItsPlace() {
+        List<Transcript.Entry> entries = new ArrayList<>();
+        Transcript transcript = new Transcript(entries, 4, null);
+        transcript.add("todo read", true);
+        Transcript.Entry first = transcript.add("...", false);
+        transcript.add("list", true);
+        Transcript.Entry second = transcript.add("...", false);
+
+        transcript.replace(first, "Sure!", null);
+        assertEquals("Sure!", entries.get(1).getText());
+
+        transcript.add("bye", true);
+        transcript.add("...", false);
+        transcript.add("Bye!", false);
+        Transcript.Entry late = transcript.replace(second, "Here are your 1 tasks!", null);
+
+        assertEquals(late, entries.get(entries.size() - 1));
+        assertFalse(entries.contains(second));
+    }
+
+    @Test
+    public void update_shownEntry_changesTextWithoutAppearingAgain() {
+        List<Transcript.Entry> entries = new ArrayList<>();
+        Transcript transcript = new Transcript(entries, 4, null);
+        Transcript.Entry progress = transcript.add("Loading your tasks...", false);
+        progress.appear();
+        transcript.add("list", true);
+
+        Transcript.Entry updated = transcript.update(progress, "Loaded 3 tasks in 1 ms!");
+
+        assertEquals(updated, entries.get(0));
+        assertEquals("Loaded 3 tasks in 1 ms!", updated.getText());
+        assertFalse(updated.appear());
+    }
+
+    @Test
+    public void appear_isTrueOnlyOnce() {
+        Transcript.Entry entry = new Transcript(new ArrayList<>(), 4, null).add("hi", false);
+
+        assertTrue(entry.appear());
+        assertFalse(entry.appear());
+    }
+}